@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+/**
+ * <p>
+ * Entry point of the benchmarks jar. Takes the usual JMH command line, but always runs with the GC
+ * profiler so that every result reports the allocation per operation
+ * (<code>gc.alloc.rate.norm</code>) next to the timing.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {
+	// Entry point only
+    }
+
+    public static void main(String[] args) throws Exception {
+	CommandLineOptions options = new CommandLineOptions(args);
+	if (options.shouldHelp() || options.shouldList() || options.shouldListWithParams()
+		|| options.shouldListProfilers() || options.shouldListResultFormats()) {
+	    Main.main(args);
+	    return;
+	}
+	ChainedOptionsBuilder builder = new OptionsBuilder().parent(options);
+	boolean profiled = false;
+	for (ProfilerConfig profiler : options.getProfilers())
+	    profiled |= "gc".equals(profiler.getKlass())
+		    || GCProfiler.class.getName().equals(profiler.getKlass());
+	if (!profiled)
+	    builder.addProfiler(GCProfiler.class);
+	new Runner(builder.build()).run();
+    }
+}
\ No newline at end of file
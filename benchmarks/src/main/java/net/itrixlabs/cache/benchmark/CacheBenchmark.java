@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.benchmark;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+
+import net.itrixlabs.cache.auth.SerializableAuthCache;
+import net.itrixlabs.cache.core.AbstractFileSystemCache;
+import net.itrixlabs.cache.csrf.SerializableCsrfCache;
+import net.itrixlabs.cache.generic.SerializableGenericCache;
+import net.itrixlabs.cache.user.SerializableUserCache;
+
+/**
+ * <p>
+ * Measures mixes of gets, puts &amp; evictions against each typed cache, on a single thread and on
+ * four threads sharing the cache. The read heavy mix is 90% gets, 5% puts and 5% evictions; the
+ * write heavy one is 50% gets, 25% puts and 25% evictions. About half of the keys are present at
+ * any time.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+
+    private static final int SIZE = 1 << 16;
+    private static final int MASK = SIZE - 1;
+
+    @Param({ "auth", "csrf", "user", "generic" })
+    private String type;
+
+    private AbstractFileSystemCache<Object> cache;
+    private Object[] keys;
+    private Object[] values;
+
+    @Setup
+    public void setup() {
+	cache = newCache(type);
+	keys = new Object[SIZE];
+	values = new Object[SIZE];
+	for (int i = 0; i < SIZE; i++) {
+	    keys[i] = newKey(type, i);
+	    values[i] = newValue(type, i);
+	    if ((i & 1) == 0)
+		cache.putInCache(keys[i], values[i]);
+	}
+    }
+
+    /**
+     * Per thread position in the key space, so that threads don't walk the same keys in lockstep.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+	private int index = ThreadLocalRandom.current().nextInt();
+    }
+
+    @Benchmark
+    public Object readHeavy(Cursor cursor) {
+	return this.mix(cursor, 1);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object readHeavyConcurrent(Cursor cursor) {
+	return this.mix(cursor, 1);
+    }
+
+    @Benchmark
+    public Object writeHeavy(Cursor cursor) {
+	return this.mix(cursor, 5);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object writeHeavyConcurrent(Cursor cursor) {
+	return this.mix(cursor, 5);
+    }
+
+    /*
+     * Out of every 20 operations, the given number of puts, as many evictions and gets otherwise
+     */
+    private Object mix(Cursor cursor, int writes) {
+	int index = cursor.index++;
+	int key = (index * 0x9E3779B9) & MASK;
+	int operation = (index & Integer.MAX_VALUE) % 20;
+	if (operation < writes) {
+	    cache.putInCache(keys[key], values[key]);
+	    return null;
+	}
+	if (operation < (writes << 1)) {
+	    cache.evictFromCache(keys[key]);
+	    return null;
+	}
+	return cache.getFromCache(keys[key]);
+    }
+
+    static AbstractFileSystemCache<Object> newCache(String type) {
+	switch (type) {
+	case "auth":
+	    return new SerializableAuthCache<>();
+	case "csrf":
+	    return new SerializableCsrfCache<>();
+	case "user":
+	    return new SerializableUserCache<>();
+	default:
+	    return new SerializableGenericCache<>();
+	}
+    }
+
+    static Object newKey(String type, int i) {
+	return "auth".equals(type) ? (Object) Long.valueOf(i) : "key-" + i;
+    }
+
+    static Object newValue(String type, int i) {
+	List<GrantedAuthority> authorities = AuthorityUtils
+		.commaSeparatedStringToAuthorityList("ROLE_USER");
+	switch (type) {
+	case "auth":
+	    return new UsernamePasswordAuthenticationToken("user-" + i, null, authorities);
+	case "csrf":
+	    return "csrf-" + Integer.toHexString(i * 0x9E3779B9);
+	case "user":
+	    return new User("user-" + i, "password-" + i, authorities);
+	default:
+	    return "value-" + i;
+	}
+    }
+}
\ No newline at end of file
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.benchmark;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.itrixlabs.cache.generic.SerializableGenericCache;
+import net.itrixlabs.cache.util.Ticker;
+
+/**
+ * <p>
+ * Measures a single <code>flush()</code> of a freshly populated cache, once when every entry has
+ * expired and once when none has. The latter should cost next to nothing whatever the size.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class FlushBenchmark {
+
+    @Param({ "10000", "100000", "1000000" })
+    private int size;
+
+    private ManualTicker ticker;
+    private SerializableGenericCache<String> cache;
+
+    @Setup(Level.Invocation)
+    public void setup() {
+	ticker = new ManualTicker();
+	cache = new SerializableGenericCache<>();
+	cache.setTicker(ticker);
+	cache.setTtl(10L, MINUTES);
+	for (int i = 0; i < size; i++)
+	    cache.putInCache("key-" + i, "value-" + i);
+    }
+
+    @Benchmark
+    public long flushAllExpired() {
+	ticker.advance(MINUTES.toMillis(11));
+	cache.flush();
+	return cache.getExpirationCount();
+    }
+
+    @Benchmark
+    public long flushNoneExpired() {
+	ticker.advance(MINUTES.toMillis(5));
+	cache.flush();
+	return cache.getExpirationCount();
+    }
+
+    /**
+     * Ticker advanced by hand, so that the entries expire on demand.
+     */
+    static final class ManualTicker implements Ticker {
+
+	private volatile long time = System.currentTimeMillis();
+
+	@Override
+	public long currentTimeMillis() {
+	    return time;
+	}
+
+	void advance(long millis) {
+	    time += millis;
+	}
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.itrixlabs.cache.auth.SerializableAuthCache;
+
+/**
+ * <p>
+ * Measures the read paths of a typed cache. Run with <code>-prof gc</code> and check that
+ * <code>gc.alloc.rate.norm</code> stays at (or near) zero bytes per operation for the hits, misses
+ * and presence checks.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LookupBenchmark {
+
+    private static final int SIZE = 1 << 12;
+    private static final int MASK = SIZE - 1;
+
+    private final SerializableAuthCache<String> cache = new SerializableAuthCache<>();
+
+    private final Long[] present = new Long[SIZE];
+    private final Long[] absent = new Long[SIZE];
+
+    private int index;
+
+    @Setup
+    public void setup() {
+	for (int i = 0; i < SIZE; i++) {
+	    present[i] = Long.valueOf(i);
+	    absent[i] = Long.valueOf(-1 - i);
+	    cache.putInCache(present[i], "token-" + i);
+	}
+    }
+
+    @Benchmark
+    public String getHit() {
+	return cache.getFromCache(present[index++ & MASK]);
+    }
+
+    @Benchmark
+    public String getMiss() {
+	return cache.getFromCache(absent[index++ & MASK]);
+    }
+
+    @Benchmark
+    public boolean isPresent() {
+	return cache.isPresentInCache(present[index++ & MASK]);
+    }
+}
\ No newline at end of file
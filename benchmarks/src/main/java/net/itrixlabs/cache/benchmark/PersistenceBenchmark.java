@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.benchmark;
+
+import static org.springframework.security.core.SpringSecurityCoreVersion.SERIAL_VERSION_UID;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.itrixlabs.cache.core.CacheEntry;
+import net.itrixlabs.cache.generic.SerializableGenericCache;
+import net.itrixlabs.cache.persistence.AppendOnlyLog;
+import net.itrixlabs.cache.serializer.BinarySerializer;
+
+/**
+ * <p>
+ * Measures persisting a cache of user-like entries: writing a snapshot, warm starting from one
+ * (<code>initialize()</code>), and logging puts up to a <code>destroy()</code> which commits the
+ * last batch.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PersistenceBenchmark {
+
+    @Param({ "10000", "100000" })
+    private int size;
+
+    private File directory;
+    private PopulatedCache populated;
+    private SerializableGenericCache<Object> loaded;
+    private SerializableGenericCache<Object> logged;
+
+    @Setup(Level.Trial)
+    public void setupTrial() throws IOException {
+	directory = Files.createTempDirectory("cache-benchmark").toFile();
+	populated = new PopulatedCache(directory.getPath());
+	for (int i = 0; i < size; i++)
+	    populated.putInCache("key-" + i, CacheBenchmark.newValue("user", i));
+	this.writeSnapshot("load");
+    }
+
+    @Setup(Level.Invocation)
+    public void setupInvocation() throws Exception {
+	new File(directory, "logged.log").delete();
+	new File(directory, "logged.snapshot").delete();
+	logged = new SerializableGenericCache<>(directory.getPath(), "logged");
+	logged.afterPropertiesSet();
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDownInvocation() throws Exception {
+	logged.destroy();
+	if (loaded != null)
+	    loaded.destroy();
+	loaded = null;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() {
+	for (File file : directory.listFiles())
+	    file.delete();
+	directory.delete();
+    }
+
+    @Benchmark
+    public void snapshotStore() throws IOException {
+	this.writeSnapshot("store");
+    }
+
+    @Benchmark
+    public Object snapshotLoad() throws Exception {
+	loaded = new SerializableGenericCache<>(directory.getPath(), "load");
+	loaded.afterPropertiesSet();
+	return loaded.getFromCache("key-0");
+    }
+
+    @Benchmark
+    public void logStore() throws Exception {
+	for (int i = 0; i < size; i++)
+	    logged.putInCache("key-" + i, CacheBenchmark.newValue("user", i));
+	logged.destroy();
+    }
+
+    private void writeSnapshot(String name) throws IOException {
+	AppendOnlyLog log = new AppendOnlyLog(new File(directory, name + ".log"),
+		new File(directory, name + ".snapshot"), new BinarySerializer());
+	log.open(populated.entries());
+	log.compact().join();
+	log.close();
+    }
+
+    /**
+     * Exposes the entries of a cache which is never initialized (so nothing is logged).
+     */
+    static final class PopulatedCache extends SerializableGenericCache<Object> {
+
+	private static final long serialVersionUID = SERIAL_VERSION_UID;
+
+	PopulatedCache(String cacheDir) {
+	    super(cacheDir, "populated");
+	}
+
+	Collection<CacheEntry<Object>> entries() {
+	    return cache.values();
+	}
+    }
+}
\ No newline at end of file
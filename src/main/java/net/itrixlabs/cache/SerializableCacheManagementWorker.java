@@ -1,57 +1,109 @@
 package net.itrixlabs.cache;
 
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
-import net.itrixlabs.cache.auth.SerializableAuthCache;
-import net.itrixlabs.cache.csrf.SerializableCsrfCache;
-import net.itrixlabs.cache.generic.SerializableGenericCache;
-import net.itrixlabs.cache.user.SerializableUserCache;
+import net.itrixlabs.cache.core.AbstractFileSystemCache;
 
-public class SerializableCacheManagementWorker<U, A, C, G> implements Runnable {
+/**
+ * <p>
+ * Maintenance task of a single cache, flushing its expired entries and rescheduling itself. The
+ * scheduler merely triggers flushes, which run on a fork-join pool (in parallel segments, unless
+ * disabled), so a large cache never delays the flushes of the others. When adaptive, the period
+ * between two flushes follows the expiry load observed: it's halved while flushes expire more than
+ * {@value #TARGET_EXPIRATIONS} entries, and doubled while they expire few, within a second and the
+ * lesser of the maximum period and the TTL of the cache.
+ * </p>
+ */
+public class SerializableCacheManagementWorker implements Runnable {
 
     private static final Log logger = LogFactory.getLog(SerializableCacheManagementWorker.class);
 
-    private SerializableUserCache<U> userCache;
-    private SerializableAuthCache<A> authCache;
-    private SerializableCsrfCache<C> csrfCache;
-    private SerializableGenericCache<G> genericCache;
+    static final long MINIMUM_PERIOD = 1000L;
+    static final long TARGET_EXPIRATIONS = 10000L;
+
+    private final String name;
+    private final AbstractFileSystemCache<?> cache;
+    private final ScheduledExecutorService scheduler;
+    private final ForkJoinPool pool;
+    private final long maximumPeriod;
+    private final boolean adaptive;
+    private final boolean parallel;
+
+    /*
+     * Period until the next flush, in milliseconds. Only accessed by the running task
+     */
+    private long period;
 
-    SerializableCacheManagementWorker() {
+    SerializableCacheManagementWorker(String name, AbstractFileSystemCache<?> cache,
+	    ScheduledExecutorService scheduler, ForkJoinPool pool, long maximumPeriod,
+	    boolean adaptive, boolean parallel) {
+	this.name = name;
+	this.cache = cache;
+	this.scheduler = scheduler;
+	this.pool = pool;
+	this.maximumPeriod = maximumPeriod;
+	this.adaptive = adaptive;
+	this.parallel = parallel;
+	this.period = this.boundedPeriod(maximumPeriod);
     }
 
-    @Override
-    public void run() {
-	logger.info("Commencing cache management task.");
-	if (userCache != null)
-	    userCache.flush();
-	if (authCache != null)
-	    authCache.flush();
-	if (csrfCache != null)
-	    csrfCache.flush();
-	if (genericCache != null)
-	    genericCache.flush();
-	logger.info("Cache management task completed.");
+    void start() {
+	scheduler.schedule(this::submit, period, MILLISECONDS);
     }
 
-    SerializableCacheManagementWorker<U, A, C, G> setUserCache(SerializableUserCache<U> userCache) {
-	this.userCache = userCache;
-	return this;
+    private void submit() {
+	try {
+	    pool.execute(this);
+	} catch (RejectedExecutionException e) {
+	    // The manager is shutting down
+	}
     }
 
-    SerializableCacheManagementWorker<U, A, C, G> setAuthCache(SerializableAuthCache<A> authCache) {
-	this.authCache = authCache;
-	return this;
+    @Override
+    public void run() {
+	long expirations = cache.getExpirationCount();
+	try {
+	    if (parallel)
+		cache.flush(pool);
+	    else
+		cache.flush();
+	} catch (RuntimeException e) {
+	    logger.error("Couldn't flush the " + name + " cache.", e);
+	}
+	this.adapt(cache.getExpirationCount() - expirations);
+	if (logger.isDebugEnabled())
+	    logger.debug(name + " cache flushed, next flush in " + period + "ms.");
+	try {
+	    scheduler.schedule(this::submit, period, MILLISECONDS);
+	} catch (RejectedExecutionException e) {
+	    // The manager is shutting down
+	}
     }
 
-    SerializableCacheManagementWorker<U, A, C, G> setCsrfCache(SerializableCsrfCache<C> csrfCache) {
-	this.csrfCache = csrfCache;
-	return this;
+    /*
+     * Sets the period until the next flush, given the entries expired by the last one
+     */
+    long adapt(long expired) {
+	if (!adaptive)
+	    period = this.boundedPeriod(maximumPeriod);
+	else if (expired > TARGET_EXPIRATIONS)
+	    period = this.boundedPeriod(period / 2L);
+	else if (expired < TARGET_EXPIRATIONS / 8L)
+	    period = this.boundedPeriod(period * 2L);
+	else
+	    period = this.boundedPeriod(period);
+	return period;
     }
 
-    SerializableCacheManagementWorker<U, A, C, G> setGenericCache(
-	    SerializableGenericCache<G> genericCache) {
-	this.genericCache = genericCache;
-	return this;
+    private long boundedPeriod(long period) {
+	long ttl = cache.getTtlUnit().toMillis(cache.getTtl());
+	return Math.max(MINIMUM_PERIOD, Math.min(period, Math.min(maximumPeriod, ttl)));
     }
 }
\ No newline at end of file
@@ -19,16 +19,42 @@ package net.itrixlabs.cache;
 import static java.lang.Runtime.getRuntime;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
-import java.util.concurrent.Executors;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import net.itrixlabs.cache.auth.SerializableAuthCache;
+import net.itrixlabs.cache.config.CacheSpec;
+import net.itrixlabs.cache.config.CacheType;
+import net.itrixlabs.cache.config.PersistenceMode;
+import net.itrixlabs.cache.core.AbstractFileSystemCache;
 import net.itrixlabs.cache.core.CacheManager;
+import net.itrixlabs.cache.core.MemoryBudget;
 import net.itrixlabs.cache.csrf.SerializableCsrfCache;
 import net.itrixlabs.cache.generic.SerializableGenericCache;
+import net.itrixlabs.cache.persistence.LogWriter;
+import net.itrixlabs.cache.policy.Weigher;
+import net.itrixlabs.cache.stats.CacheMXBean;
+import net.itrixlabs.cache.stats.CacheMonitor;
+import net.itrixlabs.cache.stats.CacheOperation;
+import net.itrixlabs.cache.stats.LatencySnapshot;
 import net.itrixlabs.cache.user.SerializableUserCache;
 import net.itrixlabs.cache.util.Assert;
 
@@ -43,6 +69,19 @@ import net.itrixlabs.cache.util.Assert;
  * plainly as <code>Object</code>. Passing null argument to the non-required type is also not
  * necessary as it will not be considered at all.
  * </p>
+ * <p>
+ * Besides, any number of named caches may be registered, or created from a {@link CacheSpec}
+ * (TTL, expiration mode, capacity &amp; persistence mode) and looked up by name. The typed caches
+ * are registered under the name of their type. All the caches share the maintenance scheduler and
+ * a single {@link LogWriter}; the caches not yet initialized when the manager starts (or when
+ * registered afterwards) are initialized and destroyed by the manager. These caches may also share
+ * a memory budget, capping their total footprint in bytes.
+ * </p>
+ * <p>
+ * Each managed cache is registered as a {@link CacheMXBean} named
+ * <code>net.itrixlabs.cache:type=ApplicationCache,name=&lt;cache name&gt;</code>, exposing its
+ * statistics over JMX.
+ * </p>
  * 
  * @author Abhinav Rai
  * @see SerializableCacheManagementWorker
@@ -53,50 +92,174 @@ public class SerializableCacheManager<U, A, C, G> implements CacheManager {
 
     private static final Log logger = LogFactory.getLog(SerializableCacheManager.class);
 
-    private SerializableUserCache<U> userCache;
-    private SerializableAuthCache<A> authCache;
-    private SerializableCsrfCache<C> csrfCache;
-    private SerializableGenericCache<G> genericCache;
+    /*
+     * Managed caches by name, the ones initialized by the manager (destroyed by it as well), and
+     * the ones initialized already whose log was moved to the shared writer
+     */
+    private final ConcurrentMap<String, AbstractFileSystemCache<?>> caches =
+	    new ConcurrentHashMap<>();
+    private final List<AbstractFileSystemCache<?>> ownedCaches = new ArrayList<>();
+    private final List<AbstractFileSystemCache<?>> adoptedCaches = new ArrayList<>();
+
+    /*
+     * Directory of the caches created from a spec
+     */
+    private String cacheDir = System.getProperty("user.dir") + File.separatorChar + "temp"
+	    + File.separatorChar + "app_cache";
+
+    /*
+     * Writes the logs of the managed caches
+     */
+    private final LogWriter logWriter = new LogWriter();
+    private boolean started;
+
+    /*
+     * Memory budget shared by the managed caches (null for none)
+     */
+    private MemoryBudget memoryBudget;
 
     private ScheduledThreadPoolExecutor cacheManagementExecutor;
 
-    private SerializableCacheManagementWorker<U, A, C, G> serializableCacheManagementWorker;
+    /*
+     * Runs the flushes triggered by the executor, each cache independently of the others. Threads
+     * are only started while there is work, and stop once idle.
+     */
+    private ForkJoinPool maintenancePool;
+    private Integer maintenanceParallelism = getRuntime().availableProcessors();
+    private Boolean parallelMaintenance = true;
+
+    /*
+     * Period between two flushes of a cache (the longest one when adaptive). Caches never serve
+     * expired entries, so flushing merely reclaims their memory and may happen rarely.
+     */
+    private Long maintenancePeriod = 600L;
+    private TimeUnit maintenancePeriodUnit = SECONDS;
+    private Boolean adaptiveMaintenance = true;
+
+    /*
+     * Whether the caches are registered as MBeans, and the names they were registered under
+     */
+    private Boolean jmxEnabled = true;
+    private final List<ObjectName> registeredMBeans = new ArrayList<>();
+
+    /*
+     * Period between two reports of the latencies recorded by the caches (null for no reports)
+     */
+    private Long latencyReportPeriod;
+    private TimeUnit latencyReportPeriodUnit;
 
     /**
      * Constructs an instance of cache manager as <code>SerializableCacheManager</code>. This
-     * implicitly registers the cache management executor
+     * implicitly registers the cache management executor, running on a single daemon thread
      */
     public SerializableCacheManager() {
-	this.cacheManagementExecutor = (ScheduledThreadPoolExecutor) Executors
-		.newScheduledThreadPool(getRuntime().availableProcessors());
-	this.serializableCacheManagementWorker = new SerializableCacheManagementWorker<>();
+	this.cacheManagementExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+	    Thread thread = new Thread(runnable, "cache-maintenance");
+	    thread.setDaemon(true);
+	    return thread;
+	});
+	this.cacheManagementExecutor.setRemoveOnCancelPolicy(true);
+	this.cacheManagementExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
     }
 
     @Override
-    public void afterPropertiesSet() {
-
-	this.serializableCacheManagementWorker.setAuthCache(this.authCache);
-	this.serializableCacheManagementWorker.setUserCache(this.userCache);
-	this.serializableCacheManagementWorker.setCsrfCache(this.csrfCache);
-	this.serializableCacheManagementWorker.setGenericCache(this.genericCache);
+    public synchronized void afterPropertiesSet() {
 
 	Assert.assertNotNull(cacheManagementExecutor,
 		"Cache management executor is not initialized!");
 
-	Assert.assertNotNull(serializableCacheManagementWorker,
-		"Cache management worker thread pool can't be null!");
+	this.maintenancePool = new ForkJoinPool(maintenanceParallelism, pool -> {
+	    ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory
+		    .newThread(pool);
+	    thread.setName("cache-maintenance-" + thread.getPoolIndex());
+	    thread.setDaemon(true);
+	    return thread;
+	}, null, false);
+
+	for (Map.Entry<String, AbstractFileSystemCache<?>> cache : caches.entrySet())
+	    this.start(cache.getKey(), cache.getValue());
+	this.started = true;
+
+	if (latencyReportPeriod != null)
+	    cacheManagementExecutor.scheduleAtFixedRate(this::reportLatencies, latencyReportPeriod,
+		    latencyReportPeriod, latencyReportPeriodUnit);
+    }
+
+    /*
+     * Initializes the cache unless it is already, then schedules its maintenance. A cache which
+     * is initialized already has its log reopened on the shared writer, and the memory budget
+     * attached counting the entries it holds.
+     */
+    private void start(String name, AbstractFileSystemCache<?> cache) {
+	if (!cache.isInitialized()) {
+	    if (cache.getPersistenceMode() == PersistenceMode.LOG)
+		cache.setLogWriter(logWriter);
+	    this.attachMemoryBudget(cache);
+	    cache.initialize();
+	    ownedCaches.add(cache);
+	} else {
+	    if (cache.getPersistenceMode() == PersistenceMode.LOG && cache.getLogWriter() == null) {
+		cache.setLogWriter(logWriter);
+		adoptedCaches.add(cache);
+	    }
+	    this.attachMemoryBudget(cache);
+	}
+	new SerializableCacheManagementWorker(name, cache, cacheManagementExecutor,
+		maintenancePool, maintenancePeriodUnit.toMillis(maintenancePeriod),
+		adaptiveMaintenance, parallelMaintenance).start();
+	if (jmxEnabled)
+	    this.registerMBean(name, cache);
+    }
+
+    private void attachMemoryBudget(AbstractFileSystemCache<?> cache) {
+	if (memoryBudget != null && cache.getMemoryBudget() == null)
+	    cache.setMemoryBudget(memoryBudget);
+    }
 
-	cacheManagementExecutor.scheduleAtFixedRate(serializableCacheManagementWorker, 60L, 600L,
-		SECONDS);
+    private void registerMBean(String name, AbstractFileSystemCache<?> cache) {
+	MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+	try {
+	    ObjectName objectName = new ObjectName("net.itrixlabs.cache:type=ApplicationCache,name="
+		    + (name.matches(".*[,=:\"*?\\n].*") ? ObjectName.quote(name) : name));
+	    server.registerMBean(new CacheMonitor(cache), objectName);
+	    registeredMBeans.add(objectName);
+	} catch (JMException e) {
+	    logger.warn("Couldn't register the " + name + " cache with JMX: " + e.getMessage());
+	}
+    }
+
+    private void reportLatencies() {
+	for (Map.Entry<String, AbstractFileSystemCache<?>> cache : caches.entrySet())
+	    for (Map.Entry<CacheOperation, LatencySnapshot> latencies : cache.getValue()
+		    .getLatencies().entrySet())
+		if (latencies.getValue().getCount() > 0L)
+		    logger.info(cache.getKey() + " cache " + latencies.getKey() + " latencies: "
+			    + latencies.getValue());
+    }
+
+    private void unregisterMBeans() {
+	MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+	for (ObjectName name : registeredMBeans) {
+	    try {
+		server.unregisterMBean(name);
+	    } catch (JMException e) {
+		logger.warn("Couldn't unregister " + name + " from JMX: " + e.getMessage());
+	    }
+	}
+	registeredMBeans.clear();
     }
 
     @Override
-    public void destroy() {
+    public synchronized void destroy() {
 
 	logger.info("Shutting down Cache Management System."
 		+ " Please do not interrupt this operation."
 		+ " It is best that you stay away from the management console for now!");
 
+	this.unregisterMBeans();
+
+	if (maintenancePool != null)
+	    maintenancePool.shutdown();
 	try {
 	    cacheManagementExecutor.shutdown();
 	    if (cacheManagementExecutor.isShutdown()) {
@@ -112,6 +275,164 @@ public class SerializableCacheManager<U, A, C, G> implements CacheManager {
 	    logger.fatal("Cache Management Executor was interrupted while it was shutting down!"
 		    + " This will cause a memory leak.");
 	}
+
+	for (AbstractFileSystemCache<?> cache : ownedCaches) {
+	    try {
+		cache.destroy();
+	    } catch (Exception e) {
+		logger.error("Couldn't destroy the " + cache.getType() + " cache.", e);
+	    }
+	}
+	ownedCaches.clear();
+	for (AbstractFileSystemCache<?> cache : adoptedCaches)
+	    cache.resetLogWriter(); // Its log outlives the shared writer
+	adoptedCaches.clear();
+	logWriter.close();
+	this.started = false;
+    }
+
+    /**
+     * <p>
+     * Registers a cache under the given name. Unless initialized already, the cache is initialized
+     * (and later destroyed) by the manager, its log being written by the shared writer. A cache
+     * initialized already has its log reopened on the shared writer (and given a writer of its own
+     * again as the manager is destroyed), and is bounded by the shared memory budget along with
+     * the entries it holds. A cache registered once the manager has started is started right away.
+     * </p>
+     * 
+     * @param name
+     *            the name of the cache
+     * @param cache
+     *            the cache to be managed
+     */
+    public synchronized void register(String name, AbstractFileSystemCache<?> cache) {
+	Assert.assertNotEmpty(name, "A cache name is required.");
+	Assert.assertNotNull(cache, "Can't accept null as cache.");
+	Assert.assertTrue(caches.putIfAbsent(name, cache) == null,
+		"A cache named " + name + " is already registered.");
+	if (started)
+	    this.start(name, cache);
+    }
+
+    /**
+     * <p>
+     * Creates a generic cache configured by the given spec, stored under the cache directory of
+     * the manager, and registers it under the given name (which is also the name of its files).
+     * </p>
+     * 
+     * @param name
+     *            the name of the cache
+     * @param spec
+     *            the configuration of the cache
+     * @return the cache created
+     */
+    @SuppressWarnings("unchecked")
+    public <V> SerializableGenericCache<V> createCache(String name, CacheSpec spec) {
+	Assert.assertNotEmpty(name, "A cache name is required.");
+	Assert.assertNotNull(spec, "Can't accept null as cache spec.");
+	SerializableGenericCache<V> cache = new SerializableGenericCache<>(cacheDir, name);
+	cache.setSegments(spec.getSegments());
+	cache.setTtl(spec.getTtl(), spec.getTtlUnit());
+	cache.setExpireAfterAccess(spec.getExpireAfterAccess());
+	if (spec.getMaximumSize() != null)
+	    cache.setMaximumSize(spec.getMaximumSize());
+	if (spec.getWeigher() != null)
+	    cache.setWeigher((Weigher<? super V>) spec.getWeigher());
+	if (spec.getMaximumWeight() != null)
+	    cache.setMaximumWeight(spec.getMaximumWeight());
+	cache.setPersistenceMode(spec.getPersistenceMode());
+	this.register(name, cache);
+	return cache;
+    }
+
+    /**
+     * <p>
+     * Creates a cache for each of the given specs, by name.
+     * </p>
+     * 
+     * @param cacheSpecs
+     *            the configurations of the caches by name
+     * @see #createCache(String, CacheSpec)
+     */
+    public void setCacheSpecs(Map<String, CacheSpec> cacheSpecs) {
+	Assert.assertNotNull(cacheSpecs, "Can't accept null as cache specs.");
+	for (Map.Entry<String, CacheSpec> cacheSpec : cacheSpecs.entrySet())
+	    this.createCache(cacheSpec.getKey(), cacheSpec.getValue());
+    }
+
+    /**
+     * <p>
+     * Returns the cache registered under the given name.
+     * </p>
+     * 
+     * @param name
+     *            the name of the cache
+     * @return the cache, null if there is none by that name
+     */
+    @SuppressWarnings("unchecked")
+    public <V> AbstractFileSystemCache<V> getCache(String name) {
+	return (AbstractFileSystemCache<V>) caches.get(name);
+    }
+
+    /**
+     * <p>
+     * Returns the names of the registered caches.
+     * </p>
+     * 
+     * @return the cache names
+     */
+    public Set<String> getCacheNames() {
+	return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * <p>
+     * Sets the directory of the caches created from a spec. Default is <code>temp/app_cache</code>
+     * under the working directory.
+     * </p>
+     * 
+     * @param cacheDir
+     *            the cache directory location to use
+     */
+    public void setCacheDir(String cacheDir) {
+	Assert.assertNotEmpty(cacheDir, "A cache directory location is required.");
+	this.cacheDir = cacheDir;
+    }
+
+    /**
+     * <p>
+     * Caps the total weight of the entries of all the managed caches, in bytes. Entries are
+     * weighed by the weigher of their cache, or by the length of their serialized value if it has
+     * none. Once over the budget, the heaviest cache evicts its least valuable entries (see
+     * {@link MemoryBudget}). Caches initialized before being registered have the entries they
+     * hold counted as well. Must be set before the manager starts.
+     * </p>
+     * 
+     * @param memoryBudget
+     *            the memory budget in bytes
+     */
+    public synchronized void setMemoryBudget(Long memoryBudget) {
+	Assert.assertNotNull(memoryBudget, "Can't accept null as memory budget.");
+	Assert.assertTrue(!started, "Memory budget must be set before the manager starts.");
+	this.memoryBudget = new MemoryBudget(memoryBudget);
+    }
+
+    /**
+     * <p>
+     * Returns the memory budget shared by the caches, along with its usage.
+     * </p>
+     * 
+     * @return the memory budget, null if there is none
+     */
+    public MemoryBudget getMemoryBudget() {
+	return this.memoryBudget;
+    }
+
+    private void setTypedCache(CacheType type, AbstractFileSystemCache<?> cache) {
+	if (cache == null)
+	    caches.remove(type.toString());
+	else
+	    caches.put(type.toString(), cache);
     }
 
     /**
@@ -123,7 +444,7 @@ public class SerializableCacheManager<U, A, C, G> implements CacheManager {
      *            the user cache to be managed
      */
     public void setUserCache(SerializableUserCache<U> userCache) {
-	this.userCache = userCache;
+	this.setTypedCache(CacheType.USER, userCache);
     }
 
     /**
@@ -135,7 +456,7 @@ public class SerializableCacheManager<U, A, C, G> implements CacheManager {
      *            the auth cache to be managed
      */
     public void setAuthCache(SerializableAuthCache<A> authCache) {
-	this.authCache = authCache;
+	this.setTypedCache(CacheType.AUTH, authCache);
     }
 
     /**
@@ -147,7 +468,7 @@ public class SerializableCacheManager<U, A, C, G> implements CacheManager {
      *            the csrf cache to be managed
      */
     public void setCsrfCache(SerializableCsrfCache<C> csrfCache) {
-	this.csrfCache = csrfCache;
+	this.setTypedCache(CacheType.CSRF, csrfCache);
     }
 
     /**
@@ -159,6 +480,113 @@ public class SerializableCacheManager<U, A, C, G> implements CacheManager {
      *            the generic cache to be managed
      */
     public void setGenericCache(SerializableGenericCache<G> genericCache) {
-	this.genericCache = genericCache;
+	this.setTypedCache(CacheType.GENERIC, genericCache);
+    }
+
+    /**
+     * <p>
+     * Sets the period between two flushes of a cache. Default is 10 minutes. With adaptive
+     * maintenance, this is the longest period (the TTL of the cache being another bound).
+     * </p>
+     * 
+     * @param maintenancePeriod
+     *            the period to set
+     * @param maintenancePeriodUnit
+     *            the time unit of the period
+     */
+    public void setMaintenancePeriod(Long maintenancePeriod, TimeUnit maintenancePeriodUnit) {
+	Assert.assertNotNull(maintenancePeriod, "Can't accept null as maintenance period.");
+	Assert.assertNotNull(maintenancePeriodUnit, "Can't accept null as maintenance period unit.");
+	Assert.assertTrue(maintenancePeriodUnit.toSeconds(maintenancePeriod) > 0L,
+		"Maintenance period must be at least a second.");
+	this.maintenancePeriod = maintenancePeriod;
+	this.maintenancePeriodUnit = maintenancePeriodUnit;
+    }
+
+    /**
+     * <p>
+     * Sets whether the period between two flushes of a cache adapts to the expiry load observed:
+     * shorter while flushes expire many entries, longer while they expire few. Default is true;
+     * when false, caches are flushed at the fixed maintenance period.
+     * </p>
+     * 
+     * @param adaptiveMaintenance
+     *            whether maintenance is adaptive
+     */
+    public void setAdaptiveMaintenance(Boolean adaptiveMaintenance) {
+	Assert.assertNotNull(adaptiveMaintenance,
+		"Can't accept null as adaptive maintenance flag.");
+	this.adaptiveMaintenance = adaptiveMaintenance;
+    }
+
+    /**
+     * <p>
+     * Sets the number of threads flushing the caches at most. Default is the number of processors;
+     * threads are only started while flushes are running.
+     * </p>
+     * 
+     * @param maintenanceParallelism
+     *            the maximum number of maintenance threads
+     */
+    public void setMaintenanceParallelism(Integer maintenanceParallelism) {
+	Assert.assertNotNull(maintenanceParallelism,
+		"Can't accept null as maintenance parallelism.");
+	Assert.assertTrue(maintenanceParallelism > 0,
+		"Maintenance parallelism must be a positive number.");
+	this.maintenanceParallelism = maintenanceParallelism;
+    }
+
+    /**
+     * <p>
+     * Sets whether the expired entries of a cache are removed in parallel segments, sweeping a
+     * large cache on several threads. Default is true; when false, each cache is still flushed
+     * independently of the others, but on a single thread.
+     * </p>
+     * 
+     * @param parallelMaintenance
+     *            whether flushes are parallel
+     */
+    public void setParallelMaintenance(Boolean parallelMaintenance) {
+	Assert.assertNotNull(parallelMaintenance,
+		"Can't accept null as parallel maintenance flag.");
+	this.parallelMaintenance = parallelMaintenance;
+    }
+
+    /**
+     * <p>
+     * Sets whether the managed caches are registered as MBeans with the platform MBean server.
+     * Default is true. Statistics are only recorded by caches which enable them, either through
+     * {@link AbstractFileSystemCache#setRecordStats(Boolean)} or the
+     * <code>RecordingStats</code> attribute of their MBean.
+     * </p>
+     * 
+     * @param jmxEnabled
+     *            whether to register the caches with JMX
+     */
+    public void setJmxEnabled(Boolean jmxEnabled) {
+	Assert.assertNotNull(jmxEnabled, "Can't accept null as JMX flag.");
+	this.jmxEnabled = jmxEnabled;
+    }
+
+    /**
+     * <p>
+     * Sets the period between two reports (to the log) of the latencies recorded by the managed
+     * caches. Latencies are only recorded by caches which enable them through
+     * {@link AbstractFileSystemCache#setRecordLatencies(Boolean)}. No reports by default.
+     * </p>
+     * 
+     * @param latencyReportPeriod
+     *            the period to set
+     * @param latencyReportPeriodUnit
+     *            the time unit of the period
+     */
+    public void setLatencyReportPeriod(Long latencyReportPeriod,
+	    TimeUnit latencyReportPeriodUnit) {
+	Assert.assertNotNull(latencyReportPeriod, "Can't accept null as latency report period.");
+	Assert.assertNotNull(latencyReportPeriodUnit,
+		"Can't accept null as latency report period unit.");
+	Assert.assertTrue(latencyReportPeriod > 0L, "Latency report period must be positive.");
+	this.latencyReportPeriod = latencyReportPeriod;
+	this.latencyReportPeriodUnit = latencyReportPeriodUnit;
     }
 }
\ No newline at end of file
@@ -31,6 +31,12 @@ import net.itrixlabs.cache.core.AbstractFileSystemCache;
  * API is closed for modification (to prevent harm you might cause to your application) but open for
  * extension.
  * </p>
+ * <p>
+ * Auth entries are typically read far more often than they change, so consider enabling
+ * refresh-ahead through {@link #setRefreshAhead(Float, java.util.function.Function)}: popular
+ * entries are then reloaded in the background before they expire, rather than all at once on the
+ * login path.
+ * </p>
  * 
  * @author Abhinav Rai
  * @see AbstractFileSystemCache
@@ -73,16 +79,16 @@ public class SerializableAuthCache<V> extends AbstractFileSystemCache<V> {
 
     @Override
     public V getFromCache(Object key) {
-	return super.cache.get(super.generate(key));
+	return super.lookup(key);
     }
 
     @Override
     public void putInCache(Object key, V entry) {
-	super.cache.putIfAbsent(super.generate(key), entry);
+	super.store(key, entry);
     }
 
     @Override
     public void evictFromCache(Object key) {
-	super.cache.remove(super.generate(key));
+	super.invalidate(key);
     }
 }
\ No newline at end of file
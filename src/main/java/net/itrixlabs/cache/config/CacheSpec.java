@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.config;
+
+import static net.itrixlabs.cache.config.Key.DEFAULT_TTL;
+import static net.itrixlabs.cache.config.Key.DEFAULT_TTL_TIMEUNIT;
+
+import java.util.concurrent.TimeUnit;
+
+import net.itrixlabs.cache.policy.Weigher;
+import net.itrixlabs.cache.util.Assert;
+
+/**
+ * <p>
+ * Configuration of a named cache created by the cache manager: the time-to-live of its entries
+ * (counted from their creation or last read), its capacity (in entries or weight) and how it
+ * persists them. Sensible defaults are used unless explicitly set; an entry lives for a day since
+ * its creation, the cache is unbounded and persisted in a log.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public class CacheSpec {
+
+    private Long ttl = DEFAULT_TTL;
+    private TimeUnit ttlUnit = DEFAULT_TTL_TIMEUNIT;
+
+    /*
+     * Maximum number of entries (null for an unbounded cache)
+     */
+    private Long maximumSize;
+
+    /*
+     * Maximum total weight of the entries (null unless bounded by weight), weighed by the weigher
+     * (if any)
+     */
+    private Long maximumWeight;
+    private Weigher<?> weigher;
+
+    private Boolean expireAfterAccess = false;
+
+    private Integer segments = 1;
+
+    private PersistenceMode persistenceMode = PersistenceMode.LOG;
+
+    /**
+     * <p>
+     * Returns the time-to-live of the entries.
+     * </p>
+     * 
+     * @return the ttl
+     */
+    public Long getTtl() {
+	return this.ttl;
+    }
+
+    /**
+     * <p>
+     * Returns the time unit of the time-to-live.
+     * </p>
+     * 
+     * @return the ttl time unit
+     */
+    public TimeUnit getTtlUnit() {
+	return this.ttlUnit;
+    }
+
+    /**
+     * <p>
+     * Sets the time-to-live &amp; the time unit of the entries.
+     * </p>
+     * 
+     * @param ttl
+     *            the ttl to set
+     * @param ttlUnit
+     *            the ttl time unit to set
+     */
+    public void setTtl(Long ttl, TimeUnit ttlUnit) {
+	Assert.assertNotNull(ttl, "Can't accept null as TTL.");
+	Assert.assertNotNull(ttlUnit, "Can't accept null as TTL TimeUnit.");
+	this.ttl = ttl;
+	this.ttlUnit = ttlUnit;
+    }
+
+    /**
+     * <p>
+     * Returns the maximum number of entries.
+     * </p>
+     * 
+     * @return the maximum size, null for an unbounded cache
+     */
+    public Long getMaximumSize() {
+	return this.maximumSize;
+    }
+
+    /**
+     * <p>
+     * Bounds the cache to the given number of entries, least recently used entries being evicted.
+     * </p>
+     * 
+     * @param maximumSize
+     *            the maximum number of entries to hold
+     */
+    public void setMaximumSize(Long maximumSize) {
+	Assert.assertNotNull(maximumSize, "Can't accept null as maximum size.");
+	Assert.assertTrue(maximumSize > 0L, "Maximum size must be a positive number.");
+	this.maximumSize = maximumSize;
+    }
+
+    /**
+     * <p>
+     * Returns the maximum total weight of the entries.
+     * </p>
+     * 
+     * @return the maximum weight, null unless the cache is bounded by weight
+     */
+    public Long getMaximumWeight() {
+	return this.maximumWeight;
+    }
+
+    /**
+     * <p>
+     * Bounds the cache to the given total weight of its entries, least recently used entries being
+     * evicted.
+     * </p>
+     * 
+     * @param maximumWeight
+     *            the maximum total weight of the entries to hold
+     */
+    public void setMaximumWeight(Long maximumWeight) {
+	Assert.assertNotNull(maximumWeight, "Can't accept null as maximum weight.");
+	Assert.assertTrue(maximumWeight > 0L, "Maximum weight must be a positive number.");
+	this.maximumWeight = maximumWeight;
+    }
+
+    /**
+     * <p>
+     * Returns the weigher of the entries.
+     * </p>
+     * 
+     * @return the weigher, null if none is set
+     */
+    public Weigher<?> getWeigher() {
+	return this.weigher;
+    }
+
+    /**
+     * <p>
+     * Sets the weigher of the entries, which must accept the values stored in the cache.
+     * </p>
+     * 
+     * @param weigher
+     *            the weigher to use
+     */
+    public void setWeigher(Weigher<?> weigher) {
+	Assert.assertNotNull(weigher, "Can't accept null as weigher.");
+	this.weigher = weigher;
+    }
+
+    /**
+     * <p>
+     * Returns whether the time-to-live of an entry counts from its last read.
+     * </p>
+     * 
+     * @return true for sliding expiration
+     */
+    public Boolean getExpireAfterAccess() {
+	return this.expireAfterAccess;
+    }
+
+    /**
+     * <p>
+     * Sets whether the time-to-live of an entry counts from its last read (sliding expiration)
+     * rather than its creation.
+     * </p>
+     * 
+     * @param expireAfterAccess
+     *            whether entries expire after their last access
+     */
+    public void setExpireAfterAccess(Boolean expireAfterAccess) {
+	Assert.assertNotNull(expireAfterAccess, "Can't accept null as expire-after-access flag.");
+	this.expireAfterAccess = expireAfterAccess;
+    }
+
+    /**
+     * <p>
+     * Returns the number of segments the book-keeping of the cache is split into.
+     * </p>
+     * 
+     * @return the number of segments
+     */
+    public Integer getSegments() {
+	return this.segments;
+    }
+
+    /**
+     * <p>
+     * Sets the number of segments the book-keeping of the cache is split into, for caches written
+     * to by many threads.
+     * </p>
+     * 
+     * @param segments
+     *            the number of segments
+     */
+    public void setSegments(Integer segments) {
+	Assert.assertNotNull(segments, "Can't accept null as segments.");
+	Assert.assertTrue(segments > 0, "Segments must be a positive number.");
+	this.segments = segments;
+    }
+
+    /**
+     * <p>
+     * Returns how the entries are persisted.
+     * </p>
+     * 
+     * @return the persistence mode
+     */
+    public PersistenceMode getPersistenceMode() {
+	return this.persistenceMode;
+    }
+
+    /**
+     * <p>
+     * Sets how the entries are persisted.
+     * </p>
+     * 
+     * @param persistenceMode
+     *            the persistence mode to use
+     */
+    public void setPersistenceMode(PersistenceMode persistenceMode) {
+	Assert.assertNotNull(persistenceMode, "Can't accept null as persistence mode.");
+	this.persistenceMode = persistenceMode;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.config;
+
+/**
+ * <p>
+ * Named constants describing how a cache persists its entries.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public enum PersistenceMode {
+
+    /**
+     * Entries are only held in memory, and lost once the cache is destroyed.
+     */
+    NONE,
+
+    /**
+     * Mutations are recorded in an append-only log, replayed when the cache is initialized.
+     */
+    LOG;
+}
\ No newline at end of file
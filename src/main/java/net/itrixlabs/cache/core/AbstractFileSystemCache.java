@@ -16,24 +16,46 @@
  */
 package net.itrixlabs.cache.core;
 
-import static java.lang.System.currentTimeMillis;
+import static net.itrixlabs.cache.config.Key.DEFAULT_CACHE_MAX_SIZE;
 import static net.itrixlabs.cache.config.Key.DEFAULT_TTL;
 import static net.itrixlabs.cache.config.Key.DEFAULT_TTL_TIMEUNIT;
+import static net.itrixlabs.cache.stats.CacheOperation.DESTROY;
+import static net.itrixlabs.cache.stats.CacheOperation.FLUSH;
+import static net.itrixlabs.cache.stats.CacheOperation.GET;
+import static net.itrixlabs.cache.stats.CacheOperation.INITIALIZE;
+import static net.itrixlabs.cache.stats.CacheOperation.PUT;
 import static org.springframework.security.core.SpringSecurityCoreVersion.SERIAL_VERSION_UID;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -41,13 +63,39 @@ import org.apache.commons.logging.LogFactory;
 import net.itrixlabs.cache.config.CacheKey;
 import net.itrixlabs.cache.config.CacheType;
 import net.itrixlabs.cache.config.Key;
+import net.itrixlabs.cache.config.PersistenceMode;
+import net.itrixlabs.cache.persistence.AppendOnlyLog;
+import net.itrixlabs.cache.persistence.LogWriter;
+import net.itrixlabs.cache.persistence.ReplayHandler;
+import net.itrixlabs.cache.policy.EvictionPolicy;
+import net.itrixlabs.cache.policy.LruEvictionPolicy;
+import net.itrixlabs.cache.policy.Weigher;
+import net.itrixlabs.cache.serializer.BinarySerializer;
+import net.itrixlabs.cache.serializer.CacheSerializer;
+import net.itrixlabs.cache.stats.CacheOperation;
+import net.itrixlabs.cache.stats.CacheStats;
+import net.itrixlabs.cache.stats.LatencyHistogram;
+import net.itrixlabs.cache.stats.LatencySnapshot;
+import net.itrixlabs.cache.stats.StatsCounter;
 import net.itrixlabs.cache.util.Assert;
+import net.itrixlabs.cache.util.CachedTicker;
+import net.itrixlabs.cache.util.Ticker;
 
 /**
  * <p>
  * Extends the <code>ApplicationCache</code> contract providing base for using file system as
  * storage for the cache.
  * </p>
+ * <p>
+ * Mutations are recorded in an <code>AppendOnlyLog</code> next to the cache file as they happen,
+ * and replayed when the cache is initialized. So shutting down doesn't rewrite the whole cache and
+ * a crash loses only the last uncommitted batch. Persistence may also be turned off altogether,
+ * for caches of entries cheap enough to load again.
+ * </p>
+ * <p>
+ * Entries live for the TTL of the cache unless stored with one of their own, counted from their
+ * creation or (with expire-after-access) from their last read.
+ * </p>
  * 
  * @author Abhinav Rai
  * @since November 11<sup>th</sup>, 2015
@@ -60,6 +108,13 @@ public abstract class AbstractFileSystemCache<V> implements ApplicationCache<Key
 
     private static final Log logger = LogFactory.getLog(AbstractFileSystemCache.class);
 
+    private static final int MAXIMUM_SEGMENTS = 1 << 16;
+
+    /*
+     * Writes buffered per segment before writers wait for its lock
+     */
+    private static final int WRITE_BUFFER_SIZE = 128;
+
     /*
      * Represents the cache type (from the ones which are currently supported)
      */
@@ -75,6 +130,12 @@ public abstract class AbstractFileSystemCache<V> implements ApplicationCache<Key
      */
     protected TimeUnit ttlUnit = DEFAULT_TTL_TIMEUNIT;
 
+    /*
+     * Whether the TTL of an entry counts from its last read (sliding expiration) rather than its
+     * creation
+     */
+    private volatile boolean expireAfterAccess;
+
     /*
      * Represents the directory for setting-up the cache directory
      */
@@ -90,7 +151,118 @@ public abstract class AbstractFileSystemCache<V> implements ApplicationCache<Key
      */
     private String cacheLocation;
 
-    protected final ConcurrentMap<Key, V> cache = new ConcurrentHashMap<>();
+    protected final ConcurrentMap<Key, CacheEntry<V>> cache = new ConcurrentHashMap<>();
+
+    /*
+     * Specifies the maximum number of entries once the cache is bounded
+     */
+    protected Long maximumSize = DEFAULT_CACHE_MAX_SIZE;
+
+    /*
+     * Whether the maximum size was set explicitly, rather than defaulted for an eviction policy
+     */
+    private boolean maximumSizeSet;
+
+    /*
+     * Specifies the maximum total weight of the entries (null unless the cache is bounded by
+     * weight), weighed by the weigher (if any)
+     */
+    private Long maximumWeight;
+    private transient Weigher<? super V> weigher;
+
+    /*
+     * Memory budget shared with other caches (if any)
+     */
+    private transient MemoryBudget memoryBudget;
+
+    /*
+     * Creates the eviction policy of each segment once the cache is bounded (null for an unbounded
+     * cache, or a policy instance set as is)
+     */
+    private transient Supplier<? extends EvictionPolicy> evictionPolicyFactory;
+
+    /*
+     * Source of time for creation times and expiry checks
+     */
+    private transient Ticker ticker = CachedTicker.getInstance();
+
+    /*
+     * Book-keeping of the entries, split by identifier hash into a power of two number of
+     * segments (a single one unless set otherwise). Each segment indexes its entries in a timer
+     * wheel (so that a flush only visits the expired ones) and bounds them with an eviction
+     * policy, both guarded by its lock. Reads & writes are buffered and applied in batches by
+     * whichever thread holds the lock, so readers never wait for it.
+     */
+    private transient volatile Segment<V>[] segments = newSegments(1, ticker.currentTimeMillis());
+
+    /*
+     * Counts the entries removed for making room (evictions) and for outliving the TTL (expirations)
+     */
+    private final LongAdder evictionCount = new LongAdder();
+    private final LongAdder expirationCount = new LongAdder();
+
+    /*
+     * Records the hits, misses, loads & flushes while enabled
+     */
+    private transient StatsCounter stats = new StatsCounter();
+    private volatile boolean recordStats;
+
+    /*
+     * Records the latencies of the operations, once enabled (null until then)
+     */
+    private transient volatile Map<CacheOperation, LatencyHistogram> latencies;
+
+    /*
+     * Records the puts & removals, set once the cache is initialized (null until then)
+     */
+    private transient volatile AppendOnlyLog log;
+
+    /*
+     * Whether the entries are persisted, and the writer of the log when shared with other caches
+     * (null for a writer of its own)
+     */
+    private PersistenceMode persistenceMode = PersistenceMode.LOG;
+    private transient LogWriter logWriter;
+    private transient volatile boolean initialized;
+
+    /*
+     * Converts identifiers & values to bytes for the log and snapshot files (and off-heap values)
+     */
+    private transient CacheSerializer serializer = new BinarySerializer();
+
+    /*
+     * Holds the serialized values off the heap, once an off-heap capacity is set (null until then)
+     */
+    private transient volatile SlabAllocator slabs;
+
+    /*
+     * Loads in flight by identifier, shared by the concurrent misses of the same identifier
+     */
+    private transient ConcurrentMap<Object, CompletableFuture<V>> loads =
+	    new ConcurrentHashMap<>();
+
+    /*
+     * Reloads the entries read past the refresh-ahead fraction of their TTL (null until set)
+     */
+    private transient volatile Function<Object, ? extends V> refreshLoader;
+    private float refreshAhead;
+
+    /*
+     * Runs the refresh-ahead loads
+     */
+    private transient Executor refreshExecutor = ForkJoinPool.commonPool();
+
+    /*
+     * Per thread flyweight keys used for probing the cache on the read paths. Since a key is
+     * matched by its identifier alone, a lookup doesn't need a freshly generated key.
+     */
+    private static final ThreadLocal<CacheKey> probes = new ThreadLocal<CacheKey>() {
+
+	@Override
+	protected CacheKey initialValue() {
+	    return new CacheKey();
+	}
+    };
 
     /**
      * This constructor should not be used for invoking a cache. Instead, one should use the variant
@@ -147,46 +319,118 @@ public abstract class AbstractFileSystemCache<V> implements ApplicationCache<Key
 	this.cacheLocation = cacheDir + File.separatorChar + cacheFile;
     }
 
+    /**
+     * <p>
+     * Restores the persisted entries (unless persistence is turned off) and opens the log. Does
+     * nothing once the cache is initialized, until it is destroyed.
+     * </p>
+     */
     @Override
+    public synchronized void initialize() {
+	if (this.initialized)
+	    return;
+	long start = System.nanoTime();
+	if (this.persistenceMode != PersistenceMode.NONE)
+	    this.restore();
+	this.initialized = true;
+	this.recordLatency(INITIALIZE, start);
+    }
+
+    private void restore() {
+	File fileSystemCacheDir = new File(this.cacheDir);
+	if (!fileSystemCacheDir.exists())
+	    fileSystemCacheDir.mkdirs();
+	fileSystemCacheDir.setWritable(true);
+	File legacy = new File(cacheLocation);
+	boolean migrated = this.migrate(legacy);
+	File snapshotFile = new File(cacheLocation + ".snapshot");
+	AppendOnlyLog appendOnlyLog = this.newLog();
+	try {
+	    if (appendOnlyLog.replay(new Replay()) == 0L && !migrated)
+		logger.info(
+			this.type.toString() + " cache doesn't exist! Creating a brand new one.");
+	} catch (IOException e) {
+	    logger.warn(this.type.toString() + " cache was tampered with!"
+		    + " Trust us, this is the last thing you want to do."
+		    + " By design, this cannot be done by an attacker."
+		    + " So, if it was a clean-up activity or a rougue administrator,"
+		    + " you have been warned!");
+	    logger.error("Persistence of " + this.type.toString()
+		    + " cache is off until " + snapshotFile + " is repaired or removed.");
+	    return; // The files are kept as they are, rather than compacted over
+	} catch (ClassNotFoundException e) {
+	    logger.error(this.type.toString()
+		    + " cache implementation has changed from last invocation."
+		    + " Persistence is off until " + snapshotFile + " is repaired or removed.");
+	    return;
+	}
+	try {
+	    appendOnlyLog.open(this.cache.values());
+	} catch (IOException e) {
+	    logger.fatal(e.getMessage());
+	    return;
+	}
+	this.log = appendOnlyLog;
+	if (migrated) {
+	    appendOnlyLog.compact().join();
+	    if (!legacy.delete())
+		logger.warn("Couldn't delete " + legacy + " after migrating it.");
+	}
+    }
+
+    private AppendOnlyLog newLog() {
+	File logFile = new File(cacheLocation + ".log");
+	File snapshotFile = new File(cacheLocation + ".snapshot");
+	return logWriter == null ? new AppendOnlyLog(logFile, snapshotFile, serializer)
+		: new AppendOnlyLog(logFile, snapshotFile, serializer, logWriter);
+    }
+
+    /*
+     * Closes the log (committing the mutations queued so far) and opens it again on the current
+     * writer. Appends are made holding the lock of a segment, so none is lost in between
+     */
+    private void reopenLog() {
+	Segment<V>[] table = this.lockAll();
+	try {
+	    AppendOnlyLog appendOnlyLog = this.log;
+	    if (appendOnlyLog == null) // Not initialized, or persistence is off
+		return;
+	    for (Segment<V> segment : table)
+		this.drain(segment); // Logs the writes still buffered
+	    appendOnlyLog.close();
+	    this.log = null;
+	    appendOnlyLog = this.newLog();
+	    appendOnlyLog.open(this.cache.values());
+	    this.log = appendOnlyLog;
+	} catch (IOException e) {
+	    logger.fatal(e.getMessage());
+	} finally {
+	    this.unlockAll(table);
+	}
+    }
+
+    /*
+     * Loads the full snapshot written by earlier versions, compacted into the log afterwards
+     */
     @SuppressWarnings("unchecked")
-    public void initialize() {
+    private boolean migrate(File legacy) {
+	if (legacy.length() <= 1L) // Missing, or the placeholder of an empty cache
+	    return false;
 	try (ObjectInputStream objectInputStream = new ObjectInputStream(
-		new FileInputStream(cacheLocation))) {
-	    this.cache.putAll((Map<Key, ? extends V>) objectInputStream.readObject());
-	} catch (FileNotFoundException e) {
-	    logger.info(this.type.toString() + " cache doesn't exist! Creating a brand new one.");
-	    File fileSystemCacheDir = new File(this.cacheDir);
-	    if (fileSystemCacheDir.exists())
-		fileSystemCacheDir.setWritable(true);
-	    else {
-		fileSystemCacheDir.getParentFile().getParentFile().setWritable(true); // Never null
-		fileSystemCacheDir.getParentFile().mkdirs();
-		fileSystemCacheDir.getParentFile().setWritable(true);
-		fileSystemCacheDir.mkdirs();
-		fileSystemCacheDir.setWritable(true);
-	    }
-	    try {
-		File file = new File(cacheLocation);
-		FileOutputStream stream = new FileOutputStream(file);
-		stream.write(0);
-		stream.flush();
-		stream.close();
-	    } catch (IOException ex) {
-		logger.fatal(ex.getMessage());
-	    }
-	} catch (IOException | ClassNotFoundException e) {
-	    if (e instanceof IOException)
-		logger.warn(this.type.toString() + " cache was tampered with!"
-			+ " Trust us, this is the last thing you want to do."
-			+ " By design, this cannot be done by an attacker."
-			+ " So, if it was a clean-up activity or a rougue administrator,"
-			+ " you have been warned!");
-	    else
-		logger.error(this.type.toString()
-			+ " cache implementation has changed from last invocation."
-			+ " Delete the cache manually and re-create."
-			+ " Automatic recovery will be supported in future releases.");
+		new FileInputStream(legacy))) {
+	    Map<Key, ? extends V> entries = (Map<Key, ? extends V>) objectInputStream.readObject();
+	    for (Map.Entry<Key, ? extends V> entry : entries.entrySet())
+		this.insert(entry.getKey(), entry.getValue());
+	    return true;
+	} catch (IOException e) {
+	    logger.warn(this.type.toString() + " cache snapshot " + legacy
+		    + " is unreadable and was ignored.");
+	} catch (ClassNotFoundException e) {
+	    logger.error(this.type.toString()
+		    + " cache implementation has changed from last invocation."
+		    + " Delete the cache manually and re-create.");
 	}
+	return false;
     }
 
     /**
@@ -204,109 +448,1953 @@ public abstract class AbstractFileSystemCache<V> implements ApplicationCache<Key
     protected Key generate(Object identifier) {
 	Key key = new CacheKey();
 	key.setKey(identifier);
-	key.setCreationTime(currentTimeMillis());
+	key.setCreationTime(ticker.currentTimeMillis());
 	return key;
     }
 
-    @Override
-    public boolean isPresentInCache(Object key) {
-	return cache.containsKey(this.generate(key));
+    /**
+     * <p>
+     * Obtains the (per thread) flyweight key for probing the cache with the given identifier. No
+     * creation time is assigned as it plays no role in matching an entry. The returned key must be
+     * released using {@link #release(Key)} as soon as the cache operation completes, and must never
+     * be stored in the cache.
+     * </p>
+     * <p>
+     * If you override {@link #generate(Object)} with a key type which doesn't match on identifier
+     * alone, override this method as well.
+     * </p>
+     * 
+     * @param identifier
+     *            the key identifier to probe for
+     * @return the <code>Key</code> to use for lookups
+     */
+    protected Key probe(Object identifier) {
+	CacheKey probe = probes.get();
+	probe.setKey(identifier);
+	return probe;
     }
 
-    @Override
-    public void flush() {
-	long ttlMillis = ttlUnit.toMillis(ttl);
-	Iterator<Key> iter = this.cache.keySet().iterator();
-	while (iter.hasNext()) {
-	    Key key = (Key) iter.next();
-	    if (key.getCreationTime() < System.currentTimeMillis() - ttlMillis)
-		cache.remove(key);
-	}
+    /**
+     * <p>
+     * Releases a key obtained through {@link #probe(Object)} so that the identifier isn't retained
+     * by the thread after the lookup.
+     * </p>
+     * 
+     * @param probe
+     *            the probe key to release
+     */
+    protected void release(Key probe) {
+	probe.setKey(null);
     }
 
-    @Override
-    public void afterPropertiesSet() throws Exception {
-	Assert.assertNotEmpty(this.cacheDir, "A cache directory location is required.");
-	Assert.assertNotEmpty(this.cacheFile, "A cache filename is required.");
-	Assert.assertNotNull(this.type, "A cache type is required.");
-	this.initialize();
+    /**
+     * <p>
+     * Looks up the entry for the given identifier without allocating a key.
+     * </p>
+     * 
+     * @param identifier
+     *            the key identifier to look for
+     * @return the entry, or <code>null</code> if none is present
+     */
+    protected V lookup(Object identifier) {
+	if (latencies == null)
+	    return this.lookup(identifier, recordStats);
+	long start = System.nanoTime();
+	try {
+	    return this.lookup(identifier, recordStats);
+	} finally {
+	    this.recordLatency(GET, start);
+	}
     }
 
-    @Override
-    public void destroy() throws Exception {
-	try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(
-		new FileOutputStream(new File(cacheLocation)))) {
-	    objectOutputStream.writeObject(this.cache);
-	} catch (NullPointerException | IOException e) {
-	    logger.info(this.cache + "Cache storage tampered/unreadable/unavailable!"
-		    + " Details weren't persisted to the storage."
-		    + " It is advisable to clean the cache directory.");
+    /*
+     * Looks up the entry, recording the hit or miss only if asked to (a second look after a miss
+     * isn't another request)
+     */
+    private V lookup(Object identifier, boolean record) {
+	Key probe = this.probe(identifier);
+	CacheEntry<V> entry;
+	try {
+	    entry = cache.get(probe);
+	} finally {
+	    this.release(probe);
+	}
+	if (entry == null || this.hasExpired(entry)) {
+	    if (entry != null)
+		this.expireOnRead(entry);
+	    if (record)
+		stats.recordMisses(1);
+	    return null;
 	}
+	if (record)
+	    stats.recordHits(1);
+	V value = entry.getValue();
+	this.touch(entry);
+	this.afterRead(entry);
+	Function<Object, ? extends V> loader = this.refreshLoader;
+	if (loader != null && this.isDueForRefresh(entry))
+	    this.refresh(entry, loader);
+	return value;
     }
 
     /**
      * <p>
-     * Sets the time-to-live &amp; the time unit for cache entry time-to-live strategy (applicable
-     * to each entry in the cache).
+     * Places the entry in the cache unless an entry is already present for the given identifier.
+     * The key is obtained through {@link #generate(Object)}. A bounded cache evicts entries as
+     * decided by its <code>EvictionPolicy</code> once it grows beyond the maximum size.
+     * </p>
+     * 
+     * @param identifier
+     *            the key identifier of the entry
+     * @param value
+     *            the value to store
+     * @return true if the entry was stored, else false
+     */
+    protected boolean store(Object identifier, V value) {
+	return this.store(identifier, value, 0L);
+    }
+
+    /**
+     * <p>
+     * Places the entry in the cache like {@link #store(Object, Object)}, with a time-to-live of its
+     * own rather than the one of the cache.
      * </p>
      * 
+     * @param identifier
+     *            the key identifier of the entry
+     * @param value
+     *            the value to store
      * @param ttl
-     *            the ttl to set
+     *            the time-to-live of the entry
      * @param ttlUnit
-     *            the ttl time unit to set
+     *            the time unit of the time-to-live
+     * @return true if the entry was stored, else false
      */
-    public void setTtl(Long ttl, TimeUnit ttlUnit) {
-	Assert.assertNotNull(ttl, "Can't accept null as TTL.");
+    protected boolean store(Object identifier, V value, long ttl, TimeUnit ttlUnit) {
 	Assert.assertNotNull(ttlUnit, "Can't accept null as TTL TimeUnit.");
-	this.ttl = ttl;
-	this.ttlUnit = ttlUnit;
+	Assert.assertTrue(ttl > 0L, "TTL must be a positive number.");
+	return this.store(identifier, value, Math.max(ttlUnit.toMillis(ttl), 1L));
+    }
+
+    private boolean store(Object identifier, V value, long timeToLive) {
+	if (latencies == null)
+	    return this.insert(this.generate(identifier), value, timeToLive);
+	long start = System.nanoTime();
+	try {
+	    return this.insert(this.generate(identifier), value, timeToLive);
+	} finally {
+	    this.recordLatency(PUT, start);
+	}
+    }
+
+    @Override
+    public void putInCache(Object key, V entry, long ttl, TimeUnit ttlUnit) {
+	this.store(key, entry, ttl, ttlUnit);
     }
 
     /**
      * <p>
-     * Sets the cache directory location to use with the particular type of cache in focus.
+     * Removes the entry for the given identifier without allocating a key.
      * </p>
      * 
-     * @param cacheDir
-     *            the cache directory location to use
+     * @param identifier
+     *            the key identifier of the entry to remove
+     * @return the removed entry, or <code>null</code> if none was present
      */
-    public void setCacheDir(String cacheDir) {
-	Assert.assertNotEmpty(cacheDir, "A cache directory location is required.");
-	this.cacheDir = cacheDir;
+    protected V invalidate(Object identifier) {
+	Key probe = this.probe(identifier);
+	CacheEntry<V> entry;
+	try {
+	    entry = cache.remove(probe);
+	} finally {
+	    this.release(probe);
+	}
+	if (entry == null)
+	    return null;
+	V value = entry.getValue();
+	this.afterRemoval(entry, false);
+	this.discard(entry);
+	return value;
+    }
+
+    @Override
+    public boolean isPresentInCache(Object key) {
+	Key probe = this.probe(key);
+	CacheEntry<V> entry;
+	try {
+	    entry = cache.get(probe);
+	} finally {
+	    this.release(probe);
+	}
+	if (entry == null)
+	    return false;
+	if (this.hasExpired(entry)) {
+	    this.expireOnRead(entry);
+	    return false;
+	}
+	return true;
     }
 
     /**
      * <p>
-     * Sets the cache filename to use with the particular type of cache in focus.
+     * Concurrent misses of the same key wait on a single load (through a future per key) rather
+     * than blocking a map bin, so a slow backend never holds up other keys.
      * </p>
-     * 
-     * @param cacheFile
-     *            the cache filename to use
      */
-    public void setCacheFile(String cacheFile) {
-	Assert.assertNotEmpty(cacheFile, "A cache filename is required.");
-	this.cacheFile = cacheFile;
+    @Override
+    public V get(Object key, Function<Object, ? extends V> loader) {
+	Assert.assertNotNull(loader, "Can't accept null as loader.");
+	V value = this.lookup(key);
+	if (value != null)
+	    return value;
+	CompletableFuture<V> load = new CompletableFuture<>();
+	CompletableFuture<V> inFlight = loads.putIfAbsent(key, load);
+	if (inFlight != null)
+	    return join(inFlight);
+	try {
+	    value = this.lookup(key, false); // Unless stored since the miss
+	    if (value == null) {
+		value = this.timedLoad(key, loader);
+		if (value != null)
+		    this.store(key, value);
+	    }
+	    load.complete(value);
+	    return value;
+	} catch (RuntimeException | Error e) {
+	    load.completeExceptionally(e);
+	    throw e;
+	} finally {
+	    loads.remove(key, load);
+	}
     }
 
     /**
      * <p>
-     * Returns the set time-to-live for the entries in cache.
+     * The map is visited once with the thread's probe key, and the reads are buffered for the
+     * eviction policy without taking any lock.
      * </p>
-     * 
-     * @return the ttl for entries in cache
      */
-    public Long getTtl() {
-	return this.ttl;
+    @Override
+    public Map<Object, V> getAll(Iterable<?> keys) {
+	Assert.assertNotNull(keys, "Can't accept null as keys.");
+	Map<Object, V> values = new HashMap<>();
+	Function<Object, ? extends V> loader = this.refreshLoader;
+	int requested = 0;
+	int hits = 0;
+	for (Object identifier : keys) {
+	    requested++;
+	    Key probe = this.probe(identifier);
+	    CacheEntry<V> entry;
+	    try {
+		entry = cache.get(probe);
+	    } finally {
+		this.release(probe);
+	    }
+	    if (entry == null)
+		continue;
+	    if (this.hasExpired(entry)) {
+		this.expireOnRead(entry);
+		continue;
+	    }
+	    V value = entry.getValue();
+	    if (value != null)
+		values.put(identifier, value);
+	    this.touch(entry);
+	    this.afterRead(entry);
+	    hits++;
+	    if (loader != null && this.isDueForRefresh(entry))
+		this.refresh(entry, loader);
+	}
+	if (recordStats) {
+	    stats.recordHits(hits);
+	    stats.recordMisses(requested - hits);
+	}
+	return values;
     }
 
     /**
      * <p>
-     * Returns the set time-to-live time unit for the entries in cache.
+     * Keys which are being loaded already (by another bulk or single get) are waited on rather
+     * than passed to the loader again.
+     * </p>
+     */
+    @Override
+    public Map<Object, V> getAll(Iterable<?> keys,
+	    Function<? super Set<Object>, ? extends Map<?, ? extends V>> loader) {
+	Assert.assertNotNull(keys, "Can't accept null as keys.");
+	Assert.assertNotNull(loader, "Can't accept null as loader.");
+	List<Object> requested = new ArrayList<>();
+	for (Object identifier : keys) // A one-shot iterable can't be walked twice
+	    requested.add(identifier);
+	Map<Object, V> values = this.getAll(requested);
+	Map<Object, CompletableFuture<V>> owned = new HashMap<>();
+	Map<Object, CompletableFuture<V>> inFlight = new HashMap<>();
+	for (Object identifier : requested) {
+	    if (values.containsKey(identifier) || owned.containsKey(identifier)
+		    || inFlight.containsKey(identifier))
+		continue;
+	    CompletableFuture<V> load = new CompletableFuture<>();
+	    CompletableFuture<V> other = loads.putIfAbsent(identifier, load);
+	    if (other == null)
+		owned.put(identifier, load);
+	    else
+		inFlight.put(identifier, other);
+	}
+	if (!owned.isEmpty())
+	    this.loadAll(owned, loader, values);
+	for (Map.Entry<Object, CompletableFuture<V>> load : inFlight.entrySet()) {
+	    V value = join(load.getValue());
+	    if (value != null)
+		values.put(load.getKey(), value);
+	}
+	return values;
+    }
+
+    private void loadAll(Map<Object, CompletableFuture<V>> owned,
+	    Function<? super Set<Object>, ? extends Map<?, ? extends V>> loader,
+	    Map<Object, V> values) {
+	Map<?, ? extends V> loaded;
+	try {
+	    loaded = this.timedLoad(Collections.unmodifiableSet(owned.keySet()), loader);
+	} catch (RuntimeException | Error e) {
+	    for (Map.Entry<Object, CompletableFuture<V>> load : owned.entrySet()) {
+		loads.remove(load.getKey(), load.getValue());
+		load.getValue().completeExceptionally(e);
+	    }
+	    throw e;
+	}
+	for (Map.Entry<Object, CompletableFuture<V>> load : owned.entrySet()) {
+	    Object identifier = load.getKey();
+	    V value = loaded == null ? null : loaded.get(identifier);
+	    try {
+		if (value != null) {
+		    this.store(identifier, value);
+		    values.put(identifier, value);
+		}
+	    } finally {
+		loads.remove(identifier, load.getValue());
+		load.getValue().complete(value);
+	    }
+	}
+    }
+
+    @Override
+    public void putAll(Map<?, ? extends V> entries) {
+	Assert.assertNotNull(entries, "Can't accept null as entries.");
+	for (Map.Entry<?, ? extends V> entry : entries.entrySet())
+	    this.store(entry.getKey(), entry.getValue());
+    }
+
+    @Override
+    public void evictAll(Iterable<?> keys) {
+	Assert.assertNotNull(keys, "Can't accept null as keys.");
+	for (Object identifier : keys)
+	    this.invalidate(identifier);
+    }
+
+    /*
+     * Asynchronous counterpart of get(key, loader), sharing its loads in flight. The returned
+     * future is the shared one, so it must not be handed out as is.
+     */
+    CompletableFuture<V> load(Object key,
+	    Function<Object, ? extends CompletionStage<? extends V>> loader) {
+	Assert.assertNotNull(loader, "Can't accept null as loader.");
+	V value = this.lookup(key);
+	if (value != null)
+	    return CompletableFuture.completedFuture(value);
+	CompletableFuture<V> load = new CompletableFuture<>();
+	CompletableFuture<V> inFlight = loads.putIfAbsent(key, load);
+	if (inFlight != null)
+	    return inFlight;
+	try {
+	    value = this.lookup(key, false); // Unless stored since the miss
+	    if (value != null) {
+		loads.remove(key, load);
+		load.complete(value);
+		return load;
+	    }
+	    long start = System.nanoTime();
+	    loader.apply(key).whenComplete((loaded, failure) -> {
+		this.recordLoad(start, failure == null);
+		Throwable error = failure;
+		if (error == null && loaded != null) {
+		    try {
+			this.store(key, loaded);
+		    } catch (RuntimeException | Error e) { // A weigher or codec failing
+			error = e;
+		    }
+		}
+		loads.remove(key, load);
+		if (error == null)
+		    load.complete(loaded);
+		else
+		    load.completeExceptionally(error);
+	    });
+	} catch (RuntimeException | Error e) {
+	    loads.remove(key, load);
+	    load.completeExceptionally(e);
+	}
+	return load;
+    }
+
+    /**
+     * <p>
+     * Returns an <code>AsyncApplicationCache</code> view of this cache, sharing its storage, for
+     * callers which mustn't block.
      * </p>
      * 
-     * @return the ttl time unit for entries in cache
+     * @return the asynchronous view of this cache
      */
-    public TimeUnit getTtlUnit() {
-	return this.ttlUnit;
+    public AsyncApplicationCache<Key, V> async() {
+	return new AsyncFileSystemCache<>(this);
+    }
+
+    /*
+     * Invokes the loader, recording the time it takes
+     */
+    private <K, T> T timedLoad(K key, Function<? super K, ? extends T> loader) {
+	long start = System.nanoTime();
+	try {
+	    T loaded = loader.apply(key);
+	    this.recordLoad(start, true);
+	    return loaded;
+	} catch (RuntimeException | Error e) {
+	    this.recordLoad(start, false);
+	    throw e;
+	}
+    }
+
+    private void recordLoad(long start, boolean success) {
+	if (!recordStats)
+	    return;
+	if (success)
+	    stats.recordLoadSuccess(System.nanoTime() - start);
+	else
+	    stats.recordLoadFailure(System.nanoTime() - start);
+    }
+
+    private static <V> V join(CompletableFuture<V> load) {
+	try {
+	    return load.join();
+	} catch (CompletionException e) {
+	    Throwable cause = e.getCause();
+	    if (cause instanceof RuntimeException)
+		throw (RuntimeException) cause;
+	    if (cause instanceof Error)
+		throw (Error) cause;
+	    throw e;
+	}
+    }
+
+    private boolean isDueForRefresh(CacheEntry<V> entry) {
+	long creationTime = entry.getKey().getCreationTime();
+	return ticker.currentTimeMillis() >= creationTime
+		+ (long) (this.timeToLive(entry) * refreshAhead);
+    }
+
+    /*
+     * Returns the time-to-live of the entry in millis, its own or the one of the cache
+     */
+    private long timeToLive(CacheEntry<V> entry) {
+	long timeToLive = entry.getTimeToLive();
+	return timeToLive == 0L ? ttlUnit.toMillis(ttl) : timeToLive;
+    }
+
+    /*
+     * Extends the expiration time of an entry being read, with expire-after-access. The timer
+     * wheel isn't updated (nor its lock taken): it reschedules the entry once its former bucket
+     * is due. Extensions by less than a second (or a 64th of the TTL) are skipped, sparing the
+     * writes to hot entries.
+     */
+    private void touch(CacheEntry<V> entry) {
+	if (!expireAfterAccess || this.hasExpired(entry))
+	    return;
+	long timeToLive = this.timeToLive(entry);
+	long expirationTime = ticker.currentTimeMillis() + timeToLive;
+	if (expirationTime - entry.getExpirationTime() >= Math.min(1000L, timeToLive >>> 6))
+	    entry.setExpirationTime(expirationTime);
+    }
+
+    /*
+     * Reloads the entry in the background unless a load of its identifier is in flight already.
+     * The reloaded value replaces the entry (with a fresh TTL) only if the entry is still mapped
+     * by then, so a concurrent put or removal always wins.
+     */
+    private void refresh(CacheEntry<V> entry, Function<Object, ? extends V> loader) {
+	Object identifier = entry.getKey().getKey();
+	CompletableFuture<V> load = new CompletableFuture<>();
+	if (loads.putIfAbsent(identifier, load) != null)
+	    return;
+	try {
+	    refreshExecutor.execute(() -> {
+		try {
+		    V value = this.timedLoad(identifier, loader);
+		    load.complete(this.remap(identifier, entry, current -> value).value);
+		} catch (RuntimeException | Error e) {
+		    logger.warn("Couldn't refresh " + identifier + ": " + e);
+		    load.completeExceptionally(e);
+		} finally {
+		    loads.remove(identifier, load);
+		}
+	    });
+	} catch (RejectedExecutionException e) {
+	    loads.remove(identifier, load);
+	    load.completeExceptionally(e);
+	}
+    }
+
+    @Override
+    public V replace(Object key, V entry) {
+	Assert.assertNotNull(entry, "Can't accept null as entry.");
+	Remapping<V> remapping = this.remap(key, current -> current == null ? null : entry);
+	return remapping.previousValue;
+    }
+
+    @Override
+    public V compute(Object key, BiFunction<Object, ? super V, ? extends V> remappingFunction) {
+	Assert.assertNotNull(remappingFunction, "Can't accept null as remapping function.");
+	return this.remap(key, current -> remappingFunction.apply(key, current)).value;
+    }
+
+    @Override
+    public V computeIfAbsent(Object key, Function<Object, ? extends V> mappingFunction) {
+	Assert.assertNotNull(mappingFunction, "Can't accept null as mapping function.");
+	return this.remap(key,
+		current -> current == null ? mappingFunction.apply(key) : current).value;
+    }
+
+    @Override
+    public V merge(Object key, V entry,
+	    BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+	Assert.assertNotNull(entry, "Can't accept null as entry.");
+	Assert.assertNotNull(remappingFunction, "Can't accept null as remapping function.");
+	return this.remap(key,
+		current -> current == null ? entry : remappingFunction.apply(current, entry)).value;
+    }
+
+    /*
+     * Remaps the live value of the identifier (null when absent or expired) in a single map
+     * operation. Returning null removes the entry, returning the current value keeps it as is
+     * (along with its TTL), and any other value is stored under a fresh key.
+     */
+    private Remapping<V> remap(Object identifier, Function<? super V, ? extends V> function) {
+	return this.remap(identifier, null, function);
+    }
+
+    /*
+     * Remaps the identifier only while the expected entry is mapped to it, if one is given. The
+     * value is then stored under a fresh key even if it's the current value, keeping the
+     * time-to-live of the expected entry.
+     */
+    private Remapping<V> remap(Object identifier, CacheEntry<V> expected,
+	    Function<? super V, ? extends V> function) {
+	Key key = this.generate(identifier);
+	long timeToLive = expected == null ? 0L : expected.getTimeToLive();
+	long expirationTime = key.getCreationTime()
+		+ (timeToLive == 0L ? ttlUnit.toMillis(ttl) : timeToLive);
+	Remapping<V> remapping = new Remapping<>();
+	CacheEntry<V> entry = cache.compute(key, (k, existing) -> {
+	    if (expected != null && existing != expected)
+		return existing;
+	    boolean expired = existing != null && this.hasExpired(existing);
+	    V current = existing == null || expired ? null : existing.getValue();
+	    V value = function.apply(current);
+	    if (expected == null && value != null && value == current)
+		return existing;
+	    remapping.changed = true;
+	    remapping.previous = existing;
+	    remapping.previousValue = current;
+	    remapping.expired = expired;
+	    return value == null ? null : this.newEntry(key, value, expirationTime, timeToLive);
+	});
+	remapping.value = entry == null ? null : entry.getValue();
+	if (!remapping.changed) {
+	    if (expected == null && entry != null) {
+		this.touch(entry);
+		this.afterRead(entry);
+	    }
+	    return remapping;
+	}
+	CacheEntry<V> previous = remapping.previous;
+	if (previous != null) {
+	    if (remapping.expired)
+		expirationCount.increment();
+	    this.afterRemoval(previous, remapping.expired);
+	    this.discard(previous);
+	}
+	if (entry != null)
+	    this.afterInsertion(entry);
+	return remapping;
+    }
+
+    /**
+     * <p>
+     * Tells whether the entry outlived its TTL. Expired entries are never served, even if the cache
+     * wasn't flushed since. The expiration time is computed when the entry is stored (and read,
+     * with expire-after-access), so this is a single comparison.
+     * </p>
+     * 
+     * @param entry
+     *            the entry to check
+     * @return true if the entry has expired, else false
+     */
+    protected boolean hasExpired(CacheEntry<V> entry) {
+	return entry.getExpirationTime() <= ticker.currentTimeMillis();
+    }
+
+    /**
+     * <p>
+     * Removes the entries which outlived their TTL. Only the timer wheel buckets whose time has
+     * passed are visited, so the cost depends upon the number of expired entries rather than the
+     * size of the cache.
+     * </p>
+     */
+    @Override
+    public void flush() {
+	long start = System.nanoTime();
+	long now = ticker.currentTimeMillis();
+	for (Segment<V> segment : this.segments) {
+	    segment.lock.lock();
+	    try {
+		this.drain(segment);
+		segment.timerWheel.advance(now, entry -> this.expire(segment, entry));
+	    } finally {
+		this.unlock(segment);
+	    }
+	}
+	this.recordFlush(start);
+    }
+
+    /**
+     * <p>
+     * Removes the entries which outlived their TTL like {@link #flush()}, but in parallel segments
+     * on the given pool. Only collecting the expired entries and updating the eviction policy hold
+     * the lock of a segment, so a large flush neither serializes on a single thread nor blocks the
+     * writers of the cache for its whole duration. The segments of a segmented cache are flushed
+     * independently of each other.
+     * </p>
+     * 
+     * @param pool
+     *            the pool to remove the expired entries on
+     */
+    public void flush(ForkJoinPool pool) {
+	Assert.assertNotNull(pool, "Can't accept null as pool.");
+	long start = System.nanoTime();
+	long now = ticker.currentTimeMillis();
+	Segment<V>[] table = this.segments;
+	if (table.length == 1)
+	    pool.invoke(new SegmentFlush(table[0], now));
+	else {
+	    List<SegmentFlush> flushes = new ArrayList<>(table.length);
+	    for (Segment<V> segment : table) {
+		SegmentFlush flush = new SegmentFlush(segment, now);
+		pool.execute(flush);
+		flushes.add(flush);
+	    }
+	    for (SegmentFlush flush : flushes)
+		flush.join();
+	}
+	this.recordFlush(start);
+    }
+
+    private void recordFlush(long start) {
+	if (recordStats)
+	    stats.recordFlush(System.nanoTime() - start);
+	this.recordLatency(FLUSH, start);
+    }
+
+    /*
+     * Flushes a segment of the cache: collects its expired entries, removes them (in parallel if
+     * many) and updates its book-keeping
+     */
+    private final class SegmentFlush extends RecursiveAction {
+
+	private static final long serialVersionUID = SERIAL_VERSION_UID;
+
+	private final Segment<V> segment;
+	private final long now;
+
+	private SegmentFlush(Segment<V> segment, long now) {
+	    this.segment = segment;
+	    this.now = now;
+	}
+
+	@Override
+	protected void compute() {
+	    List<CacheEntry<V>> expired = new ArrayList<>();
+	    segment.lock.lock();
+	    try {
+		drain(segment);
+		segment.timerWheel.advance(now, expired::add);
+	    } finally {
+		unlock(segment);
+	    }
+	    if (expired.isEmpty())
+		return;
+	    boolean[] removed = new boolean[expired.size()];
+	    new Sweep(expired, removed, 0, removed.length).invoke();
+	    segment.lock.lock();
+	    try {
+		for (int i = 0; i < removed.length; i++) {
+		    CacheEntry<V> entry = expired.get(i);
+		    if (removed[i])
+			untrack(segment, entry);
+		    else if (cache.get(entry.getKey()) == entry)
+			segment.timerWheel.schedule(entry); // Read since it was collected
+		}
+	    } finally {
+		unlock(segment);
+	    }
+	}
+    }
+
+    /*
+     * Removes a run of the expired entries collected by a flush, forking halves of the run while
+     * it's larger than SEGMENT_SIZE
+     */
+    private final class Sweep extends RecursiveAction {
+
+	private static final long serialVersionUID = SERIAL_VERSION_UID;
+
+	private static final int SEGMENT_SIZE = 4096;
+
+	private final List<CacheEntry<V>> expired;
+	private final boolean[] removed;
+	private final int from;
+	private final int to;
+
+	private Sweep(List<CacheEntry<V>> expired, boolean[] removed, int from, int to) {
+	    this.expired = expired;
+	    this.removed = removed;
+	    this.from = from;
+	    this.to = to;
+	}
+
+	@Override
+	protected void compute() {
+	    if (to - from > SEGMENT_SIZE) {
+		int middle = (from + to) >>> 1;
+		invokeAll(new Sweep(expired, removed, from, middle),
+			new Sweep(expired, removed, middle, to));
+		return;
+	    }
+	    for (int i = from; i < to; i++) {
+		CacheEntry<V> entry = expired.get(i);
+		if (hasExpired(entry) && cache.remove(entry.getKey(), entry)) {
+		    expirationCount.increment();
+		    discard(entry);
+		    removed[i] = true;
+		}
+	    }
+	}
+    }
+
+    private void recordLatency(CacheOperation operation, long start) {
+	Map<CacheOperation, LatencyHistogram> histograms = this.latencies;
+	if (histograms != null)
+	    histograms.get(operation).record(System.nanoTime() - start);
+    }
+
+    /*
+     * Removes an expired entry found by a reader. Only that very entry is removed, never a fresh
+     * one stored for the same identifier in the meantime
+     */
+    private void expireOnRead(CacheEntry<V> entry) {
+	if (cache.remove(entry.getKey(), entry)) {
+	    expirationCount.increment();
+	    this.afterRemoval(entry, true);
+	    this.discard(entry);
+	}
+    }
+
+    /*
+     * Must be invoked holding the lock of the segment, the entry is already descheduled
+     */
+    private void expire(Segment<V> segment, CacheEntry<V> entry) {
+	if (!this.hasExpired(entry)) { // Read since it was collected
+	    if (cache.get(entry.getKey()) == entry)
+		segment.timerWheel.schedule(entry);
+	    return;
+	}
+	if (cache.remove(entry.getKey(), entry)) {
+	    expirationCount.increment();
+	    this.untrack(segment, entry);
+	    this.discard(entry);
+	}
+    }
+
+    private boolean insert(Key key, V value) {
+	return this.insert(key, value, 0L);
+    }
+
+    private boolean insert(Key key, V value, long timeToLive) {
+	long expirationTime = key.getCreationTime()
+		+ (timeToLive == 0L ? ttlUnit.toMillis(ttl) : timeToLive);
+	if (expirationTime <= ticker.currentTimeMillis())
+	    return false;
+	CacheEntry<V> entry = this.newEntry(key, value, expirationTime, timeToLive);
+	if (entry == null)
+	    return false;
+	if (cache.putIfAbsent(key, entry) != null) {
+	    this.discard(entry);
+	    return false;
+	}
+	this.afterInsertion(entry);
+	return true;
+    }
+
+    /*
+     * Returns null if the value doesn't fit in the off-heap capacity (or can't be serialized)
+     */
+    private CacheEntry<V> newEntry(Key key, V value, long expirationTime, long timeToLive) {
+	int weight = this.weigh(key, value);
+	SlabAllocator allocator = this.slabs;
+	if (allocator == null) {
+	    CacheEntry<V> entry = new CacheEntry<>(key, value, expirationTime, timeToLive);
+	    entry.weight = weight;
+	    return entry;
+	}
+	long handle;
+	try {
+	    handle = allocator.allocate(serializer.serialize(value));
+	} catch (IOException e) {
+	    logger.warn("Entry " + key.getKey() + " can't be stored off-heap: " + e.getMessage());
+	    return null;
+	}
+	if (handle < 0L)
+	    return null;
+	CacheEntry<V> entry = new OffHeapEntry<>(key, expirationTime, timeToLive, allocator,
+		serializer, handle);
+	entry.weight = weight;
+	return entry;
+    }
+
+    /*
+     * Weighs an entry by the weigher of the cache. Lacking one, an entry of a cache sharing a
+     * memory budget weighs the length of its serialized value, and any other entry weighs 1
+     */
+    private int weigh(Key key, V value) {
+	Weigher<? super V> entryWeigher = this.weigher;
+	if (entryWeigher != null) {
+	    int weight = entryWeigher.weigh(key.getKey(), value);
+	    Assert.assertTrue(weight >= 0, "Weigher returned a negative weight.");
+	    return weight;
+	}
+	if (this.memoryBudget == null)
+	    return 1;
+	try {
+	    return serializer.serialize(value).length;
+	} catch (IOException e) {
+	    return 1; // Isn't persistable either, so its size is anyone's guess
+	}
+    }
+
+    /*
+     * Releases the resources of an entry which left the cache (or never made it there)
+     */
+    private void discard(CacheEntry<V> entry) {
+	if (entry instanceof OffHeapEntry)
+	    ((OffHeapEntry<V>) entry).free();
+    }
+
+    private void afterInsertion(CacheEntry<V> entry) {
+	Segment<V> segment = this.segmentFor(entry.getKey());
+	this.afterWrite(segment, () -> this.onInsertion(segment, entry));
+	MemoryBudget budget = this.memoryBudget;
+	if (budget != null && budget.isExceeded())
+	    budget.reclaim();
+    }
+
+    /*
+     * Must be invoked holding the lock of the segment
+     */
+    private void onInsertion(Segment<V> segment, CacheEntry<V> entry) {
+	if (cache.get(entry.getKey()) != entry) // Removed in the meantime
+	    return;
+	segment.timerWheel.schedule(entry);
+	entry.tracked = true;
+	segment.size++;
+	this.addWeight(segment, entry.weight);
+	AppendOnlyLog appendOnlyLog = this.log;
+	if (appendOnlyLog != null)
+	    appendOnlyLog.appendPut(entry);
+	EvictionPolicy policy = segment.policy;
+	if (policy != null) {
+	    policy.recordInsertion(entry);
+	    this.evict(segment);
+	}
+    }
+
+    /*
+     * Buffers the read for the eviction policy, draining the buffer once full unless another thread
+     * holds the lock of the segment. Never blocks: the read is dropped if its stripe of the buffer
+     * is full or contended
+     */
+    private void afterRead(CacheEntry<V> entry) {
+	Segment<V> segment = this.segmentFor(entry.getKey());
+	if (segment.policy != null && segment.reads.offer(entry))
+	    this.tryDrain(segment);
+    }
+
+    /*
+     * Expired entries aren't logged, replay skips them anyway
+     */
+    private void afterRemoval(CacheEntry<V> entry, boolean expired) {
+	Segment<V> segment = this.segmentFor(entry.getKey());
+	this.afterWrite(segment, () -> this.onRemoval(segment, entry, expired));
+    }
+
+    /*
+     * Must be invoked holding the lock of the segment
+     */
+    private void onRemoval(Segment<V> segment, CacheEntry<V> entry, boolean expired) {
+	segment.timerWheel.deschedule(entry);
+	AppendOnlyLog appendOnlyLog = this.log;
+	// Unless a fresh entry was stored (and logged) for the same identifier in the meantime
+	if (appendOnlyLog != null && !expired && !cache.containsKey(entry.getKey()))
+	    appendOnlyLog.appendRemoval(entry);
+	this.untrack(segment, entry);
+    }
+
+    /*
+     * Buffers the write for the book-keeping of the segment and drains the buffer, unless another
+     * thread holds the lock (that thread drains it on its way out). Writers only wait for the lock
+     * once the buffer is full, which bounds the work pending
+     */
+    private void afterWrite(Segment<V> segment, Runnable write) {
+	segment.writes.add(write);
+	if (segment.pendingWrites.incrementAndGet() <= WRITE_BUFFER_SIZE) {
+	    this.tryDrain(segment);
+	    return;
+	}
+	segment.lock.lock();
+	try {
+	    this.drain(segment);
+	} finally {
+	    this.unlock(segment);
+	}
+    }
+
+    /*
+     * Must be invoked holding the lock of the segment. Reads are applied first, skipping the
+     * entries which left the cache since, and then the writes in their order
+     */
+    private void drain(Segment<V> segment) {
+	EvictionPolicy policy = segment.policy;
+	if (policy != null)
+	    segment.reads.drainTo(entry -> {
+		if (entry.tracked)
+		    policy.recordAccess(entry);
+	    });
+	Runnable write;
+	while ((write = segment.writes.poll()) != null) {
+	    segment.pendingWrites.decrementAndGet();
+	    write.run();
+	}
+    }
+
+    private void tryDrain(Segment<V> segment) {
+	while (segment.lock.tryLock()) {
+	    try {
+		this.drain(segment);
+	    } finally {
+		segment.lock.unlock();
+	    }
+	    if (segment.pendingWrites.get() <= 0)
+		return;
+	}
+    }
+
+    /*
+     * Releases the lock of the segment, then drains the writes buffered by the threads which didn't
+     * wait for it
+     */
+    private void unlock(Segment<V> segment) {
+	segment.lock.unlock();
+	if (segment.pendingWrites.get() > 0)
+	    this.tryDrain(segment);
+    }
+
+    /*
+     * Must be invoked holding the lock of the segment, once the entry left the cache
+     */
+    private void untrack(Segment<V> segment, CacheEntry<V> entry) {
+	if (!entry.tracked) // Removed before its insertion was recorded
+	    return;
+	entry.tracked = false;
+	segment.size--;
+	this.addWeight(segment, -entry.weight);
+	EvictionPolicy policy = segment.policy;
+	if (policy != null)
+	    policy.recordRemoval(entry);
+    }
+
+    /*
+     * Must be invoked holding the lock of the segment
+     */
+    private void addWeight(Segment<V> segment, long weight) {
+	segment.weight += weight;
+	MemoryBudget budget = this.memoryBudget;
+	if (budget != null)
+	    budget.add(weight);
+    }
+
+    /*
+     * Must be invoked holding the lock of the segment
+     */
+    private void evict(Segment<V> segment) {
+	while (segment.size > segment.maximumSize || segment.weight > segment.maximumWeight)
+	    if (this.evictVictim(segment) < 0L)
+		break;
+    }
+
+    /*
+     * Must be invoked holding the lock of the segment. Returns the weight of the entry evicted, or
+     * -1 if the eviction policy tracks none
+     */
+    private long evictVictim(Segment<V> segment) {
+	@SuppressWarnings("unchecked")
+	CacheEntry<V> victim = (CacheEntry<V>) segment.policy.victim();
+	if (victim == null)
+	    return -1L;
+	segment.timerWheel.deschedule(victim);
+	victim.tracked = false;
+	segment.size--;
+	this.addWeight(segment, -victim.weight);
+	if (cache.remove(victim.getKey(), victim)) {
+	    evictionCount.increment();
+	    AppendOnlyLog appendOnlyLog = this.log;
+	    if (appendOnlyLog != null)
+		appendOnlyLog.appendRemoval(victim);
+	    this.discard(victim);
+	}
+	return victim.weight;
+    }
+
+    /*
+     * Evicts entries weighing the given excess, an equal share from each segment, for making room
+     * in the memory budget. Returns the weight evicted. Must be invoked holding no lock
+     */
+    long shrink(long excess) {
+	Segment<V>[] table = this.segments;
+	long share = shareOf(excess, table.length);
+	long evicted = 0L;
+	for (Segment<V> segment : table) {
+	    if (segment.policy == null)
+		break;
+	    segment.lock.lock();
+	    try {
+		this.drain(segment);
+		long freed = 0L;
+		while (freed < share) {
+		    long weight = this.evictVictim(segment);
+		    if (weight < 0L)
+			break;
+		    freed += weight;
+		}
+		evicted += freed;
+	    } finally {
+		this.unlock(segment);
+	    }
+	}
+	return evicted;
+    }
+
+    private Segment<V> segmentFor(Key key) {
+	return segmentFor(this.segments, key);
+    }
+
+    private static <V> Segment<V> segmentFor(Segment<V>[] table, Key key) {
+	return table.length == 1 ? table[0] : table[indexFor(table.length, key)];
+    }
+
+    private static int indexFor(int segments, Key key) {
+	int hash = key.hashCode();
+	return (hash ^ (hash >>> 16)) & (segments - 1);
+    }
+
+    /*
+     * Locks every segment, in order, for reconfiguring the cache
+     */
+    private Segment<V>[] lockAll() {
+	Segment<V>[] table = this.segments;
+	for (Segment<V> segment : table)
+	    segment.lock.lock();
+	return table;
+    }
+
+    private void unlockAll(Segment<V>[] table) {
+	for (int i = table.length - 1; i >= 0; i--)
+	    this.unlock(table[i]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Segment<V>[] newSegments(int count, long time) {
+	Segment<V>[] table = new Segment[count];
+	for (int i = 0; i < count; i++)
+	    table[i] = new Segment<>(time);
+	return table;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+	Assert.assertNotEmpty(this.cacheDir, "A cache directory location is required.");
+	Assert.assertNotEmpty(this.cacheFile, "A cache filename is required.");
+	Assert.assertNotNull(this.type, "A cache type is required.");
+	this.initialize();
+    }
+
+    /**
+     * <p>
+     * Commits the mutations still queued for the log and closes it. Entries stored afterwards
+     * aren't persisted.
+     * </p>
+     */
+    @Override
+    public synchronized void destroy() throws Exception {
+	long start = System.nanoTime();
+	AppendOnlyLog appendOnlyLog;
+	Segment<V>[] table = this.lockAll();
+	try {
+	    for (Segment<V> segment : table)
+		this.drain(segment); // Logs the writes still buffered
+	    appendOnlyLog = this.log;
+	    this.log = null;
+	} finally {
+	    this.unlockAll(table);
+	}
+	if (appendOnlyLog != null)
+	    appendOnlyLog.close();
+	this.initialized = false;
+	this.recordLatency(DESTROY, start);
+    }
+
+    /*
+     * Independent part of the book-keeping, for the entries whose identifiers hash to it
+     */
+    private static final class Segment<V> {
+
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/*
+	 * Reads & writes not applied to the book-keeping below yet
+	 */
+	private final ReadBuffer<CacheEntry<V>> reads = new ReadBuffer<>();
+	private final Queue<Runnable> writes = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pendingWrites = new AtomicInteger();
+
+	/*
+	 * Guarded by the lock, like the number of entries tracked and their bound
+	 */
+	private TimerWheel<V> timerWheel;
+	private volatile EvictionPolicy policy;
+	private long size;
+	private long maximumSize;
+	private long weight;
+	private long maximumWeight = Long.MAX_VALUE;
+
+	private Segment(long time) {
+	    this.timerWheel = new TimerWheel<>(time);
+	}
+    }
+
+    /*
+     * Outcome of a remapping: the value now mapped, and the entry (if any) it replaced
+     */
+    private static final class Remapping<V> {
+
+	private V value;
+	private V previousValue;
+	private CacheEntry<V> previous;
+	private boolean expired;
+	private boolean changed;
+    }
+
+    /*
+     * Rebuilds the book-keeping of the deserialized entries. The collaborators which don't
+     * serialize (eviction policy, weigher, memory budget, ticker, off-heap capacity & log) are
+     * back to their defaults, and must be set again; the cache is to be initialized as well.
+     */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+	in.defaultReadObject();
+	this.ticker = CachedTicker.getInstance();
+	this.serializer = new BinarySerializer();
+	this.refreshExecutor = ForkJoinPool.commonPool();
+	this.stats = new StatsCounter();
+	this.loads = new ConcurrentHashMap<>();
+	this.segments = newSegments(1, ticker.currentTimeMillis());
+	for (CacheEntry<V> entry : this.cache.values()) {
+	    entry.weight = this.weigh(entry.getKey(), entry.getValue());
+	    this.afterInsertion(entry);
+	}
+    }
+
+    /*
+     * Applies the mutations of the log, before it is opened so nothing gets logged twice
+     */
+    private final class Replay implements ReplayHandler {
+
+	@Override
+	public void restore(Object identifier, long creationTime, Object value) {
+	    this.restore(identifier, creationTime, 0L, value);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void restore(Object identifier, long creationTime, long timeToLive, Object value) {
+	    invalidate(identifier);
+	    Key key = generate(identifier);
+	    key.setCreationTime(creationTime);
+	    insert(key, (V) value, timeToLive);
+	}
+
+	@Override
+	public void remove(Object identifier) {
+	    invalidate(identifier);
+	}
+    }
+
+    /**
+     * <p>
+     * Sets the time-to-live &amp; the time unit for cache entry time-to-live strategy (applicable
+     * to each entry in the cache, including the ones already present, except those stored with a
+     * time-to-live of their own).
+     * </p>
+     * 
+     * @param ttl
+     *            the ttl to set
+     * @param ttlUnit
+     *            the ttl time unit to set
+     */
+    public void setTtl(Long ttl, TimeUnit ttlUnit) {
+	Assert.assertNotNull(ttl, "Can't accept null as TTL.");
+	Assert.assertNotNull(ttlUnit, "Can't accept null as TTL TimeUnit.");
+	Segment<V>[] table = this.lockAll();
+	try {
+	    long extension = ttlUnit.toMillis(ttl) - this.ttlUnit.toMillis(this.ttl);
+	    this.ttl = ttl;
+	    this.ttlUnit = ttlUnit;
+	    for (CacheEntry<V> entry : this.cache.values()) {
+		if (entry.getTimeToLive() != 0L)
+		    continue;
+		entry.setExpirationTime(entry.getExpirationTime() + extension);
+		segmentFor(table, entry.getKey()).timerWheel.reschedule(entry);
+	    }
+	} finally {
+	    this.unlockAll(table);
+	}
+    }
+
+    /**
+     * <p>
+     * Sets whether the time-to-live of an entry counts from its last read (sliding expiration)
+     * rather than its creation. Default is false. Entries read regularly then stay cached, while
+     * idle ones expire as usual. Refresh-ahead still counts from the creation of the value. Once
+     * restored from the files, entries count from their creation again.
+     * </p>
+     * 
+     * @param expireAfterAccess
+     *            whether entries expire after their last access
+     */
+    public void setExpireAfterAccess(Boolean expireAfterAccess) {
+	Assert.assertNotNull(expireAfterAccess, "Can't accept null as expire-after-access flag.");
+	this.expireAfterAccess = expireAfterAccess;
+    }
+
+    /**
+     * <p>
+     * Bounds the cache to the given number of entries. Unless an <code>EvictionPolicy</code> is
+     * already set, least recently used entries are evicted. Should be set before the cache is used.
+     * The entries of a segmented cache are bounded per segment, each holding an equal share.
+     * </p>
+     * 
+     * @param maximumSize
+     *            the maximum number of entries to hold
+     */
+    public void setMaximumSize(Long maximumSize) {
+	Assert.assertNotNull(maximumSize, "Can't accept null as maximum size.");
+	Assert.assertTrue(maximumSize > 0L, "Maximum size must be a positive number.");
+	Segment<V>[] table = this.lockAll();
+	try {
+	    this.maximumSize = maximumSize;
+	    this.maximumSizeSet = true;
+	    if (table[0].policy == null) {
+		this.evictionPolicyFactory = LruEvictionPolicy::new;
+		this.bind(table, this.evictionPolicyFactory);
+	    } else {
+		for (Segment<V> segment : table)
+		    segment.policy.setMaximumSize(shareOf(maximumSize, table.length));
+		this.applyBounds(table);
+	    }
+	} finally {
+	    this.unlockAll(table);
+	}
+    }
+
+    /**
+     * <p>
+     * Bounds the cache to the given total weight of its entries, as weighed by the weigher of the
+     * cache (each entry weighs 1 without one). Unless an <code>EvictionPolicy</code> is already
+     * set, least recently used entries are evicted. The number of entries is then only bounded if
+     * the maximum size is set explicitly; a policy is still sized by the maximum size though, so
+     * set it to the number of entries expected for a policy like TinyLFU. The entries of a
+     * segmented cache are bounded per segment, each holding an equal share.
+     * </p>
+     * 
+     * @param maximumWeight
+     *            the maximum total weight of the entries to hold
+     */
+    public void setMaximumWeight(Long maximumWeight) {
+	Assert.assertNotNull(maximumWeight, "Can't accept null as maximum weight.");
+	Assert.assertTrue(maximumWeight > 0L, "Maximum weight must be a positive number.");
+	Segment<V>[] table = this.lockAll();
+	try {
+	    this.maximumWeight = maximumWeight;
+	    this.bound(table);
+	} finally {
+	    this.unlockAll(table);
+	}
+    }
+
+    /**
+     * <p>
+     * Sets the weigher of the entries, for bounding the cache by weight rather than by number of
+     * entries. Must be set before the cache is used.
+     * </p>
+     * 
+     * @param weigher
+     *            the weigher to use
+     * @see #setMaximumWeight(Long)
+     */
+    public void setWeigher(Weigher<? super V> weigher) {
+	Assert.assertNotNull(weigher, "Can't accept null as weigher.");
+	Assert.assertTrue(this.cache.isEmpty(), "Weigher must be set before use.");
+	this.weigher = weigher;
+    }
+
+    /**
+     * <p>
+     * Shares the given memory budget with other caches, so their entries together never outweigh
+     * it for long. Entries are weighed by the weigher of the cache, or lacking one, by the length
+     * of their serialized value (set a weigher for values costly to serialize). Unless an
+     * <code>EvictionPolicy</code> is already set, least recently used entries are evicted. Entries
+     * held already (restored from the log, say) are weighed &amp; counted against the budget right
+     * away, making room if it is exceeded.
+     * </p>
+     * 
+     * @param memoryBudget
+     *            the memory budget to share
+     */
+    public void setMemoryBudget(MemoryBudget memoryBudget) {
+	Assert.assertNotNull(memoryBudget, "Can't accept null as memory budget.");
+	Segment<V>[] table = this.lockAll();
+	try {
+	    Assert.assertTrue(this.memoryBudget == null, "Memory budget is set already.");
+	    for (Segment<V> segment : table)
+		this.drain(segment); // Tracks the entries stored so far
+	    this.memoryBudget = memoryBudget;
+	    memoryBudget.register(this);
+	    for (CacheEntry<V> entry : this.cache.values())
+		if (entry.tracked)
+		    this.reweigh(segmentFor(table, entry.getKey()), entry);
+	    this.bound(table);
+	} finally {
+	    this.unlockAll(table);
+	}
+	if (memoryBudget.isExceeded())
+	    memoryBudget.reclaim();
+    }
+
+    /*
+     * Weighs a tracked entry again, now that the cache shares a memory budget, and counts it
+     * against the budget. Must be invoked holding the lock of the segment
+     */
+    private void reweigh(Segment<V> segment, CacheEntry<V> entry) {
+	V value = entry.getValue();
+	int weight = value == null ? entry.weight : this.weigh(entry.getKey(), value);
+	segment.weight += weight - entry.weight;
+	entry.weight = weight;
+	memoryBudget.add(weight);
+    }
+
+    /*
+     * Must be invoked holding the locks of all the segments
+     */
+    private void bound(Segment<V>[] table) {
+	if (table[0].policy == null) {
+	    this.evictionPolicyFactory = LruEvictionPolicy::new;
+	    this.bind(table, this.evictionPolicyFactory);
+	} else
+	    this.applyBounds(table);
+    }
+
+    /**
+     * <p>
+     * Bounds the cache using the given eviction policy. The maximum size defaults to
+     * {@link Key#DEFAULT_CACHE_MAX_SIZE} unless set explicitly. A policy instance is stateful and
+     * must not be shared by caches. Should be set before the cache is used. A segmented cache needs
+     * a policy per segment, see {@link #setEvictionPolicyFactory(Supplier)}.
+     * </p>
+     * 
+     * @param evictionPolicy
+     *            the eviction policy to use
+     */
+    public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+	Assert.assertNotNull(evictionPolicy, "Can't accept null as eviction policy.");
+	Segment<V>[] table = this.lockAll();
+	try {
+	    Assert.assertTrue(table.length == 1,
+		    "A segmented cache needs an eviction policy factory.");
+	    this.evictionPolicyFactory = null;
+	    this.bind(table, () -> evictionPolicy);
+	} finally {
+	    this.unlockAll(table);
+	}
+    }
+
+    /**
+     * <p>
+     * Bounds the cache using eviction policies created by the given factory, one per segment. The
+     * maximum size defaults to {@link Key#DEFAULT_CACHE_MAX_SIZE} unless set explicitly. Should be
+     * set before the cache is used.
+     * </p>
+     * 
+     * @param evictionPolicyFactory
+     *            the factory of the eviction policies to use
+     */
+    public void setEvictionPolicyFactory(Supplier<? extends EvictionPolicy> evictionPolicyFactory) {
+	Assert.assertNotNull(evictionPolicyFactory, "Can't accept null as eviction policy factory.");
+	Segment<V>[] table = this.lockAll();
+	try {
+	    this.evictionPolicyFactory = evictionPolicyFactory;
+	    this.bind(table, evictionPolicyFactory);
+	} finally {
+	    this.unlockAll(table);
+	}
+    }
+
+    /*
+     * Must be invoked holding the locks of all the segments
+     */
+    private void bind(Segment<V>[] table, Supplier<? extends EvictionPolicy> factory) {
+	for (Segment<V> segment : table) {
+	    EvictionPolicy policy = factory.get();
+	    policy.setMaximumSize(shareOf(maximumSize, table.length));
+	    segment.policy = policy;
+	}
+	for (CacheEntry<V> entry : this.cache.values())
+	    if (entry.tracked)
+		segmentFor(table, entry.getKey()).policy.recordInsertion(entry);
+	this.applyBounds(table);
+    }
+
+    /*
+     * Must be invoked holding the locks of all the segments, once bound to eviction policies. A
+     * cache bounded by weight (or a memory budget) bounds the number of entries only if its
+     * maximum size was set explicitly
+     */
+    private void applyBounds(Segment<V>[] table) {
+	boolean weighed = maximumWeight != null || memoryBudget != null;
+	long sizeShare = weighed && !maximumSizeSet ? Long.MAX_VALUE
+		: shareOf(maximumSize, table.length);
+	long weightShare = maximumWeight == null ? Long.MAX_VALUE
+		: shareOf(maximumWeight, table.length);
+	for (Segment<V> segment : table) {
+	    segment.maximumSize = sizeShare;
+	    segment.maximumWeight = weightShare;
+	    this.evict(segment);
+	}
+    }
+
+    /*
+     * Share of a bound held by each segment, rounded up
+     */
+    private static long shareOf(long bound, int segments) {
+	return bound / segments + (bound % segments == 0L ? 0L : 1L);
+    }
+
+    /**
+     * <p>
+     * Splits the book-keeping of the cache (expiry index &amp; eviction policy) into the given
+     * number of segments (rounded up to a power of two), each guarded by a lock of its own and
+     * selected by the hash of the identifiers. Writers of distinct segments then never contend,
+     * and a flush sweeps each segment independently. Default is a single segment; a cache written
+     * to by many threads (like a CSRF cache) benefits from about as many segments as processors.
+     * A bounded cache holds an equal share of its maximum size per segment, so the entries evicted
+     * approximate the choice of a single policy. Must be set before the cache is used, and a
+     * policy instance set through {@link #setEvictionPolicy(EvictionPolicy)} can't be split.
+     * </p>
+     * 
+     * @param segments
+     *            the number of segments
+     */
+    public void setSegments(Integer segments) {
+	Assert.assertNotNull(segments, "Can't accept null as segments.");
+	Assert.assertTrue(segments > 0 && segments <= MAXIMUM_SEGMENTS,
+		"Segments must be a positive number up to " + MAXIMUM_SEGMENTS + ".");
+	Segment<V>[] table = this.lockAll();
+	try {
+	    Assert.assertTrue(this.cache.isEmpty(), "Segments must be set before use.");
+	    for (Segment<V> segment : table)
+		this.drain(segment);
+	    Supplier<? extends EvictionPolicy> factory = this.evictionPolicyFactory;
+	    EvictionPolicy policy = table[0].policy;
+	    Assert.assertTrue(policy == null || factory != null || segments == 1,
+		    "A segmented cache needs an eviction policy factory.");
+	    int count = 1;
+	    while (count < segments)
+		count <<= 1;
+	    Segment<V>[] resized = newSegments(count, ticker.currentTimeMillis());
+	    if (policy != null)
+		this.bind(resized, factory != null ? factory : () -> policy);
+	    this.segments = resized;
+	} finally {
+	    this.unlockAll(table);
+	}
+    }
+
+    /**
+     * <p>
+     * Returns the number of segments of the cache.
+     * </p>
+     * 
+     * @return the number of segments
+     */
+    public int getSegments() {
+	return this.segments.length;
+    }
+
+    /**
+     * <p>
+     * Sets the source of time for creation times and expiry checks. Default is the shared
+     * {@link CachedTicker}; tests may inject a ticker they advance by hand.
+     * </p>
+     * 
+     * @param ticker
+     *            the ticker to use
+     */
+    public void setTicker(Ticker ticker) {
+	Assert.assertNotNull(ticker, "Can't accept null as ticker.");
+	Segment<V>[] table = this.lockAll();
+	try {
+	    long time = ticker.currentTimeMillis();
+	    List<TimerWheel<V>> wheels = new ArrayList<>(table.length);
+	    for (int i = 0; i < table.length; i++)
+		wheels.add(new TimerWheel<>(time));
+	    for (CacheEntry<V> entry : this.cache.values()) {
+		int index = indexFor(table.length, entry.getKey());
+		table[index].timerWheel.deschedule(entry);
+		if (entry.tracked)
+		    wheels.get(index).schedule(entry);
+	    }
+	    this.ticker = ticker;
+	    for (int i = 0; i < table.length; i++)
+		table[i].timerWheel = wheels.get(i);
+	} finally {
+	    this.unlockAll(table);
+	}
+    }
+
+    /**
+     * <p>
+     * Enables refresh-ahead: an entry read once past the given fraction of its TTL is reloaded
+     * through the loader in the background, while the current value keeps being served. The
+     * reloaded value is stored with a fresh TTL (a <code>null</code> one removes the entry), so
+     * popular entries never reach their expiry and readers never wait for a reload. Concurrent
+     * reads trigger a single reload, which a {@link #get(Object, Function)} missing the entry
+     * meanwhile waits on. A failed reload is logged and leaves the entry as is.
+     * </p>
+     * 
+     * @param fraction
+     *            the fraction of the TTL after which entries are refreshed, between 0 and 1
+     * @param loader
+     *            the function reloading the entry for a key identifier
+     */
+    public void setRefreshAhead(Float fraction, Function<Object, ? extends V> loader) {
+	Assert.assertNotNull(fraction, "Can't accept null as refresh-ahead fraction.");
+	Assert.assertNotNull(loader, "Can't accept null as refresh loader.");
+	Assert.assertTrue(fraction > 0f && fraction < 1f,
+		"Refresh-ahead fraction must be between 0 and 1.");
+	this.refreshAhead = fraction;
+	this.refreshLoader = loader;
+    }
+
+    /**
+     * <p>
+     * Sets the executor running the refresh-ahead reloads. Default is the common fork-join pool; a
+     * dedicated executor suits loaders blocking on I/O.
+     * </p>
+     * 
+     * @param refreshExecutor
+     *            the executor to use
+     */
+    public void setRefreshExecutor(Executor refreshExecutor) {
+	Assert.assertNotNull(refreshExecutor, "Can't accept null as refresh executor.");
+	this.refreshExecutor = refreshExecutor;
+    }
+
+    /**
+     * <p>
+     * Sets the serializer for the identifiers &amp; values persisted to the cache files, also used
+     * for the values of an off-heap cache. Default is a {@link BinarySerializer}, with built-in
+     * codecs for common types. Must be set before the cache is initialized, and kept as long as the
+     * files written with it are around.
+     * </p>
+     * 
+     * @param serializer
+     *            the serializer to use
+     */
+    public void setSerializer(CacheSerializer serializer) {
+	Assert.assertNotNull(serializer, "Can't accept null as serializer.");
+	this.serializer = serializer;
+    }
+
+    /**
+     * <p>
+     * Stores the values off the heap, serialized into direct memory of up to the given number of
+     * bytes (rounded down to whole megabytes, 64 GiB at most). Only the keys &amp; the index stay
+     * on the heap, so large caches don't inflate garbage collection pauses. Values are decoded on
+     * every read. Once the capacity is used up, further entries (or values larger than a megabyte)
+     * aren't stored; bound the cache with {@link #setMaximumSize(Long)} to make room instead. The
+     * direct memory limit of the JVM (<code>-XX:MaxDirectMemorySize</code>) must accommodate the
+     * capacity. Must be set before the cache is used.
+     * </p>
+     * 
+     * @param capacity
+     *            the off-heap capacity in bytes
+     */
+    public void setOffHeapCapacity(Long capacity) {
+	Assert.assertNotNull(capacity, "Can't accept null as off-heap capacity.");
+	Assert.assertTrue(capacity >= SlabAllocator.PAGE_SIZE,
+		"Off-heap capacity must be a megabyte at least.");
+	Assert.assertTrue(this.cache.isEmpty(), "Off-heap capacity must be set before use.");
+	this.slabs = new SlabAllocator(capacity);
+    }
+
+    /**
+     * <p>
+     * Returns the number of off-heap bytes taken by the values, <code>0</code> for an on-heap
+     * cache.
+     * </p>
+     * 
+     * @return the off-heap usage in bytes
+     */
+    public long getOffHeapUsage() {
+	SlabAllocator allocator = this.slabs;
+	return allocator == null ? 0L : allocator.getUsedBytes();
+    }
+
+    /**
+     * <p>
+     * Sets how the entries are persisted. Default is {@link PersistenceMode#LOG}; with
+     * {@link PersistenceMode#NONE}, the cache never touches the file system. Must be set before
+     * the cache is initialized.
+     * </p>
+     * 
+     * @param persistenceMode
+     *            the persistence mode to use
+     */
+    public void setPersistenceMode(PersistenceMode persistenceMode) {
+	Assert.assertNotNull(persistenceMode, "Can't accept null as persistence mode.");
+	Assert.assertTrue(!this.initialized, "Persistence mode must be set before initialization.");
+	this.persistenceMode = persistenceMode;
+    }
+
+    /**
+     * <p>
+     * Sets the writer of the log, typically shared by the caches of a manager so that they have a
+     * single persistence pipeline. The writer must outlive the cache (or be replaced before it is
+     * closed). By default, a cache has a writer of its own. Should the cache be initialized
+     * already, its log is closed (committing the mutations queued so far) and opened again on the
+     * given writer.
+     * </p>
+     * 
+     * @param logWriter
+     *            the log writer to use
+     * @see #resetLogWriter()
+     */
+    public synchronized void setLogWriter(LogWriter logWriter) {
+	Assert.assertNotNull(logWriter, "Can't accept null as log writer.");
+	if (logWriter == this.logWriter)
+	    return;
+	this.logWriter = logWriter;
+	this.reopenLog();
+    }
+
+    /**
+     * <p>
+     * Gives the log a writer of its own again, say before the shared writer is closed. Should the
+     * cache be initialized already, its log is closed and opened again on the new writer.
+     * </p>
+     * 
+     * @see #setLogWriter(LogWriter)
+     */
+    public synchronized void resetLogWriter() {
+	if (this.logWriter == null)
+	    return;
+	this.logWriter = null;
+	this.reopenLog();
+    }
+
+    /**
+     * <p>
+     * Sets the cache directory location to use with the particular type of cache in focus.
+     * </p>
+     * 
+     * @param cacheDir
+     *            the cache directory location to use
+     */
+    public void setCacheDir(String cacheDir) {
+	Assert.assertNotEmpty(cacheDir, "A cache directory location is required.");
+	this.cacheDir = cacheDir;
+    }
+
+    /**
+     * <p>
+     * Sets the cache filename to use with the particular type of cache in focus.
+     * </p>
+     * 
+     * @param cacheFile
+     *            the cache filename to use
+     */
+    public void setCacheFile(String cacheFile) {
+	Assert.assertNotEmpty(cacheFile, "A cache filename is required.");
+	this.cacheFile = cacheFile;
+    }
+
+    /**
+     * <p>
+     * Returns the set time-to-live for the entries in cache.
+     * </p>
+     * 
+     * @return the ttl for entries in cache
+     */
+    public Long getTtl() {
+	return this.ttl;
+    }
+
+    /**
+     * <p>
+     * Returns the set time-to-live time unit for the entries in cache.
+     * </p>
+     * 
+     * @return the ttl time unit for entries in cache
+     */
+    public TimeUnit getTtlUnit() {
+	return this.ttlUnit;
+    }
+
+    /**
+     * <p>
+     * Returns the maximum number of entries, applicable when the cache is bounded.
+     * </p>
+     * 
+     * @return the maximum size of the cache
+     */
+    public Long getMaximumSize() {
+	return this.maximumSize;
+    }
+
+    /**
+     * <p>
+     * Returns the maximum total weight of the entries, applicable when the cache is bounded by
+     * weight.
+     * </p>
+     * 
+     * @return the maximum weight of the cache, null unless bounded by weight
+     */
+    public Long getMaximumWeight() {
+	return this.maximumWeight;
+    }
+
+    /**
+     * <p>
+     * Returns the total weight of the entries, weighed as set through
+     * {@link #setMaximumWeight(Long)} or {@link #setMemoryBudget(MemoryBudget)}.
+     * </p>
+     * 
+     * @return the weight of the cache
+     */
+    public long getWeight() {
+	long weight = 0L;
+	for (Segment<V> segment : this.segments)
+	    weight += segment.weight;
+	return weight;
+    }
+
+    /**
+     * <p>
+     * Returns the memory budget shared with other caches.
+     * </p>
+     * 
+     * @return the memory budget, null if the cache has none
+     */
+    public MemoryBudget getMemoryBudget() {
+	return this.memoryBudget;
+    }
+
+    /**
+     * <p>
+     * Returns the number of entries evicted for making room in a bounded cache. Entries which
+     * outlived their TTL aren't counted here.
+     * </p>
+     * 
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+	return this.evictionCount.sum();
+    }
+
+    /**
+     * <p>
+     * Returns the number of entries removed for outliving their TTL.
+     * </p>
+     * 
+     * @return the expiration count
+     */
+    public long getExpirationCount() {
+	return this.expirationCount.sum();
+    }
+
+    /**
+     * <p>
+     * Enables or disables the recording of hits, misses, loads &amp; flushes (evictions and
+     * expirations are always counted). Disabled by default; recording costs a few striped counter
+     * updates per operation.
+     * </p>
+     * 
+     * @param recordStats
+     *            whether to record statistics
+     */
+    public void setRecordStats(Boolean recordStats) {
+	Assert.assertNotNull(recordStats, "Can't accept null as record stats flag.");
+	this.recordStats = recordStats;
+    }
+
+    /**
+     * <p>
+     * Tells whether the statistics are being recorded.
+     * </p>
+     * 
+     * @return true if statistics are recorded, else false
+     */
+    public boolean isRecordingStats() {
+	return this.recordStats;
+    }
+
+    /**
+     * <p>
+     * Returns a snapshot of the statistics recorded so far.
+     * </p>
+     * 
+     * @return the statistics of this cache
+     */
+    public CacheStats getStats() {
+	return this.stats.snapshot(this.getEvictionCount(), this.getExpirationCount());
+    }
+
+    /**
+     * <p>
+     * Enables or disables the latency histograms of the cache operations (see
+     * {@link CacheOperation}). Disabled by default, reads &amp; writes then don't even read the
+     * clock. Enabling resets the histograms.
+     * </p>
+     * 
+     * @param recordLatencies
+     *            whether to record latencies
+     */
+    public void setRecordLatencies(Boolean recordLatencies) {
+	Assert.assertNotNull(recordLatencies, "Can't accept null as record latencies flag.");
+	if (!recordLatencies) {
+	    this.latencies = null;
+	    return;
+	}
+	Map<CacheOperation, LatencyHistogram> histograms = new EnumMap<>(CacheOperation.class);
+	for (CacheOperation operation : CacheOperation.values())
+	    histograms.put(operation, new LatencyHistogram());
+	this.latencies = histograms;
+    }
+
+    /**
+     * <p>
+     * Returns snapshots of the latencies recorded so far, by operation.
+     * </p>
+     * 
+     * @return the latencies of the operations, empty if they aren't recorded
+     */
+    public Map<CacheOperation, LatencySnapshot> getLatencies() {
+	Map<CacheOperation, LatencySnapshot> snapshots = new EnumMap<>(CacheOperation.class);
+	Map<CacheOperation, LatencyHistogram> histograms = this.latencies;
+	if (histograms != null)
+	    for (Map.Entry<CacheOperation, LatencyHistogram> histogram : histograms.entrySet())
+		snapshots.put(histogram.getKey(), histogram.getValue().snapshot());
+	return snapshots;
+    }
+
+    /**
+     * <p>
+     * Returns the type of this cache.
+     * </p>
+     * 
+     * @return the cache type
+     */
+    public CacheType getType() {
+	return this.type;
+    }
+
+    /**
+     * <p>
+     * Returns the writer of the log when shared with other caches.
+     * </p>
+     * 
+     * @return the log writer, null if the cache has a writer of its own
+     */
+    public LogWriter getLogWriter() {
+	return this.logWriter;
+    }
+
+    /**
+     * <p>
+     * Returns how the entries of this cache are persisted.
+     * </p>
+     * 
+     * @return the persistence mode
+     */
+    public PersistenceMode getPersistenceMode() {
+	return this.persistenceMode;
+    }
+
+    /**
+     * <p>
+     * Returns whether this cache is initialized (and not destroyed since).
+     * </p>
+     * 
+     * @return true once initialized
+     */
+    public boolean isInitialized() {
+	return this.initialized;
+    }
+
+    /**
+     * <p>
+     * Returns the number of entries in the cache, including the expired ones not flushed yet.
+     * </p>
+     * 
+     * @return the number of entries
+     */
+    public long getSize() {
+	return this.cache.size();
+    }
+
+    /**
+     * <p>
+     * Returns the size of the snapshot file last written by a compaction of the log.
+     * </p>
+     * 
+     * @return the snapshot size in bytes, 0 if there is none (or the cache isn't initialized)
+     */
+    public long getSnapshotSize() {
+	AppendOnlyLog appendOnlyLog = this.log;
+	return appendOnlyLog == null ? 0L : appendOnlyLog.getSnapshotSize();
     }
 }
\ No newline at end of file
@@ -16,6 +16,15 @@
  */
 package net.itrixlabs.cache.core;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 
@@ -110,6 +119,31 @@ public abstract interface ApplicationCache<Key, V> extends InitializingBean, Dis
      */
     void putInCache(Object key, V entry);
 
+    /**
+     * <p>
+     * Places an entry in the cache like {@link #putInCache(Object, Object)}, with a time-to-live of
+     * its own rather than the one of the cache (for instance, a remember-me token outliving the
+     * ordinary sessions).
+     * </p>
+     * <p>
+     * The default implementation ignores the given time-to-live and delegates to
+     * {@link #putInCache(Object, Object)}, so the entry lives for the time-to-live of the cache;
+     * implementations supporting per-entry expiration should override it.
+     * </p>
+     * 
+     * @param key
+     *            the key corresponding to which entry must be stored in the cache
+     * @param entry
+     *            the object entry to place into the cache
+     * @param ttl
+     *            the time-to-live of the entry
+     * @param ttlUnit
+     *            the time unit of the time-to-live
+     */
+    default void putInCache(Object key, V entry, long ttl, TimeUnit ttlUnit) {
+	this.putInCache(key, entry);
+    }
+
     /**
      * <p>
      * Removes the specified entry from the cache. The <code>key</code> is the identifier used to
@@ -170,5 +204,248 @@ public abstract interface ApplicationCache<Key, V> extends InitializingBean, Dis
      */
     boolean isPresentInCache(Object key);
 
+    /**
+     * <p>
+     * Returns the entry stored for the key or, on a miss, loads it through the given loader and
+     * stores it. Concurrent misses of the same key are coalesced: the loader is invoked once and
+     * the other callers wait for its result, so a miss costs a single backend call however many
+     * requests hit it at once. An exception thrown by the loader is propagated to every waiting
+     * caller, and nothing is stored.
+     * </p>
+     * <p>
+     * The default implementation loads through {@link #getFromCache(Object)} and
+     * {@link #putInCache(Object, Object)} without coalescing concurrent misses; implementations
+     * able to track the loads in flight should override it.
+     * </p>
+     * 
+     * @param key
+     *            the key of the entry to get
+     * @param loader
+     *            the function loading the entry for a key, may return <code>null</code>
+     * @return the stored or loaded entry, or <code>null</code> if the loader found none
+     */
+    default V get(Object key, Function<Object, ? extends V> loader) {
+	V present = this.getFromCache(key);
+	if (present != null)
+	    return present;
+	V loaded = loader.apply(key);
+	if (loaded != null)
+	    this.putInCache(key, loaded);
+	return loaded;
+    }
+
+    /**
+     * <p>
+     * Returns the entries stored for the given keys, in a single pass over the cache. Keys without
+     * an entry are left out of the returned map.
+     * </p>
+     * <p>
+     * The default implementation looks the keys up one by one through
+     * {@link #getFromCache(Object)}.
+     * </p>
+     * 
+     * @param keys
+     *            the keys of the entries to get
+     * @return the entries found, by key
+     */
+    default Map<Object, V> getAll(Iterable<?> keys) {
+	Map<Object, V> values = new HashMap<>();
+	for (Object key : keys) {
+	    V value = this.getFromCache(key);
+	    if (value != null)
+		values.put(key, value);
+	}
+	return values;
+    }
+
+    /**
+     * <p>
+     * Returns the entries stored for the given keys, loading all the missing ones through a single
+     * invocation of the loader and storing them. Concurrent misses of the same keys are coalesced,
+     * as with {@link #get(Object, Function)}. Keys the loader returns no entry for are left out of
+     * the returned map.
+     * </p>
+     * <p>
+     * The default implementation loads the missing keys through {@link #getAll(Iterable)} and
+     * {@link #putInCache(Object, Object)} without coalescing concurrent misses.
+     * </p>
+     * 
+     * @param keys
+     *            the keys of the entries to get
+     * @param loader
+     *            the function loading the entries for a set of keys, by key
+     * @return the stored or loaded entries, by key
+     */
+    default Map<Object, V> getAll(Iterable<?> keys,
+	    Function<? super Set<Object>, ? extends Map<?, ? extends V>> loader) {
+	Set<Object> requested = new LinkedHashSet<>();
+	for (Object key : keys)
+	    requested.add(key);
+	Map<Object, V> values = this.getAll(requested);
+	requested.removeAll(values.keySet());
+	if (requested.isEmpty())
+	    return values;
+	Map<?, ? extends V> loaded = loader.apply(Collections.unmodifiableSet(requested));
+	if (loaded == null)
+	    return values;
+	for (Object key : requested) {
+	    V value = loaded.get(key);
+	    if (value != null) {
+		this.putInCache(key, value);
+		values.put(key, value);
+	    }
+	}
+	return values;
+    }
+
+    /**
+     * <p>
+     * Places the given entries in the cache, except those for which an entry is present already.
+     * </p>
+     * 
+     * @param entries
+     *            the entries to store, by key
+     */
+    default void putAll(Map<?, ? extends V> entries) {
+	for (Map.Entry<?, ? extends V> entry : entries.entrySet())
+	    this.putInCache(entry.getKey(), entry.getValue());
+    }
+
+    /**
+     * <p>
+     * Removes the entries stored for the given keys.
+     * </p>
+     * 
+     * @param keys
+     *            the keys of the entries to remove
+     */
+    default void evictAll(Iterable<?> keys) {
+	for (Object key : keys)
+	    this.evictFromCache(key);
+    }
+
+    /**
+     * <p>
+     * Replaces the entry stored for the key, only if one is present. The new entry starts a fresh
+     * time-to-live.
+     * </p>
+     * <p>
+     * The default implementation evicts the present entry before storing the new one through
+     * {@link #evictFromCache(Object)} &amp; {@link #putInCache(Object, Object)}, so a concurrent
+     * reader may miss in between. Implementations able to lock a key should override it with an
+     * atomic replacement.
+     * </p>
+     * 
+     * @param key
+     *            the key of the entry to replace
+     * @param entry
+     *            the object entry to place into the cache
+     * @return the replaced entry, or <code>null</code> if none was present (and nothing was
+     *         stored)
+     */
+    default V replace(Object key, V entry) {
+	V present = this.getFromCache(key);
+	if (present != null) {
+	    this.evictFromCache(key);
+	    this.putInCache(key, entry);
+	}
+	return present;
+    }
+
+    /**
+     * <p>
+     * Computes the entry for the key from the present one (<code>null</code> if absent). A
+     * <code>null</code> result removes the entry, returning the present entry keeps it untouched,
+     * and any other result is stored with a fresh time-to-live. The function must be short and
+     * must not use this cache.
+     * </p>
+     * <p>
+     * The default implementation goes through {@link #getFromCache(Object)},
+     * {@link #evictFromCache(Object)} &amp; {@link #putInCache(Object, Object)}, evicting the
+     * present entry before storing another. It isn't atomic, so concurrent writers of the same key
+     * may interleave; implementations able to lock a key should override it.
+     * </p>
+     * 
+     * @param key
+     *            the key of the entry to compute
+     * @param remappingFunction
+     *            the function computing the entry from the key &amp; the present entry
+     * @return the entry now stored for the key, or <code>null</code> if none
+     */
+    default V compute(Object key,
+	    BiFunction<Object, ? super V, ? extends V> remappingFunction) {
+	V present = this.getFromCache(key);
+	V computed = remappingFunction.apply(key, present);
+	if (computed == null) {
+	    if (present != null)
+		this.evictFromCache(key);
+	} else if (computed != present) {
+	    if (present != null)
+		this.evictFromCache(key);
+	    this.putInCache(key, computed);
+	}
+	return computed;
+    }
+
+    /**
+     * <p>
+     * Returns the entry stored for the key or, if none is present, computes and stores it. The
+     * function must be short and must not use this cache. A <code>null</code> result stores
+     * nothing.
+     * </p>
+     * <p>
+     * The default implementation goes through {@link #getFromCache(Object)} &amp;
+     * {@link #putInCache(Object, Object)}. It isn't atomic, so concurrent callers may each invoke
+     * the function; implementations able to lock a key should override it.
+     * </p>
+     * 
+     * @param key
+     *            the key of the entry to look up or compute
+     * @param mappingFunction
+     *            the function computing the entry from the key
+     * @return the present or computed entry, or <code>null</code> if none
+     */
+    default V computeIfAbsent(Object key, Function<Object, ? extends V> mappingFunction) {
+	V present = this.getFromCache(key);
+	if (present != null)
+	    return present;
+	V computed = mappingFunction.apply(key);
+	if (computed != null)
+	    this.putInCache(key, computed);
+	return computed;
+    }
+
+    /**
+     * <p>
+     * Stores the given entry if none is present, else the result of merging the present entry
+     * with the given one. A <code>null</code> result removes the entry. The function must be
+     * short and must not use this cache.
+     * </p>
+     * <p>
+     * The default implementation goes through {@link #getFromCache(Object)},
+     * {@link #evictFromCache(Object)} &amp; {@link #putInCache(Object, Object)}, evicting the
+     * present entry before storing the merged one. It isn't atomic, so concurrent writers of the
+     * same key may interleave; implementations able to lock a key should override it.
+     * </p>
+     * 
+     * @param key
+     *            the key of the entry to merge
+     * @param entry
+     *            the object entry to store or merge
+     * @param remappingFunction
+     *            the function merging the present entry with the given one
+     * @return the entry now stored for the key, or <code>null</code> if none
+     */
+    default V merge(Object key, V entry,
+	    BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+	V present = this.getFromCache(key);
+	V merged = present == null ? entry : remappingFunction.apply(present, entry);
+	if (present != null)
+	    this.evictFromCache(key);
+	if (merged != null)
+	    this.putInCache(key, merged);
+	return merged;
+    }
+
     void flush();
 }
\ No newline at end of file
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+/**
+ * <p>
+ * Non-blocking counterpart of <code>ApplicationCache</code>, for callers which mustn't block (e.g.
+ * event-loop threads of a reactive application). Every method returns a
+ * <code>CompletableFuture</code> instead of a value, and loads run without holding the caller.
+ * </p>
+ * <p>
+ * An asynchronous cache is a view of an <code>ApplicationCache</code>, sharing its storage: entries
+ * put through either are visible to both. Obtain one through
+ * {@link AbstractFileSystemCache#async()}.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see ApplicationCache
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public interface AsyncApplicationCache<Key, V> {
+
+    /**
+     * <p>
+     * Returns the entry stored for the key, or <code>null</code> if none is present.
+     * </p>
+     * 
+     * @param key
+     *            the key of the entry to get
+     * @return a future of the entry
+     */
+    CompletableFuture<V> getAsync(Object key);
+
+    /**
+     * <p>
+     * Returns the entry stored for the key or, on a miss, loads it through the given asynchronous
+     * loader and stores it once loaded. Concurrent misses of the same key (through this view or
+     * the synchronous cache) share a single load. A loader which blocks can still be used through
+     * <code>CompletableFuture.supplyAsync</code> on an executor of its own.
+     * </p>
+     * 
+     * @param key
+     *            the key of the entry to get
+     * @param loader
+     *            the function starting the load of the entry for a key, which may complete with
+     *            <code>null</code>
+     * @return a future of the stored or loaded entry, failing if the load fails
+     */
+    CompletableFuture<V> getAsync(Object key,
+	    Function<Object, ? extends CompletionStage<? extends V>> loader);
+
+    /**
+     * <p>
+     * Places the entry in the cache unless an entry is already present for the key.
+     * </p>
+     * 
+     * @param key
+     *            the key of the entry
+     * @param entry
+     *            the entry to store
+     * @return a future completing once the entry is stored
+     */
+    CompletableFuture<Void> putAsync(Object key, V entry);
+
+    /**
+     * <p>
+     * Removes the entry stored for the key, if any.
+     * </p>
+     * 
+     * @param key
+     *            the key of the entry to remove
+     * @return a future completing once the entry is removed
+     */
+    CompletableFuture<Void> evictAsync(Object key);
+
+    /**
+     * <p>
+     * Returns the synchronous cache this view is backed by.
+     * </p>
+     * 
+     * @return the synchronous cache
+     */
+    ApplicationCache<Key, V> synchronous();
+}
\ No newline at end of file
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.core;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
+
+import net.itrixlabs.cache.config.Key;
+
+/**
+ * <p>
+ * <code>AsyncApplicationCache</code> view of an <code>AbstractFileSystemCache</code>. Reads, puts
+ * &amp; removals only touch memory and hand the mutation over to the log writer thread, so they
+ * complete on the calling thread without ever waiting on disk (not even while the queue of the
+ * writer is full). Loads complete on whichever thread completes the loader's future, exceptionally
+ * if the loaded entry can't be stored.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see AbstractFileSystemCache#async()
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+final class AsyncFileSystemCache<V> implements AsyncApplicationCache<Key, V> {
+
+    private final AbstractFileSystemCache<V> cache;
+
+    AsyncFileSystemCache(AbstractFileSystemCache<V> cache) {
+	this.cache = cache;
+    }
+
+    @Override
+    public CompletableFuture<V> getAsync(Object key) {
+	try {
+	    return CompletableFuture.completedFuture(cache.getFromCache(key));
+	} catch (RuntimeException e) {
+	    return failed(e);
+	}
+    }
+
+    @Override
+    public CompletableFuture<V> getAsync(Object key,
+	    Function<Object, ? extends CompletionStage<? extends V>> loader) {
+	try {
+	    // A dependent future, so that a caller cancelling it doesn't fail the shared load
+	    return cache.load(key, loader).thenApply(Function.identity());
+	} catch (RuntimeException e) {
+	    return failed(e);
+	}
+    }
+
+    @Override
+    public CompletableFuture<Void> putAsync(Object key, V entry) {
+	try {
+	    cache.putInCache(key, entry);
+	    return CompletableFuture.completedFuture(null);
+	} catch (RuntimeException e) {
+	    return failed(e);
+	}
+    }
+
+    @Override
+    public CompletableFuture<Void> evictAsync(Object key) {
+	try {
+	    cache.evictFromCache(key);
+	    return CompletableFuture.completedFuture(null);
+	} catch (RuntimeException e) {
+	    return failed(e);
+	}
+    }
+
+    @Override
+    public ApplicationCache<Key, V> synchronous() {
+	return cache;
+    }
+
+    private static <T> CompletableFuture<T> failed(Throwable failure) {
+	CompletableFuture<T> future = new CompletableFuture<>();
+	future.completeExceptionally(failure);
+	return future;
+    }
+}
\ No newline at end of file
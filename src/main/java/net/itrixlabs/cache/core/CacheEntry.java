@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.core;
+
+import static org.springframework.security.core.SpringSecurityCoreVersion.SERIAL_VERSION_UID;
+
+import java.io.Serializable;
+
+import net.itrixlabs.cache.config.Key;
+
+/**
+ * <p>
+ * Holds a single mapping of an <code>AbstractFileSystemCache</code>, i.e., the stored
+ * <code>Key</code> (along with its creation time), the cached value, the time at which the entry
+ * expires and its own time-to-live (if it doesn't follow the TTL of the cache).
+ * </p>
+ * <p>
+ * Entries are compared by identity on purpose (neither {@link Object#equals(Object)} nor
+ * {@link Object#hashCode()} is overridden). A re-inserted identifier always gets a new entry, so
+ * book-keeping structures (like an <code>EvictionPolicy</code>) can never confuse it with the
+ * mapping it replaced.
+ * </p>
+ * <p>
+ * Can't be extended outside this package; the entries of an off-heap cache resolve their value
+ * from direct memory.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see AbstractFileSystemCache
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public class CacheEntry<V> implements Serializable {
+
+    private static final long serialVersionUID = SERIAL_VERSION_UID;
+
+    private final Key key;
+    private final V value;
+    private volatile long expirationTime;
+    private final long timeToLive;
+
+    /*
+     * Links of the timer wheel bucket holding the entry (guarded by the cache's eviction lock)
+     */
+    transient CacheEntry<V> previousInTimer;
+    transient CacheEntry<V> nextInTimer;
+
+    /*
+     * Whether the entry is counted by its segment of the cache (guarded by the segment's lock)
+     */
+    transient boolean tracked;
+
+    /*
+     * Weight of the entry for bounding the cache, set before the entry is stored
+     */
+    transient int weight;
+
+    CacheEntry(Key key, V value, long expirationTime) {
+	this(key, value, expirationTime, 0L);
+    }
+
+    CacheEntry(Key key, V value, long expirationTime, long timeToLive) {
+	this.key = key;
+	this.value = value;
+	this.expirationTime = expirationTime;
+	this.timeToLive = timeToLive;
+    }
+
+    /**
+     * <p>
+     * Returns the key under which the entry is stored.
+     * </p>
+     * 
+     * @return the stored key
+     */
+    public Key getKey() {
+	return key;
+    }
+
+    /**
+     * <p>
+     * Returns the cached value. An off-heap entry decodes a fresh copy on every invocation.
+     * </p>
+     * 
+     * @return the value
+     */
+    public V getValue() {
+	return value;
+    }
+
+    /**
+     * <p>
+     * Returns the time (in millis) at which the entry expires.
+     * </p>
+     * 
+     * @return the expiration time
+     */
+    public long getExpirationTime() {
+	return expirationTime;
+    }
+
+    /**
+     * <p>
+     * Returns the time-to-live (in millis) the entry was stored with.
+     * </p>
+     * 
+     * @return the time-to-live, 0 if the entry follows the TTL of the cache
+     */
+    public long getTimeToLive() {
+	return timeToLive;
+    }
+
+    void setExpirationTime(long expirationTime) {
+	this.expirationTime = expirationTime;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.core;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.itrixlabs.cache.util.Assert;
+
+/**
+ * <p>
+ * Memory budget shared by caches, capping the total weight of their entries (in bytes, as weighed
+ * by each cache). Every cache keeps its own bounds, the budget caps them all together: once a
+ * store takes the total over the capacity, the heaviest cache evicts entries (chosen by its own
+ * <code>EvictionPolicy</code>) until the total fits again. A cache whose entries dwarf the others
+ * thus gives up room first, whichever cache is being written to.
+ * </p>
+ * <p>
+ * Making room never holds the lock of a cache while evicting from another, so caches sharing a
+ * budget can't deadlock. Meanwhile, the total may exceed the capacity by the entries stored
+ * concurrently.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see AbstractFileSystemCache#setMemoryBudget(MemoryBudget)
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public final class MemoryBudget {
+
+    private final long capacity;
+    private final AtomicLong usage = new AtomicLong();
+    private final Set<AbstractFileSystemCache<?>> caches = ConcurrentHashMap.newKeySet();
+
+    /*
+     * Held by the thread making room, others carry on storing meanwhile
+     */
+    private final ReentrantLock reclaimLock = new ReentrantLock();
+
+    /**
+     * <p>
+     * Creates a budget of the given capacity.
+     * </p>
+     * 
+     * @param capacity
+     *            the total weight the caches may hold, in bytes
+     */
+    public MemoryBudget(Long capacity) {
+	Assert.assertNotNull(capacity, "Can't accept null as capacity.");
+	Assert.assertTrue(capacity > 0L, "Capacity must be a positive number.");
+	this.capacity = capacity;
+    }
+
+    void register(AbstractFileSystemCache<?> cache) {
+	caches.add(cache);
+    }
+
+    void add(long weight) {
+	usage.addAndGet(weight);
+    }
+
+    boolean isExceeded() {
+	return usage.get() > capacity;
+    }
+
+    /*
+     * Evicts from the heaviest caches until the usage fits the capacity, unless another thread is
+     * at it already. Must be invoked holding no lock of a cache
+     */
+    void reclaim() {
+	while (this.isExceeded() && reclaimLock.tryLock()) {
+	    try {
+		if (!this.evictHeaviest())
+		    return; // Nothing left to evict
+	    } finally {
+		reclaimLock.unlock();
+	    }
+	}
+    }
+
+    private boolean evictHeaviest() {
+	AbstractFileSystemCache<?> heaviest = null;
+	long heaviestWeight = 0L;
+	for (AbstractFileSystemCache<?> cache : caches) {
+	    long weight = cache.getWeight();
+	    if (weight > heaviestWeight) {
+		heaviest = cache;
+		heaviestWeight = weight;
+	    }
+	}
+	long excess = usage.get() - capacity;
+	return excess <= 0L || (heaviest != null && heaviest.shrink(excess) > 0L);
+    }
+
+    /**
+     * <p>
+     * Returns the capacity of the budget.
+     * </p>
+     * 
+     * @return the capacity in bytes
+     */
+    public long getCapacity() {
+	return this.capacity;
+    }
+
+    /**
+     * <p>
+     * Returns the total weight of the entries held by the caches sharing the budget.
+     * </p>
+     * 
+     * @return the usage in bytes
+     */
+    public long getUsage() {
+	return this.usage.get();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.core;
+
+import static org.springframework.security.core.SpringSecurityCoreVersion.SERIAL_VERSION_UID;
+
+import java.io.IOException;
+
+import net.itrixlabs.cache.config.Key;
+import net.itrixlabs.cache.serializer.CacheSerializer;
+
+/**
+ * <p>
+ * Entry whose value lives serialized in a <code>SlabAllocator</code>, off the heap. The value is
+ * decoded on every read; once the entry is removed from the cache (and its slot freed), it reads
+ * as <code>null</code>.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see SlabAllocator
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+final class OffHeapEntry<V> extends CacheEntry<V> {
+
+    private static final long serialVersionUID = SERIAL_VERSION_UID;
+
+    private final transient SlabAllocator slabs;
+    private final transient CacheSerializer serializer;
+    private final long handle;
+
+    OffHeapEntry(Key key, long expirationTime, long timeToLive, SlabAllocator slabs,
+	    CacheSerializer serializer, long handle) {
+	super(key, null, expirationTime, timeToLive);
+	this.slabs = slabs;
+	this.serializer = serializer;
+	this.handle = handle;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getValue() {
+	byte[] bytes = slabs.read(handle);
+	if (bytes == null)
+	    return null;
+	try {
+	    return (V) serializer.deserialize(bytes);
+	} catch (IOException | ClassNotFoundException e) {
+	    throw new IllegalStateException("Off-heap value of " + getKey().getKey()
+		    + " can't be deserialized.", e);
+	}
+    }
+
+    /*
+     * The slabs don't serialize along, so the entry is written holding its value
+     */
+    private Object writeReplace() {
+	return new CacheEntry<>(getKey(), getValue(), getExpirationTime(), getTimeToLive());
+    }
+
+    /**
+     * Frees the slot holding the value, once the entry left the cache.
+     */
+    void free() {
+	slabs.free(handle);
+    }
+}
\ No newline at end of file
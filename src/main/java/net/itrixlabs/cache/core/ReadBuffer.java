@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.core;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * Lossy buffer of the reads of cache entries, for recording them in an <code>EvictionPolicy</code>
+ * later on, in batches. The buffer is striped by thread, each stripe being a small ring which a
+ * reader claims a slot of with a single compare-and-set. A reader never waits: once its stripe is
+ * full, or when the slot is contended, the read is dropped. Policies only need an approximate
+ * picture of the access order, so a dropped read costs little, while readers never serialize on the
+ * lock of the policy.
+ * </p>
+ * <p>
+ * Offering is thread-safe; draining must be serialized by the owner (the lock of a cache segment).
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see AbstractFileSystemCache
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+final class ReadBuffer<E> {
+
+    static final int STRIPES = 4;
+    static final int STRIPE_SIZE = 16;
+
+    private static final int SPREAD = 0x9E3779B9;
+
+    private final AtomicReferenceArray<E> slots = new AtomicReferenceArray<>(STRIPES * STRIPE_SIZE);
+
+    /*
+     * Slots written (claimed) & read so far per stripe
+     */
+    private final AtomicLongArray writes = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray reads = new AtomicLongArray(STRIPES);
+
+    /**
+     * Records the element unless its stripe is full or contended. Returns true once the stripe is
+     * full, telling the caller to drain the buffer.
+     */
+    boolean offer(E element) {
+	int stripe = (Long.hashCode(Thread.currentThread().getId()) * SPREAD) >>> 30;
+	long tail = writes.get(stripe);
+	if (tail - reads.get(stripe) >= STRIPE_SIZE)
+	    return true;
+	if (writes.compareAndSet(stripe, tail, tail + 1L)) {
+	    slots.lazySet(index(stripe, tail), element);
+	    return tail + 1L - reads.get(stripe) >= STRIPE_SIZE;
+	}
+	return false;
+    }
+
+    /**
+     * Hands over the elements recorded so far, returning their number.
+     */
+    int drainTo(Consumer<? super E> consumer) {
+	int drained = 0;
+	for (int stripe = 0; stripe < STRIPES; stripe++) {
+	    long head = reads.get(stripe);
+	    long tail = writes.get(stripe);
+	    for (; head < tail; head++) {
+		int index = index(stripe, head);
+		E element = slots.get(index);
+		if (element == null)
+		    break; // Claimed but not written yet, left for the next drain
+		slots.lazySet(index, null);
+		consumer.accept(element);
+		drained++;
+	    }
+	    reads.lazySet(stripe, head);
+	}
+	return drained;
+    }
+
+    private static int index(int stripe, long count) {
+	return stripe * STRIPE_SIZE + (int) (count & (STRIPE_SIZE - 1));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.core;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * <p>
+ * Slab allocator storing byte arrays in direct (off-heap) memory. Memory is carved into 1 MiB
+ * pages, allocated on demand up to the capacity. Each page is dedicated to a size class (powers of
+ * two from 64 bytes to a full page) and split into slots of that size, so allocating &amp; freeing
+ * is a push or pop of a free list. Once assigned, a page keeps its size class.
+ * </p>
+ * <p>
+ * Every slot starts with a generation, bumped whenever the slot is freed and also encoded in the
+ * handle returned on allocation. A stale handle (of a freed slot, possibly reused since) therefore
+ * reads nothing rather than someone else's bytes. Reads are optimistic and never block each other;
+ * allocating &amp; freeing take the write lock.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see AbstractFileSystemCache#setOffHeapCapacity(Long)
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+final class SlabAllocator {
+
+    static final int PAGE_SIZE = 1 << 20;
+
+    private static final int HEADER_SIZE = 8;
+    private static final int MIN_SLOT_SHIFT = 6;
+    private static final int CLASSES = 20 - MIN_SLOT_SHIFT + 1;
+
+    /*
+     * Handle layout: 28 bits of generation, 16 bits of page index, 20 bits of offset in the page
+     */
+    private static final int OFFSET_BITS = 20;
+    private static final int PAGE_BITS = 16;
+    private static final int GENERATION_MASK = (1 << 28) - 1;
+    static final int MAX_PAGES = 1 << PAGE_BITS;
+
+    private final StampedLock lock = new StampedLock();
+    private final ByteBuffer[] pages;
+    private final int[] pageClasses;
+    private final long[][] freeSlots = new long[CLASSES][];
+    private final int[] freeCounts = new int[CLASSES];
+    private int pageCount;
+    private volatile long usedBytes;
+
+    SlabAllocator(long capacity) {
+	int pageLimit = (int) Math.min(Math.max(capacity / PAGE_SIZE, 1L), MAX_PAGES);
+	this.pages = new ByteBuffer[pageLimit];
+	this.pageClasses = new int[pageLimit];
+	for (int i = 0; i < CLASSES; i++)
+	    freeSlots[i] = new long[16];
+    }
+
+    /**
+     * Copies the bytes into a free slot, returning its handle or -1 if no slot is left.
+     */
+    long allocate(byte[] bytes) {
+	if (bytes.length > PAGE_SIZE - HEADER_SIZE)
+	    return -1L;
+	int sizeClass = sizeClass(bytes.length + HEADER_SIZE);
+	long stamp = lock.writeLock();
+	try {
+	    if (freeCounts[sizeClass] == 0 && !this.addPage(sizeClass))
+		return -1L;
+	    long slot = freeSlots[sizeClass][--freeCounts[sizeClass]];
+	    int page = (int) (slot >>> OFFSET_BITS);
+	    int offset = (int) (slot & (PAGE_SIZE - 1));
+	    ByteBuffer buffer = pages[page];
+	    int generation = buffer.getInt(offset);
+	    buffer.putInt(offset + 4, bytes.length);
+	    ByteBuffer target = buffer.duplicate();
+	    target.position(offset + HEADER_SIZE);
+	    target.put(bytes);
+	    usedBytes += slotSize(sizeClass);
+	    return ((long) generation << (PAGE_BITS + OFFSET_BITS)) | slot;
+	} finally {
+	    lock.unlockWrite(stamp);
+	}
+    }
+
+    /**
+     * Returns a copy of the bytes stored under the handle, or null if the slot was freed.
+     */
+    byte[] read(long handle) {
+	long stamp = lock.tryOptimisticRead();
+	if (stamp != 0L) {
+	    byte[] bytes;
+	    try {
+		bytes = this.copy(handle);
+	    } catch (RuntimeException e) { // Raced with a writer, validation fails below
+		bytes = null;
+	    }
+	    if (lock.validate(stamp))
+		return bytes;
+	}
+	stamp = lock.readLock();
+	try {
+	    return this.copy(handle);
+	} finally {
+	    lock.unlockRead(stamp);
+	}
+    }
+
+    /**
+     * Frees the slot of the handle, unless freed already.
+     */
+    void free(long handle) {
+	long stamp = lock.writeLock();
+	try {
+	    ByteBuffer buffer = pages[page(handle)];
+	    int offset = offset(handle);
+	    int generation = generation(handle);
+	    if (buffer.getInt(offset) != generation)
+		return;
+	    buffer.putInt(offset, (generation + 1) & GENERATION_MASK);
+	    int sizeClass = pageClasses[page(handle)];
+	    this.push(sizeClass, handle & ((1L << (PAGE_BITS + OFFSET_BITS)) - 1));
+	    usedBytes -= slotSize(sizeClass);
+	} finally {
+	    lock.unlockWrite(stamp);
+	}
+    }
+
+    /**
+     * Returns the number of bytes taken by the allocated slots.
+     */
+    long getUsedBytes() {
+	return usedBytes;
+    }
+
+    private byte[] copy(long handle) {
+	int page = page(handle);
+	ByteBuffer buffer = pages[page];
+	int offset = offset(handle);
+	if (buffer == null || buffer.getInt(offset) != generation(handle))
+	    return null;
+	int length = buffer.getInt(offset + 4);
+	if (length < 0 || length > slotSize(pageClasses[page]) - HEADER_SIZE)
+	    return null;
+	byte[] bytes = new byte[length];
+	ByteBuffer source = buffer.duplicate();
+	source.position(offset + HEADER_SIZE);
+	source.get(bytes);
+	return bytes;
+    }
+
+    /*
+     * Must be invoked holding the write lock
+     */
+    private boolean addPage(int sizeClass) {
+	if (pageCount == pages.length)
+	    return false;
+	int page = pageCount++;
+	pages[page] = ByteBuffer.allocateDirect(PAGE_SIZE);
+	pageClasses[page] = sizeClass;
+	int slotSize = slotSize(sizeClass);
+	for (int offset = PAGE_SIZE - slotSize; offset >= 0; offset -= slotSize)
+	    this.push(sizeClass, ((long) page << OFFSET_BITS) | offset);
+	return true;
+    }
+
+    private void push(int sizeClass, long slot) {
+	long[] slots = freeSlots[sizeClass];
+	if (freeCounts[sizeClass] == slots.length) {
+	    long[] grown = new long[slots.length << 1];
+	    System.arraycopy(slots, 0, grown, 0, slots.length);
+	    freeSlots[sizeClass] = slots = grown;
+	}
+	slots[freeCounts[sizeClass]++] = slot;
+    }
+
+    private static int sizeClass(int size) {
+	int shift = 32 - Integer.numberOfLeadingZeros(size - 1);
+	return Math.max(shift, MIN_SLOT_SHIFT) - MIN_SLOT_SHIFT;
+    }
+
+    private static int slotSize(int sizeClass) {
+	return 1 << (sizeClass + MIN_SLOT_SHIFT);
+    }
+
+    private static int page(long handle) {
+	return (int) (handle >>> OFFSET_BITS) & (MAX_PAGES - 1);
+    }
+
+    private static int offset(long handle) {
+	return (int) (handle & (PAGE_SIZE - 1));
+    }
+
+    private static int generation(long handle) {
+	return (int) (handle >>> (PAGE_BITS + OFFSET_BITS));
+    }
+}
\ No newline at end of file
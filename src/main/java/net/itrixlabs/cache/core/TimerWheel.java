@@ -0,0 +1,179 @@
+/*
+ * Copyright 2017 Ben Manes. All Rights Reserved.
+ * Modifications Copyright (c) 2026. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.core;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.function.Consumer;
+
+/**
+ * <p>
+ * Hierarchical timer wheel indexing cache entries by their expiration time. Each level is an array
+ * of buckets (doubly-linked lists threaded through the entries) spanning a power of two number of
+ * millis: roughly a second, a minute, an hour and a day, with an overflow bucket for anything
+ * beyond six days. Scheduling &amp; descheduling is constant time. Advancing the wheel only visits
+ * the buckets whose time has passed; entries found there either expire or cascade down into a
+ * finer bucket. So the cost of a sweep is proportional to the number of entries which actually
+ * expire rather than the size of the cache.
+ * </p>
+ * <p>
+ * Not thread-safe, the owning cache guards it with its eviction lock.
+ * </p>
+ * <p>
+ * Derived from the <code>TimerWheel</code> of Caffeine
+ * (<a href="https://github.com/ben-manes/caffeine">https://github.com/ben-manes/caffeine</a>),
+ * licensed under the Apache License, Version 2.0; see the NOTICE file.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see AbstractFileSystemCache
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+final class TimerWheel<V> {
+
+    private static final int[] BUCKETS = { 64, 64, 32, 4, 1 };
+
+    //@formatter:off
+    private static final long[] SPANS = {
+	    ceilingPowerOfTwo(SECONDS.toMillis(1)), // 1.02s
+	    ceilingPowerOfTwo(MINUTES.toMillis(1)), // 1.09m
+	    ceilingPowerOfTwo(HOURS.toMillis(1)), // 1.17h
+	    ceilingPowerOfTwo(DAYS.toMillis(1)), // 1.55d
+	    BUCKETS[3] * ceilingPowerOfTwo(DAYS.toMillis(1)), // 6.2d
+	    BUCKETS[3] * ceilingPowerOfTwo(DAYS.toMillis(1)), // 6.2d
+    };
+    //@formatter:on
+
+    private static final long[] SHIFT = new long[BUCKETS.length];
+
+    static {
+	for (int i = 0; i < SHIFT.length; i++)
+	    SHIFT[i] = Long.numberOfTrailingZeros(SPANS[i]);
+    }
+
+    private final CacheEntry<V>[][] wheel;
+    private long time;
+
+    @SuppressWarnings("unchecked")
+    TimerWheel(long time) {
+	this.time = time;
+	this.wheel = new CacheEntry[BUCKETS.length][];
+	for (int i = 0; i < wheel.length; i++) {
+	    wheel[i] = new CacheEntry[BUCKETS[i]];
+	    for (int j = 0; j < wheel[i].length; j++) {
+		CacheEntry<V> sentinel = new CacheEntry<>(null, null, Long.MAX_VALUE);
+		sentinel.previousInTimer = sentinel;
+		sentinel.nextInTimer = sentinel;
+		wheel[i][j] = sentinel;
+	    }
+	}
+    }
+
+    /**
+     * Advances the wheel to the given time, handing over the entries which expired by then.
+     */
+    void advance(long currentTime, Consumer<CacheEntry<V>> expired) {
+	long previousTime = time;
+	time = currentTime;
+	for (int i = 0; i < SHIFT.length; i++) {
+	    long previousTicks = previousTime >>> SHIFT[i];
+	    long currentTicks = currentTime >>> SHIFT[i];
+	    if ((currentTicks - previousTicks) <= 0L)
+		break;
+	    expire(i, previousTicks, currentTicks, expired);
+	}
+    }
+
+    /**
+     * Schedules the entry into the bucket matching its expiration time.
+     */
+    void schedule(CacheEntry<V> entry) {
+	CacheEntry<V> sentinel = findBucket(Math.max(entry.getExpirationTime(), time));
+	entry.previousInTimer = sentinel.previousInTimer;
+	entry.nextInTimer = sentinel;
+	sentinel.previousInTimer.nextInTimer = entry;
+	sentinel.previousInTimer = entry;
+    }
+
+    /**
+     * Moves an already scheduled entry after its expiration time changed.
+     */
+    void reschedule(CacheEntry<V> entry) {
+	if (entry.nextInTimer != null) {
+	    deschedule(entry);
+	    schedule(entry);
+	}
+    }
+
+    /**
+     * Removes the entry from the wheel, if scheduled.
+     */
+    void deschedule(CacheEntry<V> entry) {
+	if (entry.nextInTimer != null) {
+	    entry.nextInTimer.previousInTimer = entry.previousInTimer;
+	    entry.previousInTimer.nextInTimer = entry.nextInTimer;
+	    entry.nextInTimer = null;
+	    entry.previousInTimer = null;
+	}
+    }
+
+    private void expire(int index, long previousTicks, long currentTicks,
+	    Consumer<CacheEntry<V>> expired) {
+	CacheEntry<V>[] timerWheel = wheel[index];
+	int mask = timerWheel.length - 1;
+	int steps = (int) Math.min(1L + (currentTicks - previousTicks), timerWheel.length);
+	int start = (int) (previousTicks & mask);
+	int end = start + steps;
+	for (int i = start; i < end; i++) {
+	    CacheEntry<V> sentinel = timerWheel[i & mask];
+	    CacheEntry<V> entry = sentinel.nextInTimer;
+	    sentinel.previousInTimer = sentinel;
+	    sentinel.nextInTimer = sentinel;
+	    while (entry != sentinel) {
+		CacheEntry<V> next = entry.nextInTimer;
+		entry.previousInTimer = null;
+		entry.nextInTimer = null;
+		if (entry.getExpirationTime() > time)
+		    schedule(entry);
+		else
+		    expired.accept(entry);
+		entry = next;
+	    }
+	}
+    }
+
+    private CacheEntry<V> findBucket(long expirationTime) {
+	long duration = expirationTime - time;
+	int length = wheel.length - 1;
+	for (int i = 0; i < length; i++) {
+	    if (duration < SPANS[i + 1]) {
+		long ticks = (expirationTime >>> SHIFT[i]);
+		int index = (int) (ticks & (wheel[i].length - 1));
+		return wheel[i][index];
+	    }
+	}
+	return wheel[length][0];
+    }
+
+    private static long ceilingPowerOfTwo(long x) {
+	return 1L << -Long.numberOfLeadingZeros(x - 1);
+    }
+}
\ No newline at end of file
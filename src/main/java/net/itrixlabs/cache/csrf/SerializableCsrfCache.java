@@ -25,6 +25,11 @@ import net.itrixlabs.cache.core.AbstractFileSystemCache;
  * <p>
  * Efficient implementation of <code>ApplicationCache</code> for CSRF Filters.
  * </p>
+ * <p>
+ * A token is stored on nearly every form render and evicted on every submit. Under heavy load,
+ * split the cache with {@link #setSegments(Integer)} (along with an eviction policy factory if it
+ * is bounded), so that writers of distinct tokens don't contend.
+ * </p>
  * 
  * @author Abhinav Rai
  * @since November 11<sup>th</sup>, 2015
@@ -63,16 +68,16 @@ public class SerializableCsrfCache<V> extends AbstractFileSystemCache<V> {
 
     @Override
     public V getFromCache(Object key) {
-	return super.cache.get(super.generate(key));
+	return super.lookup(key);
     }
 
     @Override
     public void putInCache(Object key, V entry) {
-	super.cache.putIfAbsent(super.generate(key), entry);
+	super.store(key, entry);
     }
 
     @Override
     public void evictFromCache(Object key) {
-	super.cache.remove(super.generate(key));
+	super.invalidate(key);
     }
 }
\ No newline at end of file
@@ -70,16 +70,16 @@ public class SerializableGenericCache<V> extends AbstractFileSystemCache<V> {
 
 	@Override
 	public V getFromCache(Object key) {
-		return super.cache.get(super.generate(key));
+		return super.lookup(key);
 	}
 
 	@Override
 	public void putInCache(Object key, V entry) {
-		super.cache.putIfAbsent(super.generate(key), entry);
+		super.store(key, entry);
 	}
 
 	@Override
 	public void evictFromCache(Object key) {
-		super.cache.remove(super.generate(key));
+		super.invalidate(key);
 	}
 }
\ No newline at end of file
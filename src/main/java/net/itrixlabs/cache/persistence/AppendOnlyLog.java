@@ -0,0 +1,654 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.persistence;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.itrixlabs.cache.core.CacheEntry;
+import net.itrixlabs.cache.serializer.CacheSerializer;
+
+/**
+ * <p>
+ * Write-ahead log of the mutations of a single cache file. Puts and evictions are queued as they
+ * happen and written by a <code>LogWriter</code> thread in batches, each batch being committed
+ * (flushed &amp; forced to the device) at once. A crash therefore loses at most the batch in
+ * flight, while shutting down only has to drain the queue. A log has a writer of its own unless
+ * given one shared with other logs.
+ * </p>
+ * <p>
+ * Each record is framed with its length and a CRC32 checksum, so a torn write at the tail of the
+ * log is detected and cut off on replay, while a damaged record elsewhere is skipped. Once the
+ * log holds more records than live entries (and at least the compaction threshold), it is
+ * compacted: the live entries are written to a binary <code>Snapshot</code> which atomically
+ * replaces the previous one, and the log starts over. Replay loads the snapshot first, then the
+ * log on top of it.
+ * </p>
+ * <p>
+ * The snapshot may be ahead of the log it replaces (as the entries keep changing while it is
+ * written), so both carry a generation, bumped by every compaction: the snapshot in its footer,
+ * the log in a header written as it starts over. Should a crash happen between replacing the
+ * snapshot and starting the log over, the log left behind belongs to an older generation and is
+ * discarded on replay rather than replayed on top of the newer snapshot. A log written before logs
+ * had a header counts as generation 0.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see ReplayHandler
+ * @see LogWriter
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public class AppendOnlyLog implements Closeable {
+
+    private static final Log logger = LogFactory.getLog(AppendOnlyLog.class);
+
+    /**
+     * Default number of records committed at once.
+     */
+    public static final int DEFAULT_BATCH_SIZE = LogWriter.DEFAULT_BATCH_SIZE;
+
+    /**
+     * Default number of records appended before a compaction is considered.
+     */
+    public static final long DEFAULT_COMPACTION_THRESHOLD = 10000L;
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final byte COMPACT = 3;
+    private static final byte CLOSE = 4;
+    static final byte STOP = 5;
+    private static final byte EXPIRING_PUT = 6;
+
+    private static final int MAX_RECORD_LENGTH = 64 * 1024 * 1024;
+    private static final int MAGIC = 0xA0C51061; // Negative, so never read as a record length
+    private static final int HEADER_LENGTH = 12;
+
+    private final File file;
+    private final File snapshot;
+    private final CacheSerializer serializer;
+    private final LogWriter writer;
+    private final boolean ownsWriter;
+    private final long compactionThreshold;
+
+    private Collection<? extends CacheEntry<?>> entries;
+    private boolean open;
+    private boolean stale;
+    private long generation;
+
+    /*
+     * Puts & removals queued but not written yet, and whether one was dropped on a full queue (as
+     * are all the later ones, until the log is compacted)
+     */
+    private final AtomicLong pending = new AtomicLong();
+    private volatile boolean overflowed;
+
+    /*
+     * Only accessed by the writer thread
+     */
+    private FileOutputStream stream;
+    private DataOutputStream out;
+    private long appended;
+    private boolean closed;
+
+    /**
+     * <p>
+     * Constructs an <code>AppendOnlyLog</code> with default batch size and compaction threshold.
+     * </p>
+     * 
+     * @param file
+     *            the log file
+     * @param snapshot
+     *            the snapshot file written on compaction
+     * @param serializer
+     *            the serializer for identifiers &amp; values
+     */
+    public AppendOnlyLog(File file, File snapshot, CacheSerializer serializer) {
+	this(file, snapshot, serializer, DEFAULT_BATCH_SIZE, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * <p>
+     * Constructs an <code>AppendOnlyLog</code>.
+     * </p>
+     * 
+     * @param file
+     *            the log file
+     * @param snapshot
+     *            the snapshot file written on compaction
+     * @param serializer
+     *            the serializer for identifiers &amp; values
+     * @param batchSize
+     *            the maximum number of records committed at once
+     * @param compactionThreshold
+     *            the number of records appended before a compaction is considered
+     */
+    public AppendOnlyLog(File file, File snapshot, CacheSerializer serializer, int batchSize,
+	    long compactionThreshold) {
+	this(file, snapshot, serializer,
+		new LogWriter("cache-manager-log-" + file.getName(), batchSize), true,
+		compactionThreshold);
+    }
+
+    /**
+     * <p>
+     * Constructs an <code>AppendOnlyLog</code> written by the given (possibly shared) writer, with
+     * the default compaction threshold. Closing the log doesn't close the writer.
+     * </p>
+     * 
+     * @param file
+     *            the log file
+     * @param snapshot
+     *            the snapshot file written on compaction
+     * @param serializer
+     *            the serializer for identifiers &amp; values
+     * @param writer
+     *            the writer of the log
+     */
+    public AppendOnlyLog(File file, File snapshot, CacheSerializer serializer, LogWriter writer) {
+	this(file, snapshot, serializer, writer, false, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    private AppendOnlyLog(File file, File snapshot, CacheSerializer serializer, LogWriter writer,
+	    boolean ownsWriter, long compactionThreshold) {
+	this.file = file;
+	this.snapshot = snapshot;
+	this.serializer = serializer;
+	this.writer = writer;
+	this.ownsWriter = ownsWriter;
+	this.compactionThreshold = compactionThreshold;
+    }
+
+    /**
+     * <p>
+     * Loads the snapshot and replays the log (if present) in order. A record which is damaged
+     * (its checksum doesn't match, or its length is corrupt) is reported and skipped up to the
+     * next intact record, and one which can't be decoded is reported and skipped; the records
+     * following it are still replayed. Past the last intact record, a record cut short by a torn
+     * write is cut off, so that appending can resume after the last complete record. Any other
+     * unreadable remainder is moved to a side file (named after the log, with its offset &amp; a
+     * <code>.damaged</code> suffix) rather than discarded. The entries of the snapshot are
+     * restored concurrently, the mutations of the log one by one.
+     * </p>
+     * 
+     * @param handler
+     *            the handler receiving the mutations
+     * @return the number of entries &amp; records replayed
+     * @throws IOException
+     *             if the log or the snapshot can't be read
+     * @throws ClassNotFoundException
+     *             if a value of the snapshot has a class which is no longer available
+     */
+    public long replay(ReplayHandler handler) throws IOException, ClassNotFoundException {
+	long count = Snapshot.read(snapshot, serializer, handler);
+	if (!file.exists())
+	    return count;
+	ByteBuffer log;
+	try (FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+	    if (channel.size() > Integer.MAX_VALUE)
+		throw new IOException(file + " is too large to be replayed.");
+	    log = channel.map(READ_ONLY, 0L, channel.size());
+	}
+	int position = 0;
+	long logGeneration = 0L;
+	if (log.limit() >= 4 && log.getInt(0) == MAGIC) {
+	    if (log.limit() < HEADER_LENGTH) {
+		stale = true; // Torn while starting over, so nothing was appended yet
+		return count;
+	    }
+	    logGeneration = log.getLong(4);
+	    position = HEADER_LENGTH;
+	}
+	long snapshotGeneration = Snapshot.generation(snapshot);
+	generation = Math.max(logGeneration, snapshotGeneration);
+	if (logGeneration < snapshotGeneration) {
+	    logger.warn(file + " predates its snapshot (generation " + logGeneration + " of "
+		    + snapshotGeneration + ") and was discarded.");
+	    stale = true;
+	    return count;
+	}
+	long skipped = 0L;
+	while (position < log.limit()) {
+	    byte[] body = record(log, position);
+	    if (body == null) {
+		int next = resync(log, position + 1);
+		if (next < 0)
+		    break; // Nothing intact past this point
+		logger.warn(file + " has " + (next - position) + " damaged bytes at " + position
+			+ ", which were skipped.");
+		skipped++;
+		position = next;
+		continue;
+	    }
+	    try {
+		this.apply(body, handler);
+		count++;
+	    } catch (IOException | ClassNotFoundException e) {
+		logger.warn("Record at " + file + ":" + position
+			+ " can't be decoded and was skipped: " + e.getMessage());
+		skipped++;
+	    }
+	    position += 8 + body.length;
+	}
+	if (skipped > 0L)
+	    logger.warn(file + " has " + skipped + " unreadable record(s), which were skipped.");
+	if (position < log.limit())
+	    this.cutTail(log, position);
+	return count;
+    }
+
+    /**
+     * <p>
+     * Opens the log for appending and starts the writer thread (unless it runs already). A log
+     * found stale on replay, or empty, starts over with the current generation.
+     * </p>
+     * 
+     * @param entries
+     *            live view of the entries of the cache, used for compaction
+     * @throws IOException
+     *             if the log can't be opened
+     */
+    public synchronized void open(Collection<? extends CacheEntry<?>> entries)
+	    throws IOException {
+	if (open)
+	    return;
+	this.entries = entries;
+	if (!stale && file.length() > 0L) {
+	    generation = Math.max(generation, this.readGeneration());
+	    this.openAppender(true);
+	} else {
+	    generation = Math.max(generation, Snapshot.generation(snapshot));
+	    this.startOver(generation);
+	    stale = false;
+	}
+	this.closed = false;
+	this.open = true;
+	writer.start();
+    }
+
+    /**
+     * <p>
+     * Queues a put, without ever blocking. The value is read right away, as an off-heap value is
+     * freed once its entry leaves the cache. Should the writer fall behind by a full queue, the
+     * mutations of the log are dropped until the ones queued so far are written, and the log is
+     * then compacted from the live entries instead.
+     * </p>
+     * 
+     * @param entry
+     *            the entry which was placed in the cache
+     */
+    public void appendPut(CacheEntry<?> entry) {
+	Object value = entry.getValue();
+	if (value != null) // Unless the entry left the cache already
+	    this.offer(new Mutation(this, PUT, entry, value));
+    }
+
+    /**
+     * <p>
+     * Queues a removal, without ever blocking (see <code>appendPut</code>).
+     * </p>
+     * 
+     * @param entry
+     *            the entry which was removed from the cache
+     */
+    public void appendRemoval(CacheEntry<?> entry) {
+	this.offer(new Mutation(this, REMOVE, entry, null));
+    }
+
+    /**
+     * <p>
+     * Requests a compaction, performed after the mutations queued so far are committed.
+     * </p>
+     * 
+     * @return a future completed once the compaction is done
+     */
+    public CompletableFuture<Void> compact() {
+	Mutation mutation = new Mutation(this, COMPACT, null, null);
+	writer.enqueue(mutation);
+	return mutation.done;
+    }
+
+    /**
+     * <p>
+     * Returns the size of the snapshot file, 0 if none was written yet.
+     * </p>
+     * 
+     * @return the snapshot size in bytes
+     */
+    public long getSnapshotSize() {
+	return snapshot.length();
+    }
+
+    /**
+     * <p>
+     * Commits the queued mutations and closes the log, stopping its writer unless shared.
+     * </p>
+     */
+    @Override
+    public synchronized void close() {
+	if (!open)
+	    return;
+	Mutation mutation = new Mutation(this, CLOSE, null, null);
+	writer.enqueue(mutation);
+	mutation.done.join();
+	if (ownsWriter)
+	    writer.close();
+	open = false;
+    }
+
+    /*
+     * Applies a mutation, on the writer thread
+     */
+    void process(Mutation mutation) {
+	boolean logged = mutation.op == PUT || mutation.op == REMOVE;
+	if (logged)
+	    pending.decrementAndGet();
+	if (closed) {
+	    mutation.done.complete(null);
+	    return;
+	}
+	if (logged)
+	    this.append(mutation);
+	else if (mutation.op == COMPACT) {
+	    this.commit();
+	    this.compactQuietly();
+	    mutation.done.complete(null);
+	} else {
+	    this.commit();
+	    if (overflowed) // Or the dropped mutations are lost
+		this.compactQuietly();
+	    this.closeAppender();
+	    closed = true;
+	    mutation.done.complete(null);
+	}
+    }
+
+    /*
+     * Commits the mutations of a batch, on the writer thread
+     */
+    void endBatch() {
+	if (closed)
+	    return;
+	this.commit();
+	if (appended >= compactionThreshold && appended > entries.size())
+	    this.compactQuietly();
+    }
+
+    /*
+     * Whether the mutations queued before one was dropped are all written, on the writer thread
+     */
+    boolean isCaughtUp() {
+	return pending.get() <= 0L;
+    }
+
+    /*
+     * Resumes queueing mutations after some were dropped, compacting the log so that it holds
+     * them, on the writer thread. Queueing resumes first, so that each mutation is either queued
+     * or already seen by the compaction.
+     */
+    void recover() {
+	overflowed = false;
+	if (closed)
+	    return;
+	this.commit();
+	this.compactQuietly();
+    }
+
+    @Override
+    public String toString() {
+	return file.getPath();
+    }
+
+    private void offer(Mutation mutation) {
+	if (overflowed)
+	    return;
+	pending.incrementAndGet();
+	if (writer.offer(mutation))
+	    return;
+	pending.decrementAndGet();
+	overflowed = true;
+	writer.overflowed(this);
+    }
+
+    private void append(Mutation mutation) {
+	try {
+	    writeRecord(out, this.encode(mutation.op, mutation.entry, mutation.value));
+	    appended++;
+	} catch (IOException e) {
+	    logger.error("Couldn't append to " + file + ": " + e.getMessage());
+	}
+    }
+
+    private void commit() {
+	try {
+	    out.flush();
+	    stream.getChannel().force(false);
+	} catch (IOException e) {
+	    logger.error("Couldn't commit " + file + ": " + e.getMessage());
+	}
+    }
+
+    private void compactQuietly() {
+	try {
+	    this.compact(new File(snapshot.getPath() + ".tmp"));
+	} catch (IOException e) {
+	    logger.error("Couldn't compact " + file + ": " + e.getMessage());
+	}
+    }
+
+    private void compact(File compacted) throws IOException {
+	long next = generation + 1L;
+	Snapshot.write(compacted, entries, serializer, next);
+	Files.move(compacted.toPath(), snapshot.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+	this.closeAppender();
+	this.startOver(next);
+	generation = next;
+	appended = 0L;
+    }
+
+    private void openAppender(boolean append) throws IOException {
+	this.stream = new FileOutputStream(file, append);
+	this.out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+    }
+
+    /*
+     * Truncates the log, leaving only a header with the given generation
+     */
+    private void startOver(long generation) throws IOException {
+	this.openAppender(false);
+	out.writeInt(MAGIC);
+	out.writeLong(generation);
+	out.flush();
+	stream.getChannel().force(false);
+    }
+
+    private long readGeneration() throws IOException {
+	try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+	    return file.length() >= HEADER_LENGTH && in.readInt() == MAGIC ? in.readLong() : 0L;
+	}
+    }
+
+    private void closeAppender() {
+	try {
+	    out.close();
+	} catch (IOException e) {
+	    logger.error("Couldn't close " + file + ": " + e.getMessage());
+	}
+    }
+
+    private static void writeRecord(DataOutputStream out, byte[] body) throws IOException {
+	out.writeInt(body.length);
+	out.writeInt(checksum(body));
+	out.write(body);
+    }
+
+    private byte[] encode(byte op, CacheEntry<?> entry, Object value) throws IOException {
+	ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+	DataOutputStream body = new DataOutputStream(bytes);
+	if (op == PUT && entry.getTimeToLive() != 0L)
+	    op = EXPIRING_PUT;
+	body.writeByte(op);
+	writeBytes(body, serializer.serialize(entry.getKey().getKey()));
+	if (op == PUT || op == EXPIRING_PUT) {
+	    body.writeLong(entry.getKey().getCreationTime());
+	    if (op == EXPIRING_PUT)
+		body.writeLong(entry.getTimeToLive());
+	    writeBytes(body, serializer.serialize(value));
+	}
+	body.flush();
+	return bytes.toByteArray();
+    }
+
+    private void apply(byte[] record, ReplayHandler handler)
+	    throws IOException, ClassNotFoundException {
+	DataInputStream body = new DataInputStream(new ByteArrayInputStream(record));
+	byte op = body.readByte();
+	Object identifier = serializer.deserialize(readBytes(body));
+	if (op == PUT) {
+	    long creationTime = body.readLong();
+	    handler.restore(identifier, creationTime, serializer.deserialize(readBytes(body)));
+	} else if (op == EXPIRING_PUT) {
+	    long creationTime = body.readLong();
+	    long timeToLive = body.readLong();
+	    handler.restore(identifier, creationTime, timeToLive,
+		    serializer.deserialize(readBytes(body)));
+	} else
+	    handler.remove(identifier);
+    }
+
+    /*
+     * Returns the body of the intact record at the position, or null if it is damaged or cut short
+     */
+    private static byte[] record(ByteBuffer log, int position) {
+	if (log.limit() - position < 8)
+	    return null;
+	int length = log.getInt(position);
+	if (length <= 0 || length > MAX_RECORD_LENGTH || length > log.limit() - position - 8)
+	    return null;
+	ByteBuffer body = log.duplicate();
+	body.limit(position + 8 + length).position(position + 8);
+	CRC32 crc = new CRC32();
+	crc.update(body.duplicate());
+	if ((int) crc.getValue() != log.getInt(position + 4))
+	    return null;
+	byte[] bytes = new byte[length];
+	body.get(bytes);
+	return bytes;
+    }
+
+    /*
+     * Returns the position of the next intact record from the given one, or -1 if none
+     */
+    private static int resync(ByteBuffer log, int from) {
+	for (int position = from; position <= log.limit() - 8; position++)
+	    if (record(log, position) != null)
+		return position;
+	return -1;
+    }
+
+    /*
+     * Cuts off the log from the position, past which nothing is intact. A record cut short by the
+     * end of the log (or zeroes) is a torn write, anything else is kept aside
+     */
+    private void cutTail(ByteBuffer log, int position) throws IOException {
+	int remainder = log.limit() - position;
+	int length = remainder < 8 ? 0 : log.getInt(position);
+	boolean torn = remainder < 8
+		|| (length > 0 && length <= MAX_RECORD_LENGTH && length > remainder - 8);
+	for (int i = position; !torn && i < log.limit() && log.get(i) == 0; i++)
+	    torn = i == log.limit() - 1;
+	if (torn)
+	    logger.warn(file + " has a torn tail (last " + remainder
+		    + " bytes). Those bytes are discarded.");
+	else {
+	    File damaged = new File(file.getPath() + "." + position + ".damaged");
+	    ByteBuffer tail = log.duplicate();
+	    tail.position(position);
+	    try (FileChannel channel = FileChannel.open(damaged.toPath(), CREATE, WRITE,
+		    TRUNCATE_EXISTING)) {
+		while (tail.hasRemaining())
+		    channel.write(tail);
+		channel.force(false);
+	    }
+	    logger.warn(file + " has " + remainder + " unreadable bytes at " + position
+		    + ", which were moved to " + damaged + ".");
+	}
+	try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+	    raf.setLength(position);
+	}
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+	out.writeInt(bytes.length);
+	out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+	byte[] bytes = new byte[in.readInt()];
+	in.readFully(bytes);
+	return bytes;
+    }
+
+    static int checksum(byte[] body) {
+	CRC32 crc = new CRC32();
+	crc.update(body, 0, body.length);
+	return (int) crc.getValue();
+    }
+
+    static final class Mutation {
+
+	final AppendOnlyLog log;
+	final byte op;
+	final CacheEntry<?> entry;
+	final Object value;
+	final CompletableFuture<Void> done = new CompletableFuture<>();
+
+	Mutation(AppendOnlyLog log, byte op, CacheEntry<?> entry, Object value) {
+	    this.log = log;
+	    this.op = op;
+	    this.entry = entry;
+	    this.value = value;
+	}
+    }
+}
\ No newline at end of file
@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.persistence;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.itrixlabs.cache.persistence.AppendOnlyLog.Mutation;
+
+/**
+ * <p>
+ * Writer thread of one or more <code>AppendOnlyLog</code>. Mutations of all the logs go through a
+ * single queue and are written in batches, each log touched by a batch being committed once at the
+ * end of it. So a writer can be shared by the caches of an application, giving them a single
+ * persistence pipeline (and thread) rather than one per cache.
+ * </p>
+ * <p>
+ * The thread is started by the first log opened, and runs until the writer is closed. Puts &amp;
+ * removals never block on a full queue: the log which can't queue one drops it (and its later
+ * mutations), and is compacted from its live entries once the mutations it queued before are
+ * written.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see AppendOnlyLog
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public class LogWriter implements Closeable {
+
+    private static final Log logger = LogFactory.getLog(LogWriter.class);
+
+    /**
+     * Default number of records committed at once.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 512;
+
+    private static final int QUEUE_CAPACITY = 64 * 1024;
+
+    private final String name;
+    private final int batchSize;
+    private final BlockingQueue<Mutation> queue = new LinkedBlockingQueue<>(QUEUE_CAPACITY);
+    private final Set<AppendOnlyLog> overflowed = ConcurrentHashMap.newKeySet();
+
+    private Thread writer;
+    private volatile boolean closed;
+
+    /**
+     * <p>
+     * Constructs a <code>LogWriter</code> with the default batch size.
+     * </p>
+     */
+    public LogWriter() {
+	this("cache-manager-log", DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * <p>
+     * Constructs a <code>LogWriter</code>.
+     * </p>
+     * 
+     * @param name
+     *            the name of the writer thread
+     * @param batchSize
+     *            the maximum number of records committed at once
+     */
+    public LogWriter(String name, int batchSize) {
+	this.name = name;
+	this.batchSize = batchSize;
+    }
+
+    synchronized void start() {
+	if (writer != null || closed)
+	    return;
+	writer = new Thread(this::write, name);
+	writer.setDaemon(true);
+	writer.start();
+    }
+
+    /*
+     * Queues a put or removal unless the queue is full, in which case it returns false
+     */
+    boolean offer(Mutation mutation) {
+	if (closed) {
+	    logger.warn(name + " is closed. A mutation of " + mutation.log + " won't be persisted.");
+	    return true;
+	}
+	return queue.offer(mutation);
+    }
+
+    /*
+     * Has a log compacted once the mutations it queued are written, after it dropped one
+     */
+    void overflowed(AppendOnlyLog log) {
+	if (overflowed.add(log))
+	    logger.warn(name + " fell behind by a full queue. Mutations of " + log
+		    + " are dropped until it is compacted.");
+    }
+
+    void enqueue(Mutation mutation) {
+	if (closed) {
+	    logger.warn(name + " is closed. A mutation of " + mutation.log + " won't be persisted.");
+	    mutation.done.complete(null);
+	    return;
+	}
+	try {
+	    queue.put(mutation);
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	    logger.warn("Interrupted while queueing a mutation of " + mutation.log
+		    + ". It won't be persisted.");
+	    mutation.done.complete(null);
+	}
+    }
+
+    /**
+     * <p>
+     * Commits the mutations queued so far and stops the writer thread. Logs should be closed
+     * first; their later mutations aren't persisted.
+     * </p>
+     */
+    @Override
+    public synchronized void close() {
+	if (closed)
+	    return;
+	Mutation stop = new Mutation(null, AppendOnlyLog.STOP, null, null);
+	if (writer != null)
+	    this.enqueue(stop);
+	closed = true;
+	if (writer == null)
+	    return;
+	try {
+	    writer.join();
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	}
+	writer = null;
+    }
+
+    private void write() {
+	List<Mutation> batch = new ArrayList<>(batchSize);
+	Set<AppendOnlyLog> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+	boolean stopped = false;
+	while (!stopped) {
+	    try {
+		batch.add(queue.take());
+	    } catch (InterruptedException e) {
+		break;
+	    }
+	    queue.drainTo(batch, batchSize - 1);
+	    for (Mutation mutation : batch) {
+		if (mutation.op == AppendOnlyLog.STOP) {
+		    stopped = true;
+		    continue;
+		}
+		try {
+		    mutation.log.process(mutation);
+		} catch (RuntimeException e) {
+		    logger.error("Couldn't write a mutation of " + mutation.log, e);
+		    mutation.done.complete(null);
+		}
+		touched.add(mutation.log);
+	    }
+	    batch.clear();
+	    for (AppendOnlyLog log : touched) {
+		try {
+		    log.endBatch();
+		} catch (RuntimeException e) {
+		    logger.error("Couldn't commit " + log, e);
+		}
+	    }
+	    touched.clear();
+	    for (AppendOnlyLog log : overflowed) {
+		if (!log.isCaughtUp() || !overflowed.remove(log))
+		    continue;
+		try {
+		    log.recover();
+		} catch (RuntimeException e) {
+		    logger.error("Couldn't compact " + log, e);
+		}
+	    }
+	}
+    }
+}
\ No newline at end of file
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.persistence;
+
+/**
+ * <p>
+ * Receives the mutations recorded in an <code>AppendOnlyLog</code> while it is replayed, in the
+ * order they happened. The entries of a snapshot are restored concurrently (each identifier once),
+ * so implementations must be thread-safe.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see AppendOnlyLog
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public interface ReplayHandler {
+
+    /**
+     * <p>
+     * Restores an entry, replacing the one present for the identifier (if any).
+     * </p>
+     * 
+     * @param identifier
+     *            the key identifier of the entry
+     * @param creationTime
+     *            the creation time of the entry in millis
+     * @param value
+     *            the cached value
+     */
+    void restore(Object identifier, long creationTime, Object value);
+
+    /**
+     * <p>
+     * Restores an entry stored with a time-to-live of its own. By default, the time-to-live is
+     * ignored.
+     * </p>
+     * 
+     * @param identifier
+     *            the key identifier of the entry
+     * @param creationTime
+     *            the creation time of the entry in millis
+     * @param timeToLive
+     *            the time-to-live of the entry in millis, 0 if it follows the TTL of the cache
+     * @param value
+     *            the cached value
+     */
+    default void restore(Object identifier, long creationTime, long timeToLive, Object value) {
+	this.restore(identifier, creationTime, value);
+    }
+
+    /**
+     * <p>
+     * Removes the entry present for the identifier (if any).
+     * </p>
+     * 
+     * @param identifier
+     *            the key identifier of the entry
+     */
+    void remove(Object identifier);
+}
\ No newline at end of file
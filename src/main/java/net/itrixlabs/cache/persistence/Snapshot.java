@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.persistence;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+import static net.itrixlabs.cache.persistence.AppendOnlyLog.checksum;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import net.itrixlabs.cache.core.CacheEntry;
+import net.itrixlabs.cache.serializer.CacheSerializer;
+
+/**
+ * <p>
+ * Binary snapshot of the entries of a cache, written when its <code>AppendOnlyLog</code> is
+ * compacted. The entries are grouped in chunks of about a megabyte, each carrying a CRC32 checksum,
+ * followed by a table of the chunks and a fixed size footer:
+ * </p>
+ * 
+ * <pre>
+ * chunk*  : (int identifier length, identifier, long creation time, long time-to-live,
+ *            int value length, value)*
+ * table   : (long offset, int length, int entries, int checksum)*
+ * footer  : long generation, long table offset, int chunks, int magic
+ * </pre>
+ * <p>
+ * The time-to-live is 0 for the entries following the TTL of the cache. The generation is the one
+ * of the log started over along with the snapshot, so that an older log is never replayed on top
+ * of it. Snapshots written before entries had a time-to-live of their own (without it), or before
+ * they had a generation (counted as 0), are still read.
+ * </p>
+ * <p>
+ * Reading maps each chunk into memory rather than copying the file onto the heap, and decodes the
+ * chunks in parallel on the common fork-join pool.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see AppendOnlyLog
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+final class Snapshot {
+
+    private static final Log logger = LogFactory.getLog(Snapshot.class);
+
+    private static final int MAGIC = 0x49435333; // ICS3
+    private static final int MAGIC_V2 = 0x49435332; // ICS2, without generation
+    private static final int MAGIC_V1 = 0x49435331; // ICS1, without time-to-live
+    private static final int CHUNK_SIZE = 1 << 20;
+    private static final int CHUNK_ENTRY_LENGTH = 20;
+    private static final int FOOTER_LENGTH = 24;
+    private static final int FOOTER_LENGTH_V2 = 16;
+
+    private Snapshot() {
+	// Static helpers only
+    }
+
+    /**
+     * Writes the entries to the file with the given generation, forcing it to the device before
+     * returning.
+     */
+    static void write(File file, Collection<? extends CacheEntry<?>> entries,
+	    CacheSerializer serializer, long generation) throws IOException {
+	List<Chunk> chunks = new ArrayList<>();
+	try (FileOutputStream stream = new FileOutputStream(file);
+		DataOutputStream out = new DataOutputStream(
+			new BufferedOutputStream(stream, 1 << 16))) {
+	    ByteArrayOutputStream bytes = new ByteArrayOutputStream(CHUNK_SIZE);
+	    DataOutputStream chunk = new DataOutputStream(bytes);
+	    long offset = 0L;
+	    int count = 0;
+	    for (CacheEntry<?> entry : entries) {
+		Object live = entry.getValue();
+		if (live == null) // Left the cache meanwhile, freeing its off-heap value
+		    continue;
+		byte[] identifier;
+		byte[] value;
+		try {
+		    identifier = serializer.serialize(entry.getKey().getKey());
+		    value = serializer.serialize(live);
+		} catch (IOException e) {
+		    logger.warn("Entry " + entry.getKey().getKey() + " isn't persistable: "
+			    + e.getMessage());
+		    continue;
+		}
+		chunk.writeInt(identifier.length);
+		chunk.write(identifier);
+		chunk.writeLong(entry.getKey().getCreationTime());
+		chunk.writeLong(entry.getTimeToLive());
+		chunk.writeInt(value.length);
+		chunk.write(value);
+		if (++count == Integer.MAX_VALUE || bytes.size() >= CHUNK_SIZE) {
+		    offset += writeChunk(out, bytes, count, offset, chunks);
+		    count = 0;
+		}
+	    }
+	    if (count > 0)
+		offset += writeChunk(out, bytes, count, offset, chunks);
+	    for (Chunk written : chunks) {
+		out.writeLong(written.offset);
+		out.writeInt(written.length);
+		out.writeInt(written.count);
+		out.writeInt(written.checksum);
+	    }
+	    out.writeLong(generation);
+	    out.writeLong(offset);
+	    out.writeInt(chunks.size());
+	    out.writeInt(MAGIC);
+	    out.flush();
+	    stream.getChannel().force(false);
+	}
+    }
+
+    /**
+     * Restores the entries of the file (if present) through the handler, invoked concurrently for
+     * distinct identifiers. Returns the number of entries restored.
+     */
+    static long read(File file, CacheSerializer serializer, ReplayHandler handler)
+	    throws IOException, ClassNotFoundException {
+	if (!file.exists())
+	    return 0L;
+	try (FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+	    long size = channel.size();
+	    int magic = magic(channel);
+	    int footerLength = magic == MAGIC ? FOOTER_LENGTH : FOOTER_LENGTH_V2;
+	    if (size < footerLength)
+		throw new IOException(file + " is truncated.");
+	    ByteBuffer footer = channel.map(READ_ONLY, size - 16L, 16L);
+	    long tableOffset = footer.getLong();
+	    int chunks = footer.getInt();
+	    boolean expiring = magic != MAGIC_V1;
+	    if ((magic != MAGIC && magic != MAGIC_V2 && magic != MAGIC_V1) || chunks < 0
+		    || tableOffset + (long) chunks * CHUNK_ENTRY_LENGTH != size - footerLength)
+		throw new IOException(file + " isn't a cache snapshot.");
+	    ByteBuffer table = channel.map(READ_ONLY, tableOffset,
+		    (long) chunks * CHUNK_ENTRY_LENGTH);
+	    List<Callable<Long>> loads = new ArrayList<>(chunks);
+	    for (int i = 0; i < chunks; i++) {
+		long offset = table.getLong();
+		int length = table.getInt();
+		int count = table.getInt();
+		int checksum = table.getInt();
+		if (offset < 0L || length < 0 || offset + length > tableOffset)
+		    throw new IOException(file + " has a corrupt chunk table.");
+		loads.add(() -> load(channel.map(READ_ONLY, offset, length), count, checksum,
+			expiring, serializer, handler));
+	    }
+	    long restored = 0L;
+	    for (Future<Long> load : ForkJoinPool.commonPool().invokeAll(loads))
+		restored += join(load);
+	    return restored;
+	}
+    }
+
+    /**
+     * Returns the generation of the file, 0 if absent or written before snapshots had one.
+     */
+    static long generation(File file) throws IOException {
+	if (!file.exists())
+	    return 0L;
+	try (FileChannel channel = FileChannel.open(file.toPath(), READ)) {
+	    if (channel.size() < FOOTER_LENGTH || magic(channel) != MAGIC)
+		return 0L;
+	    return channel.map(READ_ONLY, channel.size() - FOOTER_LENGTH, 8L).getLong();
+	}
+    }
+
+    private static int magic(FileChannel channel) throws IOException {
+	if (channel.size() < 4L)
+	    return 0;
+	return channel.map(READ_ONLY, channel.size() - 4L, 4L).getInt();
+    }
+
+    private static long writeChunk(DataOutputStream out, ByteArrayOutputStream bytes, int count,
+	    long offset, List<Chunk> chunks) throws IOException {
+	byte[] chunk = bytes.toByteArray();
+	bytes.reset();
+	out.write(chunk);
+	chunks.add(new Chunk(offset, chunk.length, count, checksum(chunk)));
+	return chunk.length;
+    }
+
+    private static long load(ByteBuffer chunk, int count, int checksum, boolean expiring,
+	    CacheSerializer serializer, ReplayHandler handler)
+	    throws IOException, ClassNotFoundException {
+	CRC32 crc = new CRC32();
+	crc.update(chunk.duplicate());
+	if ((int) crc.getValue() != checksum)
+	    throw new IOException("Snapshot chunk checksum mismatch.");
+	try {
+	    for (int i = 0; i < count; i++) {
+		Object identifier = serializer.deserialize(next(chunk));
+		long creationTime = chunk.getLong();
+		long timeToLive = expiring ? chunk.getLong() : 0L;
+		Object value = serializer.deserialize(next(chunk));
+		if (timeToLive == 0L)
+		    handler.restore(identifier, creationTime, value);
+		else
+		    handler.restore(identifier, creationTime, timeToLive, value);
+	    }
+	} catch (BufferUnderflowException | NegativeArraySizeException e) {
+	    throw new IOException("Snapshot chunk is corrupt.");
+	}
+	return count;
+    }
+
+    private static byte[] next(ByteBuffer chunk) {
+	byte[] bytes = new byte[chunk.getInt()];
+	chunk.get(bytes);
+	return bytes;
+    }
+
+    private static long join(Future<Long> load) throws IOException, ClassNotFoundException {
+	try {
+	    return load.get();
+	} catch (InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	    throw new InterruptedIOException("Interrupted while reading a snapshot.");
+	} catch (ExecutionException e) {
+	    Throwable cause = e.getCause();
+	    if (cause instanceof IOException)
+		throw (IOException) cause;
+	    if (cause instanceof ClassNotFoundException)
+		throw (ClassNotFoundException) cause;
+	    if (cause instanceof RuntimeException)
+		throw (RuntimeException) cause;
+	    throw (Error) cause;
+	}
+    }
+
+    private static final class Chunk {
+
+	private final long offset;
+	private final int length;
+	private final int count;
+	private final int checksum;
+
+	private Chunk(long offset, int length, int count, int checksum) {
+	    this.offset = offset;
+	    this.length = length;
+	    this.count = count;
+	    this.checksum = checksum;
+	}
+    }
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.policy;
+
+import net.itrixlabs.cache.core.CacheEntry;
+
+/**
+ * <p>
+ * Contract for deciding which entry leaves a size-bounded cache once it grows beyond its maximum
+ * size. The cache reports every insertion, access and removal of an entry and asks for a victim
+ * whenever it is over capacity.
+ * </p>
+ * <p>
+ * Implementations need not be thread-safe as the cache invokes them under its own eviction lock
+ * (the lock of a segment, for a segmented cache). However, they are stateful, so an instance must
+ * never be shared between caches, nor between the segments of a cache. Entries are compared by
+ * identity; every operation is expected to run in constant time.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see LruEvictionPolicy
+ * @see LfuEvictionPolicy
+ * @see TinyLfuEvictionPolicy
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public interface EvictionPolicy {
+
+    /**
+     * <p>
+     * Sets the maximum number of entries the cache may hold. Invoked before any entry is recorded
+     * and again if the bound changes.
+     * </p>
+     * 
+     * @param maximumSize
+     *            the maximum size of the cache
+     */
+    void setMaximumSize(long maximumSize);
+
+    /**
+     * <p>
+     * Records an entry which was just placed into the cache.
+     * </p>
+     * 
+     * @param entry
+     *            the inserted entry
+     */
+    void recordInsertion(CacheEntry<?> entry);
+
+    /**
+     * <p>
+     * Records a read of an entry present in the cache.
+     * </p>
+     * 
+     * @param entry
+     *            the accessed entry
+     */
+    void recordAccess(CacheEntry<?> entry);
+
+    /**
+     * <p>
+     * Records an entry which left the cache for any reason other than being chosen as a victim
+     * (explicit eviction, expiry etc.). Unknown entries must be ignored.
+     * </p>
+     * 
+     * @param entry
+     *            the removed entry
+     */
+    void recordRemoval(CacheEntry<?> entry);
+
+    /**
+     * <p>
+     * Chooses the entry to evict and stops tracking it. The choice may well be the entry which was
+     * inserted last (i.e. the policy may refuse to admit it).
+     * </p>
+     * 
+     * @return the entry to evict, or <code>null</code> if no entry is tracked
+     */
+    CacheEntry<?> victim();
+}
\ No newline at end of file
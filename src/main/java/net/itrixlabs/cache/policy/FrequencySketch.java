@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015 Ben Manes. All Rights Reserved.
+ * Modifications Copyright (c) 2026. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.policy;
+
+/**
+ * <p>
+ * Count-Min sketch estimating the popularity of keys within a time window. Each key owns four 4-bit
+ * counters (saturating at 15) spread over a table of longs; the estimate is the minimum of the
+ * four. Once the number of increments reaches ten times the maximum size of the cache, all counters
+ * are halved so that stale popularity fades away.
+ * </p>
+ * <p>
+ * Derived from the <code>FrequencySketch</code> of Caffeine
+ * (<a href="https://github.com/ben-manes/caffeine">https://github.com/ben-manes/caffeine</a>),
+ * licensed under the Apache License, Version 2.0; see the NOTICE file.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see TinyLfuEvictionPolicy
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+final class FrequencySketch {
+
+    private static final long[] SEED = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+	    0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final long ONE_MASK = 0x1111111111111111L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int size;
+
+    FrequencySketch(long maximumSize) {
+	int capacity = (int) Math.min(Math.max(maximumSize, 1L), 1 << 30);
+	this.table = new long[Math.max(Integer.highestOneBit(capacity - 1) << 1, 8)];
+	this.tableMask = table.length - 1;
+	this.sampleSize = (capacity > (Integer.MAX_VALUE / 10)) ? Integer.MAX_VALUE : 10 * capacity;
+    }
+
+    /**
+     * Returns the estimated number of occurrences of the key, at most 15.
+     */
+    int frequency(Object key) {
+	int hash = spread(key.hashCode());
+	int start = (hash & 3) << 2;
+	int frequency = Integer.MAX_VALUE;
+	for (int i = 0; i < 4; i++) {
+	    int index = indexOf(hash, i);
+	    int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+	    frequency = Math.min(frequency, count);
+	}
+	return frequency;
+    }
+
+    /**
+     * Increments the popularity of the key, aging all counters once the sample is complete.
+     */
+    void increment(Object key) {
+	int hash = spread(key.hashCode());
+	int start = (hash & 3) << 2;
+	boolean added = false;
+	for (int i = 0; i < 4; i++)
+	    added |= incrementAt(indexOf(hash, i), start + i);
+	if (added && (++size == sampleSize))
+	    reset();
+    }
+
+    private boolean incrementAt(int i, int j) {
+	int offset = j << 2;
+	long mask = (0xfL << offset);
+	if ((table[i] & mask) != mask) {
+	    table[i] += (1L << offset);
+	    return true;
+	}
+	return false;
+    }
+
+    private void reset() {
+	int count = 0;
+	for (int i = 0; i < table.length; i++) {
+	    count += Long.bitCount(table[i] & ONE_MASK);
+	    table[i] = (table[i] >>> 1) & RESET_MASK;
+	}
+	size = (size >>> 1) - (count >>> 2);
+    }
+
+    private int indexOf(int item, int i) {
+	long hash = (item + SEED[i]) * SEED[i];
+	hash += (hash >>> 32);
+	return ((int) hash) & tableMask;
+    }
+
+    private static int spread(int x) {
+	x = ((x >>> 16) ^ x) * 0x45d9f3b;
+	x = ((x >>> 16) ^ x) * 0x45d9f3b;
+	return (x >>> 16) ^ x;
+    }
+}
\ No newline at end of file
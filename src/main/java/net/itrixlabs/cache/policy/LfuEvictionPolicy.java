@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.policy;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import net.itrixlabs.cache.core.CacheEntry;
+
+/**
+ * <p>
+ * Evicts the least frequently used entry (the least recently used one amongst equals). Entries are
+ * kept in a list of frequency buckets ordered by frequency, so every operation is constant time.
+ * </p>
+ * <p>
+ * Frequencies are only counted while an entry is resident and never decay. Prefer
+ * {@link TinyLfuEvictionPolicy} for workloads whose popular keys change over time.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see EvictionPolicy
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public class LfuEvictionPolicy implements EvictionPolicy {
+
+    private final Map<CacheEntry<?>, Bucket> buckets = new HashMap<>();
+
+    /*
+     * Sentinel of the circular bucket list, head.next holds the least frequently used entries
+     */
+    private final Bucket head = new Bucket(0L);
+
+    @Override
+    public void setMaximumSize(long maximumSize) {
+	// Frequency alone decides the victim, the bound is enforced by the cache
+    }
+
+    @Override
+    public void recordInsertion(CacheEntry<?> entry) {
+	Bucket bucket = head.next;
+	if (bucket.frequency != 1L)
+	    bucket = link(head, new Bucket(1L));
+	bucket.entries.add(entry);
+	buckets.put(entry, bucket);
+    }
+
+    @Override
+    public void recordAccess(CacheEntry<?> entry) {
+	Bucket bucket = buckets.get(entry);
+	if (bucket == null)
+	    return;
+	Bucket next = bucket.next;
+	if (next == head || next.frequency != bucket.frequency + 1)
+	    next = link(bucket, new Bucket(bucket.frequency + 1));
+	next.entries.add(entry);
+	buckets.put(entry, next);
+	this.remove(bucket, entry);
+    }
+
+    @Override
+    public void recordRemoval(CacheEntry<?> entry) {
+	Bucket bucket = buckets.remove(entry);
+	if (bucket != null)
+	    this.remove(bucket, entry);
+    }
+
+    @Override
+    public CacheEntry<?> victim() {
+	Bucket bucket = head.next;
+	if (bucket == head)
+	    return null;
+	Iterator<CacheEntry<?>> iter = bucket.entries.iterator();
+	CacheEntry<?> victim = iter.next();
+	buckets.remove(victim);
+	this.remove(bucket, victim);
+	return victim;
+    }
+
+    private void remove(Bucket bucket, CacheEntry<?> entry) {
+	bucket.entries.remove(entry);
+	if (bucket.entries.isEmpty()) {
+	    bucket.prev.next = bucket.next;
+	    bucket.next.prev = bucket.prev;
+	}
+    }
+
+    private Bucket link(Bucket prev, Bucket bucket) {
+	bucket.prev = prev;
+	bucket.next = prev.next;
+	prev.next.prev = bucket;
+	prev.next = bucket;
+	return bucket;
+    }
+
+    private static final class Bucket {
+
+	private final long frequency;
+	private final LinkedHashSet<CacheEntry<?>> entries = new LinkedHashSet<>();
+	private Bucket prev = this;
+	private Bucket next = this;
+
+	private Bucket(long frequency) {
+	    this.frequency = frequency;
+	}
+    }
+}
\ No newline at end of file
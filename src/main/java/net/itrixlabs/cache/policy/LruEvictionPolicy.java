@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.policy;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import net.itrixlabs.cache.core.CacheEntry;
+
+/**
+ * <p>
+ * Evicts the least recently used entry. Backed by an access-ordered <code>LinkedHashMap</code>, so
+ * every operation is constant time.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see EvictionPolicy
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public class LruEvictionPolicy implements EvictionPolicy {
+
+    private final LinkedHashMap<CacheEntry<?>, CacheEntry<?>> entries = new LinkedHashMap<>(16,
+	    0.75f, true);
+
+    @Override
+    public void setMaximumSize(long maximumSize) {
+	// Recency alone decides the victim, the bound is enforced by the cache
+    }
+
+    @Override
+    public void recordInsertion(CacheEntry<?> entry) {
+	entries.put(entry, entry);
+    }
+
+    @Override
+    public void recordAccess(CacheEntry<?> entry) {
+	entries.get(entry);
+    }
+
+    @Override
+    public void recordRemoval(CacheEntry<?> entry) {
+	entries.remove(entry);
+    }
+
+    @Override
+    public CacheEntry<?> victim() {
+	Iterator<CacheEntry<?>> iter = entries.keySet().iterator();
+	if (!iter.hasNext())
+	    return null;
+	CacheEntry<?> victim = iter.next();
+	iter.remove();
+	return victim;
+    }
+}
\ No newline at end of file
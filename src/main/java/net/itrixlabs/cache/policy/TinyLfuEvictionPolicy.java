@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.policy;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+import net.itrixlabs.cache.core.CacheEntry;
+
+/**
+ * <p>
+ * W-TinyLFU styled policy. New entries land in a small LRU admission window (1% of the cache).
+ * Entries overflowing the window become candidates for the main space, a segmented LRU made of a
+ * probation and a protected (80%) segment. When the cache is over capacity, a candidate only
+ * replaces the probation victim if its estimated popularity (tracked by a {@link FrequencySketch}
+ * of the key identifiers, including those no longer resident) is higher. One-hit wonders are
+ * therefore rejected instead of flushing popular entries out of the cache.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see EvictionPolicy
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public class TinyLfuEvictionPolicy implements EvictionPolicy {
+
+    private static final double WINDOW_PERCENT = 0.01d;
+    private static final double PROTECTED_PERCENT = 0.8d;
+
+    private final LinkedHashMap<CacheEntry<?>, CacheEntry<?>> window = accessOrdered();
+    private final LinkedHashMap<CacheEntry<?>, CacheEntry<?>> probation = accessOrdered();
+    private final LinkedHashMap<CacheEntry<?>, CacheEntry<?>> protection = accessOrdered();
+
+    private long maximumSize;
+    private long maximumWindowSize;
+    private long maximumProtectedSize;
+    private FrequencySketch sketch;
+
+    @Override
+    public void setMaximumSize(long maximumSize) {
+	this.maximumSize = maximumSize;
+	this.maximumWindowSize = Math.max(1L, (long) (maximumSize * WINDOW_PERCENT));
+	this.maximumProtectedSize = (long) ((maximumSize - maximumWindowSize) * PROTECTED_PERCENT);
+	this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    @Override
+    public void recordInsertion(CacheEntry<?> entry) {
+	sketch.increment(entry.getKey());
+	window.put(entry, entry);
+	// Spill the window into the main space for as long as there is room left
+	while ((window.size() > maximumWindowSize) && (size() <= maximumSize)) {
+	    CacheEntry<?> candidate = pollEldest(window);
+	    probation.put(candidate, candidate);
+	}
+    }
+
+    @Override
+    public void recordAccess(CacheEntry<?> entry) {
+	sketch.increment(entry.getKey());
+	if (window.get(entry) != null || protection.get(entry) != null)
+	    return;
+	if (probation.remove(entry) != null) {
+	    protection.put(entry, entry);
+	    if (protection.size() > maximumProtectedSize) {
+		CacheEntry<?> demoted = pollEldest(protection);
+		probation.put(demoted, demoted);
+	    }
+	}
+    }
+
+    @Override
+    public void recordRemoval(CacheEntry<?> entry) {
+	if (window.remove(entry) == null && probation.remove(entry) == null)
+	    protection.remove(entry);
+    }
+
+    @Override
+    public CacheEntry<?> victim() {
+	if (window.size() > maximumWindowSize) {
+	    CacheEntry<?> candidate = pollEldest(window);
+	    CacheEntry<?> victim = eldest(probation.isEmpty() ? protection : probation);
+	    if (victim == null)
+		return candidate;
+	    if (sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey())) {
+		this.recordRemoval(victim);
+		probation.put(candidate, candidate);
+		return victim;
+	    }
+	    return candidate;
+	}
+	CacheEntry<?> victim = pollEldest(probation);
+	if (victim == null)
+	    victim = pollEldest(protection);
+	if (victim == null)
+	    victim = pollEldest(window);
+	return victim;
+    }
+
+    private long size() {
+	return (long) window.size() + probation.size() + protection.size();
+    }
+
+    private static CacheEntry<?> eldest(LinkedHashMap<CacheEntry<?>, CacheEntry<?>> segment) {
+	Iterator<CacheEntry<?>> iter = segment.keySet().iterator();
+	return iter.hasNext() ? iter.next() : null;
+    }
+
+    private static CacheEntry<?> pollEldest(LinkedHashMap<CacheEntry<?>, CacheEntry<?>> segment) {
+	Iterator<CacheEntry<?>> iter = segment.keySet().iterator();
+	if (!iter.hasNext())
+	    return null;
+	CacheEntry<?> eldest = iter.next();
+	iter.remove();
+	return eldest;
+    }
+
+    private static LinkedHashMap<CacheEntry<?>, CacheEntry<?>> accessOrdered() {
+	return new LinkedHashMap<>(16, 0.75f, true);
+    }
+}
\ No newline at end of file
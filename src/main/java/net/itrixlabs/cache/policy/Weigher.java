@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.policy;
+
+/**
+ * <p>
+ * Computes the weight of a cache entry, for bounding a cache by the total weight of its entries
+ * rather than their number. Weights are typically estimated sizes in bytes, which suits caches
+ * whose values range from a few bytes to hundreds of kilobytes.
+ * </p>
+ * <p>
+ * An entry is weighed once, when stored, and keeps its weight for as long as it stays in the
+ * cache. Implementations must be thread-safe and cheap, as they run on the threads storing the
+ * entries.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see net.itrixlabs.cache.core.AbstractFileSystemCache#setWeigher(Weigher)
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+@FunctionalInterface
+public interface Weigher<V> {
+
+    /**
+     * <p>
+     * Returns the weight of the entry.
+     * </p>
+     * 
+     * @param identifier
+     *            the identifier of the entry
+     * @param value
+     *            the value of the entry
+     * @return the weight of the entry, never negative
+     */
+    int weigh(Object identifier, V value);
+}
\ No newline at end of file
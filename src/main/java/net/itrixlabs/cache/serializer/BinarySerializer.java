@@ -0,0 +1,404 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.serializer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import net.itrixlabs.cache.util.Assert;
+
+/**
+ * <p>
+ * Compact binary serializer. Each object is written as a tag byte followed by its payload: strings,
+ * byte arrays &amp; boxed primitives have fixed encodings, as do the Spring Security types the
+ * caches usually hold (<code>User</code>, <code>SimpleGrantedAuthority</code> and
+ * <code>UsernamePasswordAuthenticationToken</code>). Any other type is encoded by a
+ * <code>Codec</code> registered for it, or else falls back to Java serialization.
+ * </p>
+ * <p>
+ * Since a codec is looked up by tag rather than by class name, a persisted entry survives changes
+ * to its class as long as the codec still reads what it wrote. Register codecs before the cache is
+ * initialized.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see CacheSerializer
+ * @see Codec
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public class BinarySerializer implements CacheSerializer {
+
+    /**
+     * First tag available to user registered codecs; the lower ones are reserved.
+     */
+    public static final int FIRST_USER_TAG = 64;
+
+    private static final int LAST_TAG = 255;
+
+    private static final int NULL = 0;
+    private static final int STRING = 1;
+    private static final int BYTES = 2;
+    private static final int BOOLEAN = 3;
+    private static final int BYTE = 4;
+    private static final int SHORT = 5;
+    private static final int CHARACTER = 6;
+    private static final int INTEGER = 7;
+    private static final int LONG = 8;
+    private static final int FLOAT = 9;
+    private static final int DOUBLE = 10;
+    private static final int AUTHORITY = 16;
+    private static final int USER = 17;
+    private static final int AUTHENTICATION_TOKEN = 18;
+    private static final int JAVA = 63;
+
+    private final Map<Class<?>, Registration<?>> registrationsByType = new ConcurrentHashMap<>();
+    private final Registration<?>[] registrationsByTag = new Registration<?>[LAST_TAG + 1];
+    private final JavaSerializer fallback = new JavaSerializer();
+
+    /**
+     * <p>
+     * Constructs a <code>BinarySerializer</code> with the built-in codecs.
+     * </p>
+     */
+    public BinarySerializer() {
+	this.registerBuiltIn(AUTHORITY, SimpleGrantedAuthority.class, new AuthorityCodec());
+	this.registerBuiltIn(USER, User.class, new UserCodec());
+	this.registerBuiltIn(AUTHENTICATION_TOKEN, UsernamePasswordAuthenticationToken.class,
+		new AuthenticationTokenCodec());
+    }
+
+    /**
+     * <p>
+     * Registers a codec for the given type (exact class, not its sub-classes). The tag is persisted
+     * with every object of the type, so it must never be reused for another type.
+     * </p>
+     * 
+     * @param tag
+     *            the tag identifying the type, from {@link #FIRST_USER_TAG} to 255
+     * @param type
+     *            the type the codec handles
+     * @param codec
+     *            the codec to use
+     */
+    public synchronized <T> void register(int tag, Class<T> type, Codec<T> codec) {
+	Assert.assertTrue(tag >= FIRST_USER_TAG && tag <= LAST_TAG,
+		"Codec tags range from " + FIRST_USER_TAG + " to " + LAST_TAG + ".");
+	this.registerBuiltIn(tag, type, codec);
+    }
+
+    private synchronized <T> void registerBuiltIn(int tag, Class<T> type, Codec<T> codec) {
+	Assert.assertNotNull(type, "Can't accept null as codec type.");
+	Assert.assertNotNull(codec, "Can't accept null as codec.");
+	Assert.assertTrue(registrationsByTag[tag] == null, "Codec tag " + tag + " is taken.");
+	Registration<T> registration = new Registration<>(tag, type, codec);
+	registrationsByTag[tag] = registration;
+	registrationsByType.put(type, registration);
+    }
+
+    @Override
+    public byte[] serialize(Object object) throws IOException {
+	ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+	DataOutputStream out = new DataOutputStream(bytes);
+	this.write(object, out);
+	out.flush();
+	return bytes.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+	return this.read(new DataInputStream(new ByteArrayInputStream(bytes)));
+    }
+
+    /**
+     * <p>
+     * Writes an object (which may be <code>null</code>) along with its tag. Meant for codecs
+     * writing nested objects.
+     * </p>
+     * 
+     * @param object
+     *            the object to write
+     * @param out
+     *            the output to write to
+     * @throws IOException
+     *             if the object can't be written
+     */
+    public void write(Object object, DataOutput out) throws IOException {
+	if (object == null)
+	    out.writeByte(NULL);
+	else if (object instanceof String) {
+	    out.writeByte(STRING);
+	    writeString((String) object, out);
+	} else if (object instanceof byte[]) {
+	    out.writeByte(BYTES);
+	    writeBytes((byte[]) object, out);
+	} else if (object instanceof Boolean) {
+	    out.writeByte(BOOLEAN);
+	    out.writeBoolean((Boolean) object);
+	} else if (object instanceof Byte) {
+	    out.writeByte(BYTE);
+	    out.writeByte((Byte) object);
+	} else if (object instanceof Short) {
+	    out.writeByte(SHORT);
+	    out.writeShort((Short) object);
+	} else if (object instanceof Character) {
+	    out.writeByte(CHARACTER);
+	    out.writeChar((Character) object);
+	} else if (object instanceof Integer) {
+	    out.writeByte(INTEGER);
+	    out.writeInt((Integer) object);
+	} else if (object instanceof Long) {
+	    out.writeByte(LONG);
+	    out.writeLong((Long) object);
+	} else if (object instanceof Float) {
+	    out.writeByte(FLOAT);
+	    out.writeFloat((Float) object);
+	} else if (object instanceof Double) {
+	    out.writeByte(DOUBLE);
+	    out.writeDouble((Double) object);
+	} else {
+	    Registration<?> registration = registrationsByType.get(object.getClass());
+	    if (registration == null) {
+		out.writeByte(JAVA);
+		writeBytes(fallback.serialize(object), out);
+	    } else {
+		out.writeByte(registration.tag);
+		registration.write(object, out, this);
+	    }
+	}
+    }
+
+    /**
+     * <p>
+     * Reads an object written by {@link #write(Object, DataOutput)}. Meant for codecs reading
+     * nested objects.
+     * </p>
+     * 
+     * @param in
+     *            the input to read from
+     * @return the object read
+     * @throws IOException
+     *             if the input is malformed
+     * @throws ClassNotFoundException
+     *             if the class of a Java serialized object is no longer available
+     */
+    public Object read(DataInput in) throws IOException, ClassNotFoundException {
+	int tag = in.readUnsignedByte();
+	switch (tag) {
+	case NULL:
+	    return null;
+	case STRING:
+	    return readString(in);
+	case BYTES:
+	    return readBytes(in);
+	case BOOLEAN:
+	    return in.readBoolean();
+	case BYTE:
+	    return in.readByte();
+	case SHORT:
+	    return in.readShort();
+	case CHARACTER:
+	    return in.readChar();
+	case INTEGER:
+	    return in.readInt();
+	case LONG:
+	    return in.readLong();
+	case FLOAT:
+	    return in.readFloat();
+	case DOUBLE:
+	    return in.readDouble();
+	case JAVA:
+	    return fallback.deserialize(readBytes(in));
+	default:
+	    Registration<?> registration = registrationsByTag[tag];
+	    if (registration == null)
+		throw new IOException("No codec is registered for tag " + tag + ".");
+	    return registration.codec.read(in, this);
+	}
+    }
+
+    /**
+     * <p>
+     * Writes a string of any length as UTF-8 (unlike <code>DataOutput.writeUTF</code>), without
+     * a tag. The string must not be <code>null</code>.
+     * </p>
+     * 
+     * @param string
+     *            the string to write
+     * @param out
+     *            the output to write to
+     * @throws IOException
+     *             if the string can't be written
+     */
+    public static void writeString(String string, DataOutput out) throws IOException {
+	writeBytes(string.getBytes(UTF_8), out);
+    }
+
+    /**
+     * <p>
+     * Reads a string written by {@link #writeString(String, DataOutput)}.
+     * </p>
+     * 
+     * @param in
+     *            the input to read from
+     * @return the string read
+     * @throws IOException
+     *             if the input is malformed
+     */
+    public static String readString(DataInput in) throws IOException {
+	return new String(readBytes(in), UTF_8);
+    }
+
+    private static void writeBytes(byte[] bytes, DataOutput out) throws IOException {
+	out.writeInt(bytes.length);
+	out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException {
+	int length = in.readInt();
+	if (length < 0)
+	    throw new IOException("Negative length " + length + ".");
+	byte[] bytes = new byte[length];
+	in.readFully(bytes);
+	return bytes;
+    }
+
+    private static void writeAuthorities(Collection<? extends GrantedAuthority> authorities,
+	    DataOutput out, BinarySerializer serializer) throws IOException {
+	out.writeInt(authorities.size());
+	for (GrantedAuthority authority : authorities)
+	    serializer.write(authority, out);
+    }
+
+    private static List<GrantedAuthority> readAuthorities(DataInput in,
+	    BinarySerializer serializer) throws IOException, ClassNotFoundException {
+	int size = in.readInt();
+	List<GrantedAuthority> authorities = new ArrayList<>(Math.max(0, Math.min(size, 64)));
+	for (int i = 0; i < size; i++)
+	    authorities.add((GrantedAuthority) serializer.read(in));
+	return authorities;
+    }
+
+    private static final class Registration<T> {
+
+	private final int tag;
+	private final Class<T> type;
+	private final Codec<T> codec;
+
+	private Registration(int tag, Class<T> type, Codec<T> codec) {
+	    this.tag = tag;
+	    this.type = type;
+	    this.codec = codec;
+	}
+
+	private void write(Object value, DataOutput out, BinarySerializer serializer)
+		throws IOException {
+	    codec.write(type.cast(value), out, serializer);
+	}
+    }
+
+    private static final class AuthorityCodec implements Codec<SimpleGrantedAuthority> {
+
+	@Override
+	public void write(SimpleGrantedAuthority value, DataOutput out,
+		BinarySerializer serializer) throws IOException {
+	    writeString(value.getAuthority(), out);
+	}
+
+	@Override
+	public SimpleGrantedAuthority read(DataInput in, BinarySerializer serializer)
+		throws IOException {
+	    return new SimpleGrantedAuthority(readString(in));
+	}
+    }
+
+    private static final class UserCodec implements Codec<User> {
+
+	@Override
+	public void write(User value, DataOutput out, BinarySerializer serializer)
+		throws IOException {
+	    writeString(value.getUsername(), out);
+	    serializer.write(value.getPassword(), out); // Null once the credentials are erased
+	    out.writeBoolean(value.isEnabled());
+	    out.writeBoolean(value.isAccountNonExpired());
+	    out.writeBoolean(value.isCredentialsNonExpired());
+	    out.writeBoolean(value.isAccountNonLocked());
+	    writeAuthorities(value.getAuthorities(), out, serializer);
+	}
+
+	@Override
+	public User read(DataInput in, BinarySerializer serializer)
+		throws IOException, ClassNotFoundException {
+	    String username = readString(in);
+	    String password = (String) serializer.read(in);
+	    boolean enabled = in.readBoolean();
+	    boolean accountNonExpired = in.readBoolean();
+	    boolean credentialsNonExpired = in.readBoolean();
+	    boolean accountNonLocked = in.readBoolean();
+	    User user = new User(username, password == null ? "" : password, enabled,
+		    accountNonExpired, credentialsNonExpired, accountNonLocked,
+		    readAuthorities(in, serializer));
+	    if (password == null)
+		user.eraseCredentials();
+	    return user;
+	}
+    }
+
+    private static final class AuthenticationTokenCodec
+	    implements Codec<UsernamePasswordAuthenticationToken> {
+
+	@Override
+	public void write(UsernamePasswordAuthenticationToken value, DataOutput out,
+		BinarySerializer serializer) throws IOException {
+	    serializer.write(value.getPrincipal(), out);
+	    serializer.write(value.getCredentials(), out);
+	    writeAuthorities(value.getAuthorities(), out, serializer);
+	    out.writeBoolean(value.isAuthenticated());
+	    serializer.write(value.getDetails(), out);
+	}
+
+	@Override
+	public UsernamePasswordAuthenticationToken read(DataInput in, BinarySerializer serializer)
+		throws IOException, ClassNotFoundException {
+	    Object principal = serializer.read(in);
+	    Object credentials = serializer.read(in);
+	    UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(
+		    principal, credentials, readAuthorities(in, serializer));
+	    if (!in.readBoolean())
+		token.setAuthenticated(false);
+	    token.setDetails(serializer.read(in));
+	    return token;
+	}
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.serializer;
+
+import java.io.IOException;
+
+/**
+ * <p>
+ * Converts the identifiers &amp; values of cache entries to bytes and back, for persisting a cache
+ * to its log and snapshot files. A cache uses one serializer for both, chosen per cache bean.
+ * </p>
+ * <p>
+ * Implementations must be thread-safe, as a snapshot is decoded by several threads at once.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see BinarySerializer
+ * @see JavaSerializer
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public interface CacheSerializer {
+
+    /**
+     * <p>
+     * Serializes the given object (which may be <code>null</code>).
+     * </p>
+     * 
+     * @param object
+     *            the identifier or value to serialize
+     * @return the serialized form
+     * @throws IOException
+     *             if the object can't be serialized
+     */
+    byte[] serialize(Object object) throws IOException;
+
+    /**
+     * <p>
+     * Restores an object serialized by {@link #serialize(Object)}.
+     * </p>
+     * 
+     * @param bytes
+     *            the serialized form
+     * @return the restored object
+     * @throws IOException
+     *             if the bytes are malformed
+     * @throws ClassNotFoundException
+     *             if the class of the object is no longer available
+     */
+    Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException;
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.serializer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * <p>
+ * Binary encoding of a single type, registered with a <code>BinarySerializer</code> under a tag
+ * of its own. Nested objects (of any type) can be written &amp; read through the serializer passed
+ * along.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see BinarySerializer#register(int, Class, Codec)
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public interface Codec<T> {
+
+    /**
+     * <p>
+     * Writes the given value.
+     * </p>
+     * 
+     * @param value
+     *            the value to write, never <code>null</code>
+     * @param out
+     *            the output to write to
+     * @param serializer
+     *            the serializer for nested objects
+     * @throws IOException
+     *             if the value can't be written
+     */
+    void write(T value, DataOutput out, BinarySerializer serializer) throws IOException;
+
+    /**
+     * <p>
+     * Reads a value written by {@link #write(Object, DataOutput, BinarySerializer)}.
+     * </p>
+     * 
+     * @param in
+     *            the input to read from
+     * @param serializer
+     *            the serializer for nested objects
+     * @return the value read
+     * @throws IOException
+     *             if the input is malformed
+     * @throws ClassNotFoundException
+     *             if a nested object's class is no longer available
+     */
+    T read(DataInput in, BinarySerializer serializer) throws IOException, ClassNotFoundException;
+}
\ No newline at end of file
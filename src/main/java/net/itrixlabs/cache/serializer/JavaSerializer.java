@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.serializer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+/**
+ * <p>
+ * Plain Java serialization. Handles any <code>Serializable</code> object, but is bulky and breaks
+ * whenever the class of a persisted object changes incompatibly.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see CacheSerializer
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public class JavaSerializer implements CacheSerializer {
+
+    @Override
+    public byte[] serialize(Object object) throws IOException {
+	ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+	try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+	    out.writeObject(object);
+	}
+	return bytes.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+	try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+	    return in.readObject();
+	}
+    }
+}
\ No newline at end of file
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.stats;
+
+/**
+ * <p>
+ * Management interface of a cache, exposing its statistics (and their recording) over JMX. Times
+ * are in nanoseconds and sizes in bytes.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see CacheMonitor
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public interface CacheMXBean {
+
+    String getType();
+
+    long getSize();
+
+    long getWeight();
+
+    boolean isRecordingStats();
+
+    void setRecordingStats(boolean recordingStats);
+
+    long getHitCount();
+
+    long getMissCount();
+
+    double getHitRate();
+
+    long getLoadSuccessCount();
+
+    long getLoadFailureCount();
+
+    double getAverageLoadPenalty();
+
+    long getEvictionCount();
+
+    long getExpirationCount();
+
+    long getFlushCount();
+
+    long getTotalFlushTime();
+
+    long getSnapshotSize();
+
+    long getOffHeapUsage();
+}
\ No newline at end of file
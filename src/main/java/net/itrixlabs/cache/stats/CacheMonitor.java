@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.stats;
+
+import net.itrixlabs.cache.core.AbstractFileSystemCache;
+
+/**
+ * <p>
+ * <code>CacheMXBean</code> of an <code>AbstractFileSystemCache</code>, as registered by the
+ * <code>SerializableCacheManager</code>. Each attribute is read off the cache when requested.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public class CacheMonitor implements CacheMXBean {
+
+    private final AbstractFileSystemCache<?> cache;
+
+    /**
+     * <p>
+     * Constructs a <code>CacheMonitor</code> for the given cache.
+     * </p>
+     * 
+     * @param cache
+     *            the cache to monitor
+     */
+    public CacheMonitor(AbstractFileSystemCache<?> cache) {
+	this.cache = cache;
+    }
+
+    @Override
+    public String getType() {
+	return cache.getType().toString();
+    }
+
+    @Override
+    public long getSize() {
+	return cache.getSize();
+    }
+
+    @Override
+    public long getWeight() {
+	return cache.getWeight();
+    }
+
+    @Override
+    public boolean isRecordingStats() {
+	return cache.isRecordingStats();
+    }
+
+    @Override
+    public void setRecordingStats(boolean recordingStats) {
+	cache.setRecordStats(recordingStats);
+    }
+
+    @Override
+    public long getHitCount() {
+	return cache.getStats().getHitCount();
+    }
+
+    @Override
+    public long getMissCount() {
+	return cache.getStats().getMissCount();
+    }
+
+    @Override
+    public double getHitRate() {
+	return cache.getStats().getHitRate();
+    }
+
+    @Override
+    public long getLoadSuccessCount() {
+	return cache.getStats().getLoadSuccessCount();
+    }
+
+    @Override
+    public long getLoadFailureCount() {
+	return cache.getStats().getLoadFailureCount();
+    }
+
+    @Override
+    public double getAverageLoadPenalty() {
+	return cache.getStats().getAverageLoadPenalty();
+    }
+
+    @Override
+    public long getEvictionCount() {
+	return cache.getEvictionCount();
+    }
+
+    @Override
+    public long getExpirationCount() {
+	return cache.getExpirationCount();
+    }
+
+    @Override
+    public long getFlushCount() {
+	return cache.getStats().getFlushCount();
+    }
+
+    @Override
+    public long getTotalFlushTime() {
+	return cache.getStats().getTotalFlushTime();
+    }
+
+    @Override
+    public long getSnapshotSize() {
+	return cache.getSnapshotSize();
+    }
+
+    @Override
+    public long getOffHeapUsage() {
+	return cache.getOffHeapUsage();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.stats;
+
+/**
+ * <p>
+ * Named constants describing the operations of a cache whose latencies can be recorded.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see LatencyHistogram
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public enum CacheOperation {
+
+    /**
+     * Represents a read of an entry (e.g. <code>getFromCache</code>).
+     */
+    GET,
+
+    /**
+     * Represents a write of an entry (e.g. <code>putInCache</code>).
+     */
+    PUT,
+
+    /**
+     * Represents a flush of the expired entries.
+     */
+    FLUSH,
+
+    /**
+     * Represents the initialization of a cache, restoring its entries from the file system.
+     */
+    INITIALIZE,
+
+    /**
+     * Represents the destruction of a cache, committing its pending mutations to the file system.
+     */
+    DESTROY;
+
+    public String toString() {
+	return name().toLowerCase();
+    };
+}
\ No newline at end of file
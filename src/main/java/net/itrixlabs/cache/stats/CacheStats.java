@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.stats;
+
+/**
+ * <p>
+ * Immutable snapshot of the statistics of a cache. Times are in nanoseconds.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see StatsCounter
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public final class CacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long loadSuccessCount;
+    private final long loadFailureCount;
+    private final long totalLoadTime;
+    private final long evictionCount;
+    private final long expirationCount;
+    private final long flushCount;
+    private final long totalFlushTime;
+
+    CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount,
+	    long totalLoadTime, long evictionCount, long expirationCount, long flushCount,
+	    long totalFlushTime) {
+	this.hitCount = hitCount;
+	this.missCount = missCount;
+	this.loadSuccessCount = loadSuccessCount;
+	this.loadFailureCount = loadFailureCount;
+	this.totalLoadTime = totalLoadTime;
+	this.evictionCount = evictionCount;
+	this.expirationCount = expirationCount;
+	this.flushCount = flushCount;
+	this.totalFlushTime = totalFlushTime;
+    }
+
+    public long getHitCount() {
+	return hitCount;
+    }
+
+    public long getMissCount() {
+	return missCount;
+    }
+
+    /**
+     * @return the ratio of reads which found an entry, 1 if there were no reads
+     */
+    public double getHitRate() {
+	long requestCount = hitCount + missCount;
+	return requestCount == 0L ? 1.0d : (double) hitCount / requestCount;
+    }
+
+    public long getLoadSuccessCount() {
+	return loadSuccessCount;
+    }
+
+    public long getLoadFailureCount() {
+	return loadFailureCount;
+    }
+
+    public long getTotalLoadTime() {
+	return totalLoadTime;
+    }
+
+    /**
+     * @return the average time spent loading an entry, 0 if there were no loads
+     */
+    public double getAverageLoadPenalty() {
+	long loadCount = loadSuccessCount + loadFailureCount;
+	return loadCount == 0L ? 0.0d : (double) totalLoadTime / loadCount;
+    }
+
+    public long getEvictionCount() {
+	return evictionCount;
+    }
+
+    public long getExpirationCount() {
+	return expirationCount;
+    }
+
+    public long getFlushCount() {
+	return flushCount;
+    }
+
+    public long getTotalFlushTime() {
+	return totalFlushTime;
+    }
+
+    @Override
+    public String toString() {
+	return "CacheStats [hitCount=" + hitCount + ", missCount=" + missCount
+		+ ", loadSuccessCount=" + loadSuccessCount + ", loadFailureCount="
+		+ loadFailureCount + ", totalLoadTime=" + totalLoadTime + ", evictionCount="
+		+ evictionCount + ", expirationCount=" + expirationCount + ", flushCount="
+		+ flushCount + ", totalFlushTime=" + totalFlushTime + "]";
+    }
+}
\ No newline at end of file
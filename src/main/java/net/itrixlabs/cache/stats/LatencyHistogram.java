@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Concurrent histogram of latencies, in the manner of HdrHistogram. Values are counted in
+ * log-linear buckets: exact below 8 nanoseconds, then 8 buckets per power of two, so any recorded
+ * value is reported within 12.5% of its actual value, whatever its magnitude. Recording is a
+ * couple of atomic increments, without locks or allocation.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see LatencySnapshot
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * <p>
+     * Records a latency.
+     * </p>
+     * 
+     * @param nanos
+     *            the latency in nanoseconds (negative values count as 0)
+     */
+    public void record(long nanos) {
+	long value = Math.max(nanos, 0L);
+	counts.incrementAndGet(bucket(value));
+	total.add(value);
+	long current;
+	while (value > (current = max.get()) && !max.compareAndSet(current, value))
+	    ;
+    }
+
+    /**
+     * <p>
+     * Returns a snapshot of the latencies recorded so far. Recording may go on meanwhile, so the
+     * snapshot is only approximately consistent.
+     * </p>
+     * 
+     * @return the snapshot
+     */
+    public LatencySnapshot snapshot() {
+	long[] snapshot = new long[BUCKETS];
+	for (int i = 0; i < BUCKETS; i++)
+	    snapshot[i] = counts.get(i);
+	return new LatencySnapshot(snapshot, total.sum(), max.get());
+    }
+
+    static int bucket(long value) {
+	if (value < SUB_BUCKETS)
+	    return (int) value;
+	int exponent = 63 - Long.numberOfLeadingZeros(value);
+	int mantissa = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+	return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + mantissa;
+    }
+
+    /*
+     * Highest value counted in the bucket
+     */
+    static long highestValue(int bucket) {
+	if (bucket < SUB_BUCKETS)
+	    return bucket;
+	int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+	long mantissa = SUB_BUCKETS + bucket % SUB_BUCKETS + 1;
+	return (mantissa << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.stats;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * <p>
+ * Immutable snapshot of a <code>LatencyHistogram</code>. Latencies are in nanoseconds.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see LatencyHistogram
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public final class LatencySnapshot {
+
+    private final long[] counts;
+    private final long count;
+    private final long total;
+    private final long max;
+
+    LatencySnapshot(long[] counts, long total, long max) {
+	long count = 0L;
+	for (long bucket : counts)
+	    count += bucket;
+	this.counts = counts;
+	this.count = count;
+	this.total = total;
+	this.max = max;
+    }
+
+    /**
+     * @return the number of latencies recorded
+     */
+    public long getCount() {
+	return count;
+    }
+
+    /**
+     * @return the mean latency, 0 if none was recorded
+     */
+    public double getMean() {
+	return count == 0L ? 0.0d : (double) total / count;
+    }
+
+    /**
+     * @return the highest latency recorded
+     */
+    public long getMax() {
+	return max;
+    }
+
+    /**
+     * <p>
+     * Returns the latency which the given percentage of the recorded latencies don't exceed.
+     * </p>
+     * 
+     * @param percentile
+     *            the percentile, between 0 and 100
+     * @return the latency at the percentile, 0 if none was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+	long rank = (long) Math.ceil(Math.min(Math.max(percentile, 0.0d), 100.0d) / 100.0d * count);
+	long seen = 0L;
+	for (int i = 0; i < counts.length; i++) {
+	    seen += counts[i];
+	    if (seen >= Math.max(rank, 1L))
+		return Math.min(LatencyHistogram.highestValue(i), max);
+	}
+	return max;
+    }
+
+    @Override
+    public String toString() {
+	return "count=" + count + ", mean=" + micros((long) getMean()) + ", p50="
+		+ micros(getValueAtPercentile(50.0d)) + ", p90="
+		+ micros(getValueAtPercentile(90.0d)) + ", p99="
+		+ micros(getValueAtPercentile(99.0d)) + ", p99.9="
+		+ micros(getValueAtPercentile(99.9d)) + ", max=" + micros(max);
+    }
+
+    private static String micros(long nanos) {
+	return NANOSECONDS.toMicros(nanos) + "us";
+    }
+}
\ No newline at end of file
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.stats;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>
+ * Records the statistics of a cache as it's used. Counters are striped (<code>LongAdder</code>),
+ * so recording from many threads at once doesn't contend on a single memory location.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see CacheStats
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public final class StatsCounter {
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadSuccessCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder flushCount = new LongAdder();
+    private final LongAdder totalFlushTime = new LongAdder();
+
+    /**
+     * <p>
+     * Records entries found by a read.
+     * </p>
+     * 
+     * @param count
+     *            the number of entries found
+     */
+    public void recordHits(int count) {
+	hitCount.add(count);
+    }
+
+    /**
+     * <p>
+     * Records entries missed by a read.
+     * </p>
+     * 
+     * @param count
+     *            the number of entries missed
+     */
+    public void recordMisses(int count) {
+	missCount.add(count);
+    }
+
+    /**
+     * <p>
+     * Records a load which completed, whether or not it found an entry.
+     * </p>
+     * 
+     * @param loadTime
+     *            the time the load took, in nanoseconds
+     */
+    public void recordLoadSuccess(long loadTime) {
+	loadSuccessCount.increment();
+	totalLoadTime.add(loadTime);
+    }
+
+    /**
+     * <p>
+     * Records a load which failed.
+     * </p>
+     * 
+     * @param loadTime
+     *            the time the load took, in nanoseconds
+     */
+    public void recordLoadFailure(long loadTime) {
+	loadFailureCount.increment();
+	totalLoadTime.add(loadTime);
+    }
+
+    /**
+     * <p>
+     * Records a flush of the expired entries.
+     * </p>
+     * 
+     * @param flushTime
+     *            the time the flush took, in nanoseconds
+     */
+    public void recordFlush(long flushTime) {
+	flushCount.increment();
+	totalFlushTime.add(flushTime);
+    }
+
+    /**
+     * <p>
+     * Returns a snapshot of the statistics recorded so far. The counters are read one by one while
+     * they may be updated, so the snapshot is only approximately consistent.
+     * </p>
+     * 
+     * @param evictionCount
+     *            the number of entries evicted, counted by the cache itself
+     * @param expirationCount
+     *            the number of entries expired, counted by the cache itself
+     * @return the statistics
+     */
+    public CacheStats snapshot(long evictionCount, long expirationCount) {
+	return new CacheStats(hitCount.sum(), missCount.sum(), loadSuccessCount.sum(),
+		loadFailureCount.sum(), totalLoadTime.sum(), evictionCount, expirationCount,
+		flushCount.sum(), totalFlushTime.sum());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,471 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.user;
+
+import static net.itrixlabs.cache.config.Key.DEFAULT_TTL;
+import static net.itrixlabs.cache.config.Key.DEFAULT_TTL_TIMEUNIT;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongFunction;
+
+import net.itrixlabs.cache.util.Assert;
+import net.itrixlabs.cache.util.CachedTicker;
+import net.itrixlabs.cache.util.Ticker;
+
+/**
+ * <p>
+ * Cache of user details (or any other identity) keyed by a numeric id, like a user id. Unlike
+ * <code>SerializableUserCache</code>, ids are never boxed nor wrapped in a <code>Key</code>: each
+ * segment of the cache is an open-addressing table of parallel arrays, holding the ids in a
+ * <code>long[]</code>, the values in an <code>Object[]</code> and the creation times in another
+ * <code>long[]</code>. An entry thus costs about 30 bytes besides its value, rather than the 100
+ * or so of a map entry, its key &amp; its boxed id.
+ * </p>
+ * <p>
+ * Entries live for the TTL of the cache, counted from their creation, and are never served once
+ * expired. Their memory is reclaimed by {@link #flush()}, or when a segment is resized. Lookups
+ * are optimistic and never block each other; storing &amp; evicting take the write lock of a
+ * segment. Entries aren't persisted, so the cache suits identities cheap enough to load again.
+ * </p>
+ * <p>
+ * <b><i>Note that this cache isn't an</i></b> <code>ApplicationCache</code><b><i>:</i></b> it
+ * can't be registered with the <code>SerializableCacheManager</code>, which thus neither flushes
+ * it, nor bounds it by its memory budget, nor reports it over JMX. The application must call
+ * {@link #flush()} periodically itself, or expired entries stay in memory until their segment is
+ * resized.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see SerializableUserCache
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public class LongKeyedUserCache<V> {
+
+    private static final int MAXIMUM_SEGMENTS = 1 << 16;
+    private static final int MINIMUM_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+    /*
+     * Time-to-live of the entries, in millis
+     */
+    private volatile long ttl = DEFAULT_TTL_TIMEUNIT.toMillis(DEFAULT_TTL);
+
+    private Ticker ticker = CachedTicker.getInstance();
+
+    private volatile Segment[] segments = newSegments(1);
+
+    /*
+     * Loads in flight by id, shared by the concurrent misses of the same id. Only a miss boxes
+     * its id
+     */
+    private final ConcurrentMap<Long, CompletableFuture<V>> loads = new ConcurrentHashMap<>();
+
+    /**
+     * <p>
+     * Constructs a <code>LongKeyedUserCache</code>. Sensible defaults will be used for required
+     * parameters unless explicitly set.
+     * </p>
+     */
+    public LongKeyedUserCache() {
+    }
+
+    /**
+     * <p>
+     * Returns the value stored for the id, unless expired.
+     * </p>
+     * 
+     * @param id
+     *            the id of the entry
+     * @return the value, null if absent or expired
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long id) {
+	long hash = spread(id);
+	Segment segment = this.segmentFor(hash);
+	StampedLock lock = segment.lock;
+	long stamp = lock.tryOptimisticRead();
+	Table table = segment.table;
+	int slot = find(table, id, hash);
+	Object value = slot < 0 ? null : table.values[slot];
+	long creationTime = slot < 0 ? 0L : table.creationTimes[slot];
+	if (!lock.validate(stamp)) { // A writer raced with the lookup
+	    stamp = lock.readLock();
+	    try {
+		table = segment.table;
+		slot = find(table, id, hash);
+		value = slot < 0 ? null : table.values[slot];
+		creationTime = slot < 0 ? 0L : table.creationTimes[slot];
+	    } finally {
+		lock.unlockRead(stamp);
+	    }
+	}
+	if (value == null || hasExpired(creationTime, ticker.currentTimeMillis(), ttl))
+	    return null;
+	return (V) value;
+    }
+
+    /**
+     * <p>
+     * Returns the value stored for the id, loading it when absent or expired. Concurrent misses of
+     * the same id are coalesced: the loader is invoked once and the other callers wait for its
+     * result. An exception thrown by the loader is propagated to every waiting caller, and
+     * nothing is stored.
+     * </p>
+     * 
+     * @param id
+     *            the id of the entry
+     * @param loader
+     *            loads the value of a missing entry, returning null if there is none
+     * @return the value, null if absent and not loaded
+     */
+    public V get(long id, LongFunction<? extends V> loader) {
+	Assert.assertNotNull(loader, "Can't accept null as loader.");
+	V value = this.get(id);
+	if (value != null)
+	    return value;
+	CompletableFuture<V> load = new CompletableFuture<>();
+	CompletableFuture<V> inFlight = loads.putIfAbsent(id, load);
+	if (inFlight != null)
+	    return join(inFlight);
+	try {
+	    value = this.get(id); // Unless stored since the miss
+	    if (value == null) {
+		value = loader.apply(id);
+		if (value != null)
+		    this.put(id, value);
+	    }
+	    load.complete(value);
+	    return value;
+	} catch (RuntimeException | Error e) {
+	    load.completeExceptionally(e);
+	    throw e;
+	} finally {
+	    loads.remove(id, load);
+	}
+    }
+
+    /**
+     * <p>
+     * Stores the value for the id, replacing any value stored already.
+     * </p>
+     * 
+     * @param id
+     *            the id of the entry
+     * @param value
+     *            the value to store
+     */
+    public void put(long id, V value) {
+	Assert.assertNotNull(value, "Can't accept null as value.");
+	long hash = spread(id);
+	Segment segment = this.segmentFor(hash);
+	long stamp = segment.lock.writeLock();
+	try {
+	    segment.put(id, hash, value, ticker.currentTimeMillis(), ttl);
+	} finally {
+	    segment.lock.unlockWrite(stamp);
+	}
+    }
+
+    /**
+     * <p>
+     * Removes the entry of the id, if any.
+     * </p>
+     * 
+     * @param id
+     *            the id of the entry
+     */
+    public void evict(long id) {
+	long hash = spread(id);
+	Segment segment = this.segmentFor(hash);
+	long stamp = segment.lock.writeLock();
+	try {
+	    int slot = find(segment.table, id, hash);
+	    if (slot >= 0)
+		segment.remove(slot);
+	} finally {
+	    segment.lock.unlockWrite(stamp);
+	}
+    }
+
+    /**
+     * <p>
+     * Tells whether an entry which hasn't expired is stored for the id.
+     * </p>
+     * 
+     * @param id
+     *            the id of the entry
+     * @return true if present
+     */
+    public boolean contains(long id) {
+	return this.get(id) != null;
+    }
+
+    /**
+     * <p>
+     * Removes the expired entries, shrinking the segments they leave mostly empty.
+     * </p>
+     */
+    public void flush() {
+	long now = ticker.currentTimeMillis();
+	for (Segment segment : this.segments) {
+	    long stamp = segment.lock.writeLock();
+	    try {
+		segment.resize(now, ttl);
+	    } finally {
+		segment.lock.unlockWrite(stamp);
+	    }
+	}
+    }
+
+    /**
+     * <p>
+     * Returns the number of entries in the cache, including the expired ones not flushed yet.
+     * </p>
+     * 
+     * @return the number of entries
+     */
+    public long getSize() {
+	long size = 0L;
+	for (Segment segment : this.segments) {
+	    long stamp = segment.lock.readLock();
+	    try {
+		size += segment.size;
+	    } finally {
+		segment.lock.unlockRead(stamp);
+	    }
+	}
+	return size;
+    }
+
+    /**
+     * <p>
+     * Sets the time-to-live of the entries, applying to the entries stored already as well.
+     * </p>
+     * 
+     * @param ttl
+     *            the ttl to set
+     * @param ttlUnit
+     *            the ttl time unit to set
+     */
+    public void setTtl(Long ttl, TimeUnit ttlUnit) {
+	Assert.assertNotNull(ttl, "Can't accept null as TTL.");
+	Assert.assertNotNull(ttlUnit, "Can't accept null as TTL TimeUnit.");
+	Assert.assertTrue(ttl > 0L, "TTL must be a positive number.");
+	this.ttl = ttlUnit.toMillis(ttl);
+    }
+
+    /**
+     * <p>
+     * Splits the cache into the given number of segments (rounded up to a power of two), each
+     * guarded by a lock of its own, for caches written to by many threads. Default is a single
+     * segment. Must be set before the cache is used.
+     * </p>
+     * 
+     * @param segments
+     *            the number of segments
+     */
+    public synchronized void setSegments(Integer segments) {
+	Assert.assertNotNull(segments, "Can't accept null as segments.");
+	Assert.assertTrue(segments > 0 && segments <= MAXIMUM_SEGMENTS,
+		"Segments must be a positive number up to " + MAXIMUM_SEGMENTS + ".");
+	Assert.assertTrue(this.getSize() == 0L, "Segments must be set before use.");
+	int count = 1;
+	while (count < segments)
+	    count <<= 1;
+	this.segments = newSegments(count);
+    }
+
+    /**
+     * <p>
+     * Sets the source of time for creation times and expiry checks. Default is the shared
+     * {@link CachedTicker}. Must be set before the cache is used.
+     * </p>
+     * 
+     * @param ticker
+     *            the ticker to use
+     */
+    public void setTicker(Ticker ticker) {
+	Assert.assertNotNull(ticker, "Can't accept null as ticker.");
+	this.ticker = ticker;
+    }
+
+    private static <V> V join(CompletableFuture<V> load) {
+	try {
+	    return load.join();
+	} catch (CompletionException e) {
+	    Throwable cause = e.getCause();
+	    if (cause instanceof RuntimeException)
+		throw (RuntimeException) cause;
+	    if (cause instanceof Error)
+		throw (Error) cause;
+	    throw e;
+	}
+    }
+
+    private static boolean hasExpired(long creationTime, long now, long ttl) {
+	return creationTime + ttl <= now;
+    }
+
+    /*
+     * Returns the slot of the id in the table, or -1 if absent. Bounded by the capacity, so that
+     * an optimistic read racing with a writer still returns
+     */
+    private static int find(Table table, long id, long hash) {
+	int mask = table.ids.length - 1;
+	int slot = (int) hash & mask;
+	for (int probes = 0; probes <= mask; probes++) {
+	    if (table.values[slot] == null)
+		return -1;
+	    if (table.ids[slot] == id)
+		return slot;
+	    slot = (slot + 1) & mask;
+	}
+	return -1;
+    }
+
+    private Segment segmentFor(long hash) {
+	Segment[] table = this.segments;
+	return table[(int) (hash >>> 48) & (table.length - 1)];
+    }
+
+    /*
+     * Mixes the bits of the id, so that sequential ids spread over the table & the segments
+     */
+    private static long spread(long id) {
+	long hash = id * 0x9E3779B97F4A7C15L;
+	return hash ^ (hash >>> 29);
+    }
+
+    private static Segment[] newSegments(int count) {
+	Segment[] table = new Segment[count];
+	for (int i = 0; i < count; i++)
+	    table[i] = new Segment();
+	return table;
+    }
+
+    /*
+     * Parallel arrays of a segment, an empty slot holding a null value
+     */
+    private static final class Table {
+
+	private final long[] ids;
+	private final Object[] values;
+	private final long[] creationTimes;
+
+	private Table(int capacity) {
+	    this.ids = new long[capacity];
+	    this.values = new Object[capacity];
+	    this.creationTimes = new long[capacity];
+	}
+    }
+
+    /*
+     * Open-addressing table with linear probing, resized to twice its live entries once three
+     * quarters full. Removals shift the following entries back rather than leaving tombstones
+     */
+    private static final class Segment {
+
+	private final StampedLock lock = new StampedLock();
+
+	/*
+	 * Written holding the write lock, read optimistically
+	 */
+	private volatile Table table = new Table(MINIMUM_CAPACITY);
+	private int size;
+
+	/*
+	 * Must be invoked holding the write lock
+	 */
+	private void put(long id, long hash, Object value, long now, long ttl) {
+	    Table current = this.table;
+	    int mask = current.ids.length - 1;
+	    int slot = (int) hash & mask;
+	    while (current.values[slot] != null && current.ids[slot] != id)
+		slot = (slot + 1) & mask;
+	    if (current.values[slot] == null) {
+		current.ids[slot] = id;
+		size++;
+	    }
+	    current.creationTimes[slot] = now;
+	    current.values[slot] = value;
+	    if (size > (current.ids.length >>> 2) * 3)
+		this.resize(now, ttl);
+	}
+
+	/*
+	 * Must be invoked holding the write lock
+	 */
+	private void remove(int slot) {
+	    Table current = this.table;
+	    int mask = current.ids.length - 1;
+	    int next = (slot + 1) & mask;
+	    while (current.values[next] != null) {
+		int home = (int) spread(current.ids[next]) & mask;
+		// Moves back the entries which the free slot lies between their home slot and them
+		if (((next - home) & mask) >= ((next - slot) & mask)) {
+		    current.ids[slot] = current.ids[next];
+		    current.creationTimes[slot] = current.creationTimes[next];
+		    current.values[slot] = current.values[next];
+		    slot = next;
+		}
+		next = (next + 1) & mask;
+	    }
+	    current.values[slot] = null;
+	    size--;
+	}
+
+	/*
+	 * Rehashes the live entries into a table of twice their number, dropping the expired ones.
+	 * Must be invoked holding the write lock
+	 */
+	private void resize(long now, long ttl) {
+	    Table current = this.table;
+	    int live = 0;
+	    for (int i = 0; i < current.values.length; i++) {
+		long creationTime = current.creationTimes[i];
+		if (current.values[i] != null && !hasExpired(creationTime, now, ttl))
+		    live++;
+	    }
+	    int capacity = MINIMUM_CAPACITY;
+	    while (capacity < MAXIMUM_CAPACITY && capacity < live * 2)
+		capacity <<= 1;
+	    if (capacity == current.values.length && live == size)
+		return;
+	    Table resized = new Table(capacity);
+	    int mask = capacity - 1;
+	    for (int i = 0; i < current.values.length; i++) {
+		Object value = current.values[i];
+		if (value == null || hasExpired(current.creationTimes[i], now, ttl))
+		    continue;
+		int slot = (int) spread(current.ids[i]) & mask;
+		while (resized.values[slot] != null)
+		    slot = (slot + 1) & mask;
+		resized.ids[slot] = current.ids[i];
+		resized.creationTimes[slot] = current.creationTimes[i];
+		resized.values[slot] = value;
+	    }
+	    this.table = resized;
+	    this.size = live;
+	}
+    }
+}
\ No newline at end of file
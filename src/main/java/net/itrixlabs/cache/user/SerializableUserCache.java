@@ -25,8 +25,12 @@ import net.itrixlabs.cache.core.AbstractFileSystemCache;
  * <p>
  * Efficient implementation of <code>ApplicationCache</code> for authentication sub-systems.
  * </p>
+ * <p>
+ * Users keyed by a numeric id are held far more compactly by a <code>LongKeyedUserCache</code>.
+ * </p>
  * 
  * @author Abhinav Rai
+ * @see LongKeyedUserCache
  * @since November 11<sup>th</sup>, 2015
  *
  */
@@ -67,16 +71,16 @@ public class SerializableUserCache<V> extends AbstractFileSystemCache<V> {
 
     @Override
     public V getFromCache(Object key) {
-	return super.cache.get(super.generate(key));
+	return super.lookup(key);
     }
 
     @Override
     public void putInCache(Object key, V entry) {
-	super.cache.putIfAbsent(super.generate(key), entry);
+	super.store(key, entry);
     }
 
     @Override
     public void evictFromCache(Object key) {
-	super.cache.remove(super.generate(key));
+	super.invalidate(key);
     }
 }
\ No newline at end of file
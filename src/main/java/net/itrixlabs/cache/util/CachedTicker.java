@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.util;
+
+/**
+ * <p>
+ * Coarse-grained <code>Ticker</code> shared by all caches of the JVM. A single daemon thread
+ * refreshes a volatile timestamp every {@value #RESOLUTION_MILLIS} millis, so reading the time on
+ * a hot path is a plain volatile read. The clock may lag behind the system clock by up to the
+ * resolution, which is negligible compared to cache TTLs.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see Ticker
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public final class CachedTicker implements Ticker {
+
+    /**
+     * Interval (in millis) at which the timestamp is refreshed.
+     */
+    public static final long RESOLUTION_MILLIS = 10L;
+
+    private static final CachedTicker instance = new CachedTicker();
+
+    private volatile long currentTimeMillis = System.currentTimeMillis();
+
+    private CachedTicker() {
+	Thread updater = new Thread(this::update, "cache-manager-ticker");
+	updater.setDaemon(true);
+	updater.start();
+    }
+
+    /**
+     * <p>
+     * Returns the shared instance, starting its updater thread on first use.
+     * </p>
+     * 
+     * @return the shared <code>CachedTicker</code>
+     */
+    public static CachedTicker getInstance() {
+	return instance;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+	return currentTimeMillis;
+    }
+
+    private void update() {
+	while (!Thread.currentThread().isInterrupted()) {
+	    try {
+		Thread.sleep(RESOLUTION_MILLIS);
+	    } catch (InterruptedException e) {
+		return;
+	    }
+	    currentTimeMillis = System.currentTimeMillis();
+	}
+    }
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.util;
+
+/**
+ * <p>
+ * Source of time for the caches, used for the creation time of keys and for expiry checks. The
+ * default is the shared {@link CachedTicker}. Since the contract is a single method,
+ * <code>System::currentTimeMillis</code> makes a precise ticker, while tests may inject a ticker
+ * they advance by hand to get deterministic TTL behavior.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see CachedTicker
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public interface Ticker {
+
+    /**
+     * <p>
+     * Returns the current time in millis (same epoch as {@link System#currentTimeMillis()}).
+     * </p>
+     * 
+     * @return the current time in millis
+     */
+    long currentTimeMillis();
+}
\ No newline at end of file
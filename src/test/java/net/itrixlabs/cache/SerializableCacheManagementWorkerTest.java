@@ -0,0 +1,63 @@
+package net.itrixlabs.cache;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.itrixlabs.cache.generic.SerializableGenericCache;
+
+public class SerializableCacheManagementWorkerTest {
+
+    private SerializableGenericCache<String> genericCache;
+    private ScheduledThreadPoolExecutor scheduler;
+    private ForkJoinPool pool;
+
+    @Before
+    public void setup() {
+	genericCache = new SerializableGenericCache<>();
+	genericCache.setTtl(5L, MINUTES);
+	scheduler = new ScheduledThreadPoolExecutor(1);
+	pool = ForkJoinPool.commonPool();
+    }
+
+    @After
+    public void tearDown() {
+	scheduler.shutdownNow();
+    }
+
+    @Test
+    public void adaptivePeriod() {
+	SerializableCacheManagementWorker worker = new SerializableCacheManagementWorker(
+		"generic", genericCache, scheduler, pool, MINUTES.toMillis(10L), true, true);
+	long busy = SerializableCacheManagementWorker.TARGET_EXPIRATIONS + 1L;
+	Assert.assertEquals("Period isn't bounded by the TTL", MINUTES.toMillis(5L),
+		worker.adapt(0L));
+	Assert.assertEquals("Period wasn't shortened under load", SECONDS.toMillis(150L),
+		worker.adapt(busy));
+	Assert.assertEquals("Period wasn't kept under moderate load", SECONDS.toMillis(150L),
+		worker.adapt(busy / 2L));
+	for (int i = 0; i < 32; i++)
+	    worker.adapt(busy);
+	Assert.assertEquals("Period isn't bounded below",
+		SerializableCacheManagementWorker.MINIMUM_PERIOD, worker.adapt(busy));
+	Assert.assertEquals("Period wasn't lengthened while idle",
+		SerializableCacheManagementWorker.MINIMUM_PERIOD * 2L, worker.adapt(0L));
+    }
+
+    @Test
+    public void fixedPeriod() {
+	SerializableCacheManagementWorker worker = new SerializableCacheManagementWorker(
+		"generic", genericCache, scheduler, pool, SECONDS.toMillis(30L), false, true);
+	Assert.assertEquals("Fixed period wasn't kept", SECONDS.toMillis(30L),
+		worker.adapt(SerializableCacheManagementWorker.TARGET_EXPIRATIONS * 2L));
+	Assert.assertEquals("Fixed period wasn't kept", SECONDS.toMillis(30L),
+		worker.adapt(0L));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,217 @@
+package net.itrixlabs.cache;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.itrixlabs.cache.config.CacheSpec;
+import net.itrixlabs.cache.config.PersistenceMode;
+import net.itrixlabs.cache.core.AbstractFileSystemCache;
+import net.itrixlabs.cache.core.MemoryBudget;
+import net.itrixlabs.cache.generic.SerializableGenericCache;
+
+public class SerializableCacheManagerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String cacheDir;
+    private SerializableCacheManager<Object, Object, Object, Object> cacheManager;
+
+    @Before
+    public void setup() {
+	cacheDir = folder.getRoot().getPath() + File.separatorChar + "app_cache";
+	cacheManager = open();
+    }
+
+    @After
+    public void tearDown() {
+	cacheManager.destroy();
+    }
+
+    @Test
+    public void registry() {
+	AbstractFileSystemCache<String> sessions = cacheManager.getCache("sessions");
+	AbstractFileSystemCache<String> tokens = cacheManager.getCache("tokens");
+	Assert.assertEquals("Caches weren't registered", 2, cacheManager.getCacheNames().size());
+	Assert.assertEquals("Cache wasn't initialized", true, sessions.isInitialized());
+	Assert.assertEquals("TTL wasn't set", Long.valueOf(5L), sessions.getTtl());
+	Assert.assertEquals("TTL wasn't set", MINUTES, sessions.getTtlUnit());
+	for (int i = 0; i < 20; i++)
+	    tokens.putInCache("token" + i, "value" + i);
+	Assert.assertEquals("Maximum size wasn't set", 10L, tokens.getSize());
+	Assert.assertEquals("Unknown cache was found", null, cacheManager.getCache("unknown"));
+
+	SerializableGenericCache<String> late = cacheManager.createCache("late", new CacheSpec());
+	Assert.assertEquals("Late cache wasn't started", true, late.isInitialized());
+	late.putInCache("key1", "value1");
+	Assert.assertEquals("Late cache wasn't looked up", "value1",
+		cacheManager.<String> getCache("late").getFromCache("key1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicateName() {
+	cacheManager.createCache("sessions", new CacheSpec());
+    }
+
+    @Test
+    public void persistence() {
+	cacheManager.<String> getCache("sessions").putInCache("key1", "value1");
+	cacheManager.<String> getCache("tokens").putInCache("key2", "value2");
+	cacheManager.destroy();
+	Assert.assertEquals("Cache wasn't destroyed", false,
+		cacheManager.getCache("sessions").isInitialized());
+	Assert.assertEquals("Log was written without persistence", false,
+		new File(cacheDir, "tokens.log").exists());
+
+	cacheManager = open();
+	Assert.assertEquals("Entry wasn't restored", "value1",
+		cacheManager.<String> getCache("sessions").getFromCache("key1"));
+	Assert.assertEquals("Entry was restored without persistence", false,
+		cacheManager.getCache("tokens").isPresentInCache("key2"));
+    }
+
+    @Test
+    public void memoryBudget() {
+	SerializableCacheManager<Object, Object, Object, Object> budgeted;
+	budgeted = new SerializableCacheManager<>();
+	budgeted.setCacheDir(cacheDir);
+	budgeted.setJmxEnabled(false);
+	budgeted.setMemoryBudget(10000L);
+	CacheSpec weighed = new CacheSpec();
+	weighed.setWeigher((identifier, value) -> ((String) value).length());
+	weighed.setPersistenceMode(PersistenceMode.NONE);
+	CacheSpec unweighed = new CacheSpec();
+	unweighed.setPersistenceMode(PersistenceMode.NONE);
+	budgeted.createCache("blobs", weighed);
+	budgeted.createCache("ids", weighed);
+	budgeted.createCache("names", unweighed);
+	budgeted.afterPropertiesSet();
+	try {
+	    MemoryBudget budget = budgeted.getMemoryBudget();
+	    AbstractFileSystemCache<String> blobs = budgeted.getCache("blobs");
+	    AbstractFileSystemCache<String> ids = budgeted.getCache("ids");
+	    char[] blob = new char[1000];
+	    Arrays.fill(blob, 'x');
+	    for (int i = 0; i < 50; i++)
+		blobs.putInCache("blob" + i, new String(blob));
+	    Assert.assertTrue("Budget wasn't enforced", budget.getUsage() <= 10000L);
+	    Assert.assertEquals("Usage wasn't tracked", blobs.getWeight(), budget.getUsage());
+	    Assert.assertEquals("Recent entries were evicted", true,
+		    blobs.isPresentInCache("blob49"));
+	    for (int i = 0; i < 100; i++)
+		ids.putInCache("id" + i, String.format("%010d", i));
+	    Assert.assertTrue("Budget wasn't enforced", budget.getUsage() <= 10000L);
+	    Assert.assertEquals("Lighter cache gave up room", 100L, ids.getSize());
+	    Assert.assertEquals("Entries weren't weighed", 1000L, ids.getWeight());
+	    Assert.assertTrue("Heavier cache didn't give up room", blobs.getSize() <= 9L);
+
+	    AbstractFileSystemCache<String> names = budgeted.getCache("names");
+	    names.putInCache("name1", "value1");
+	    Assert.assertTrue("Entry wasn't weighed by its serialized size", names.getWeight() > 1L);
+	} finally {
+	    budgeted.destroy();
+	}
+    }
+
+    @Test
+    public void preInitializedCache() throws Exception {
+	SerializableGenericCache<String> empty = new SerializableGenericCache<>(cacheDir, "empty");
+	empty.setPersistenceMode(PersistenceMode.NONE);
+	empty.afterPropertiesSet();
+	SerializableGenericCache<String> filled = new SerializableGenericCache<>(cacheDir,
+		"filled");
+	filled.setPersistenceMode(PersistenceMode.NONE);
+	filled.afterPropertiesSet();
+	for (int i = 0; i < 2000; i++)
+	    filled.putInCache("key" + i, "value" + i);
+	SerializableCacheManager<Object, Object, Object, String> budgeted;
+	budgeted = new SerializableCacheManager<>();
+	budgeted.setCacheDir(cacheDir);
+	budgeted.setJmxEnabled(false);
+	budgeted.setMemoryBudget(10000L);
+	budgeted.setGenericCache(empty);
+	budgeted.register("filled", filled);
+	budgeted.afterPropertiesSet();
+	try {
+	    Assert.assertSame("Budget wasn't attached to the initialized cache",
+		    budgeted.getMemoryBudget(), empty.getMemoryBudget());
+	    empty.putInCache("key1", "value1");
+	    Assert.assertSame("Budget wasn't attached to the cache holding entries",
+		    budgeted.getMemoryBudget(), filled.getMemoryBudget());
+	    Assert.assertEquals("Usage wasn't tracked", empty.getWeight() + filled.getWeight(),
+		    budgeted.getMemoryBudget().getUsage());
+	    Assert.assertTrue("Entries held already weren't bounded",
+		    budgeted.getMemoryBudget().getUsage() <= 10000L && filled.getSize() < 2000L);
+	} finally {
+	    budgeted.destroy();
+	}
+	Assert.assertEquals("Initialized cache was destroyed by the manager", true,
+		empty.isInitialized());
+	empty.destroy();
+	filled.destroy();
+    }
+
+    @Test
+    public void preInitializedLoggedCache() throws Exception {
+	SerializableGenericCache<String> logged = new SerializableGenericCache<>(cacheDir,
+		"logged");
+	logged.afterPropertiesSet();
+	logged.putInCache("key1", "value1");
+	SerializableCacheManager<Object, Object, Object, String> sharing;
+	sharing = new SerializableCacheManager<>();
+	sharing.setCacheDir(cacheDir);
+	sharing.setJmxEnabled(false);
+	sharing.register("logged", logged);
+	sharing.afterPropertiesSet();
+	try {
+	    Assert.assertNotNull("Log wasn't moved to the shared writer", logged.getLogWriter());
+	    logged.putInCache("key2", "value2");
+	} finally {
+	    sharing.destroy();
+	}
+	Assert.assertEquals("Log wasn't given a writer of its own again", null,
+		logged.getLogWriter());
+	logged.putInCache("key3", "value3");
+	logged.destroy();
+
+	SerializableGenericCache<String> restored = new SerializableGenericCache<>(cacheDir,
+		"logged");
+	restored.afterPropertiesSet();
+	Assert.assertEquals("Entry logged before registration wasn't restored", "value1",
+		restored.getFromCache("key1"));
+	Assert.assertEquals("Entry logged by the shared writer wasn't restored", "value2",
+		restored.getFromCache("key2"));
+	Assert.assertEquals("Entry logged after the manager was destroyed wasn't restored",
+		"value3", restored.getFromCache("key3"));
+	restored.destroy();
+    }
+
+    private SerializableCacheManager<Object, Object, Object, Object> open() {
+	SerializableCacheManager<Object, Object, Object, Object> manager;
+	manager = new SerializableCacheManager<>();
+	manager.setCacheDir(cacheDir);
+	manager.setJmxEnabled(false);
+	CacheSpec sessions = new CacheSpec();
+	sessions.setTtl(5L, MINUTES);
+	CacheSpec tokens = new CacheSpec();
+	tokens.setMaximumSize(10L);
+	tokens.setPersistenceMode(PersistenceMode.NONE);
+	Map<String, CacheSpec> specs = new HashMap<>();
+	specs.put("sessions", sessions);
+	specs.put("tokens", tokens);
+	manager.setCacheSpecs(specs);
+	manager.afterPropertiesSet();
+	return manager;
+    }
+}
\ No newline at end of file
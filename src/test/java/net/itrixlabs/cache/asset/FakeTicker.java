@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2014-2015. Author or original authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * 
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package net.itrixlabs.cache.asset;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.itrixlabs.cache.util.Ticker;
+
+/**
+ * <p>
+ * A <code>Ticker</code> which only moves when told to, making TTL behavior deterministic.
+ * </p>
+ * 
+ * @author Abhinav Rai
+ * @see Ticker
+ * @since October 18<sup>th</sup>, 2026
+ *
+ */
+public class FakeTicker implements Ticker {
+
+    private final AtomicLong time = new AtomicLong(1447200000000L);
+
+    @Override
+    public long currentTimeMillis() {
+	return time.get();
+    }
+
+    /**
+     * <p>
+     * Moves the clock forward.
+     * </p>
+     * 
+     * @param duration
+     *            the duration to advance by
+     * @param unit
+     *            the time unit of the duration
+     * @return the <code>FakeTicker</code> for further customization
+     */
+    public FakeTicker advance(long duration, TimeUnit unit) {
+	time.addAndGet(unit.toMillis(duration));
+	return this;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,510 @@
+package net.itrixlabs.cache.core;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.itrixlabs.cache.asset.FakeTicker;
+import net.itrixlabs.cache.config.Key;
+import net.itrixlabs.cache.generic.SerializableGenericCache;
+import net.itrixlabs.cache.policy.LruEvictionPolicy;
+import net.itrixlabs.cache.stats.CacheOperation;
+import net.itrixlabs.cache.stats.CacheStats;
+import net.itrixlabs.cache.stats.LatencySnapshot;
+
+public class AbstractFileSystemCacheTest {
+
+    private SerializableGenericCache<String> genericCache = new SerializableGenericCache<>();
+
+    private FakeTicker ticker;
+
+    @Before
+    public void setup() {
+	ticker = new FakeTicker();
+	genericCache.setTicker(ticker);
+	genericCache.setTtl(10L, MINUTES);
+	genericCache.putInCache("key1", "value1");
+    }
+
+    @Test
+    public void expiredEntriesAreNeverServed() {
+	ticker.advance(9L, MINUTES);
+	Assert.assertEquals("Live entry wasn't served", "value1",
+		genericCache.getFromCache("key1"));
+	ticker.advance(1L, MINUTES);
+	Assert.assertEquals("Expired entry was served", null, genericCache.getFromCache("key1"));
+	Assert.assertEquals("Expired entry was present", false,
+		genericCache.isPresentInCache("key1"));
+	Assert.assertEquals("Expired entry wasn't removed on read", 1L,
+		genericCache.getExpirationCount());
+    }
+
+    @Test
+    public void flush() {
+	ticker.advance(5L, MINUTES);
+	genericCache.putInCache("key2", "value2");
+	ticker.advance(6L, MINUTES);
+	genericCache.flush();
+	Assert.assertEquals("Expired entry wasn't flushed", 1L, genericCache.getExpirationCount());
+	Assert.assertEquals("Live entry was flushed", true, genericCache.isPresentInCache("key2"));
+	ticker.advance(5L, MINUTES);
+	genericCache.flush();
+	Assert.assertEquals("Expired entry wasn't flushed", 2L, genericCache.getExpirationCount());
+    }
+
+    @Test
+    public void setTtl() {
+	genericCache.setTtl(2L, DAYS);
+	ticker.advance(1L, DAYS);
+	Assert.assertEquals("TTL wasn't extended for present entries", true,
+		genericCache.isPresentInCache("key1"));
+	genericCache.setTtl(1L, HOURS);
+	Assert.assertEquals("TTL wasn't shortened for present entries", false,
+		genericCache.isPresentInCache("key1"));
+    }
+
+    @Test
+    public void perEntryTtl() {
+	genericCache.putInCache("key2", "value2", 2L, HOURS);
+	ticker.advance(11L, MINUTES);
+	genericCache.flush();
+	Assert.assertEquals("Entry outlived the TTL of the cache", false,
+		genericCache.isPresentInCache("key1"));
+	Assert.assertEquals("Entry didn't outlive the TTL of the cache", "value2",
+		genericCache.getFromCache("key2"));
+	genericCache.setTtl(1L, MINUTES);
+	Assert.assertEquals("TTL of the entry was overridden", true,
+		genericCache.isPresentInCache("key2"));
+	ticker.advance(2L, HOURS);
+	genericCache.flush();
+	Assert.assertEquals("Entry outlived its TTL", false, genericCache.isPresentInCache("key2"));
+	Assert.assertEquals("Expired entries weren't flushed", 2L,
+		genericCache.getExpirationCount());
+    }
+
+    @Test
+    public void expireAfterAccess() {
+	genericCache.setExpireAfterAccess(true);
+	genericCache.putInCache("key2", "value2");
+	for (int i = 0; i < 6; i++) {
+	    ticker.advance(8L, MINUTES);
+	    genericCache.flush();
+	    Assert.assertEquals("Entry read regularly expired", "value1",
+		    genericCache.getFromCache("key1"));
+	}
+	Assert.assertEquals("Idle entry didn't expire", false,
+		genericCache.isPresentInCache("key2"));
+	ticker.advance(9L, MINUTES);
+	Assert.assertEquals("Presence check extended the entry", true,
+		genericCache.isPresentInCache("key1"));
+	ticker.advance(1L, MINUTES);
+	genericCache.flush();
+	Assert.assertEquals("Entry outlived its TTL since the last read", false,
+		genericCache.isPresentInCache("key1"));
+	Assert.assertEquals("Expired entries weren't flushed", 2L,
+		genericCache.getExpirationCount());
+    }
+
+    @Test
+    public void segmented() throws Exception {
+	SerializableGenericCache<String> segmentedCache = new SerializableGenericCache<>();
+	segmentedCache.setTicker(ticker);
+	segmentedCache.setTtl(10L, MINUTES);
+	segmentedCache.setSegments(6);
+	segmentedCache.setMaximumSize(4000L);
+	Assert.assertEquals("Segments weren't rounded to a power of two", 8,
+		segmentedCache.getSegments());
+	ExecutorService executor = Executors.newFixedThreadPool(4);
+	List<Future<?>> writers = new ArrayList<>();
+	for (int t = 0; t < 4; t++) {
+	    int writer = t;
+	    writers.add(executor.submit(() -> {
+		for (int i = 0; i < 2000; i++) {
+		    segmentedCache.putInCache("token" + writer + "-" + i, "value" + i);
+		    segmentedCache.getFromCache("token" + writer + "-" + (i / 2));
+		}
+	    }));
+	}
+	for (Future<?> writer : writers)
+	    writer.get();
+	executor.shutdown();
+	Assert.assertTrue("Segments weren't bounded", segmentedCache.getSize() <= 4000L);
+	Assert.assertEquals("Evictions weren't counted", 8000L - segmentedCache.getSize(),
+		segmentedCache.getEvictionCount());
+	ticker.advance(5L, MINUTES);
+	segmentedCache.putInCache("key2", "value2");
+	long expiring = segmentedCache.getSize() - 1L;
+	ticker.advance(6L, MINUTES);
+	segmentedCache.flush(ForkJoinPool.commonPool());
+	Assert.assertEquals("Expired entries weren't flushed from every segment", expiring,
+		segmentedCache.getExpirationCount());
+	Assert.assertEquals("Live entry was flushed", "value2",
+		segmentedCache.getFromCache("key2"));
+	ticker.advance(5L, MINUTES);
+	segmentedCache.flush();
+	Assert.assertEquals("Expired entry wasn't flushed", 0L, segmentedCache.getSize());
+    }
+
+    @Test
+    public void bufferedReads() throws Exception {
+	genericCache.setMaximumSize(3L);
+	genericCache.putInCache("key2", "value2");
+	genericCache.putInCache("key3", "value3");
+	for (int i = 0; i < 40; i++)
+	    genericCache.getFromCache("key1");
+	genericCache.putInCache("key4", "value4");
+	Assert.assertEquals("Buffered reads weren't recorded", true,
+		genericCache.isPresentInCache("key1"));
+	Assert.assertEquals("Least recently used entry wasn't evicted", false,
+		genericCache.isPresentInCache("key2"));
+
+	genericCache.setMaximumSize(100L);
+	ExecutorService executor = Executors.newFixedThreadPool(8);
+	List<Future<?>> threads = new ArrayList<>();
+	for (int t = 0; t < 7; t++)
+	    threads.add(executor.submit(() -> {
+		for (int i = 0; i < 100000; i++)
+		    genericCache.getFromCache("key" + (i % 50));
+	    }));
+	threads.add(executor.submit(() -> {
+	    for (int i = 0; i < 10000; i++) {
+		genericCache.putInCache("cold" + i, "value" + i);
+		if (i % 3 == 0)
+		    genericCache.evictFromCache("cold" + (i - 1));
+	    }
+	}));
+	for (Future<?> thread : threads)
+	    thread.get();
+	executor.shutdown();
+	Assert.assertTrue("Cache wasn't bounded", genericCache.getSize() <= 100L);
+	for (int i = 0; i < 200; i++)
+	    genericCache.putInCache("fresh" + i, "value" + i);
+	Assert.assertEquals("Book-keeping lost track of entries", 100L, genericCache.getSize());
+    }
+
+    @Test
+    public void maximumWeight() {
+	SerializableGenericCache<String> weighedCache = new SerializableGenericCache<>();
+	weighedCache.setTicker(ticker);
+	weighedCache.setWeigher((identifier, value) -> value.length());
+	weighedCache.setMaximumWeight(100L);
+	weighedCache.putInCache("small1", "12345");
+	weighedCache.putInCache("small2", "12345");
+	weighedCache.putInCache("large1", new String(new char[60]));
+	Assert.assertEquals("Entries weren't weighed", 70L, weighedCache.getWeight());
+	weighedCache.getFromCache("small1");
+	weighedCache.putInCache("large2", new String(new char[50]));
+	Assert.assertEquals("Least recently used entries weren't evicted", false,
+		weighedCache.isPresentInCache("small2") || weighedCache.isPresentInCache("large1"));
+	Assert.assertEquals("Recently used entry was evicted", true,
+		weighedCache.isPresentInCache("small1"));
+	Assert.assertEquals("Entries weren't weighed", 55L, weighedCache.getWeight());
+	for (int i = 0; i < 1000; i++)
+	    weighedCache.putInCache("tiny" + i, "");
+	Assert.assertEquals("Number of entries was bounded", 1002L, weighedCache.getSize());
+	weighedCache.evictFromCache("large2");
+	Assert.assertEquals("Removal wasn't weighed", 5L, weighedCache.getWeight());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void segmentedPolicyInstance() {
+	SerializableGenericCache<String> segmentedCache = new SerializableGenericCache<>();
+	segmentedCache.setSegments(4);
+	segmentedCache.setEvictionPolicy(new LruEvictionPolicy());
+    }
+
+    @Test
+    public void offHeap() {
+	SerializableGenericCache<String> offHeapCache = new SerializableGenericCache<>();
+	offHeapCache.setOffHeapCapacity(1L << 20);
+	offHeapCache.putInCache("key1", "value1");
+	Assert.assertEquals("Off-heap value wasn't served", "value1",
+		offHeapCache.getFromCache("key1"));
+	Assert.assertTrue("Value wasn't stored off-heap", offHeapCache.getOffHeapUsage() > 0L);
+	offHeapCache.evictFromCache("key1");
+	Assert.assertEquals("Off-heap value wasn't evicted", null,
+		offHeapCache.getFromCache("key1"));
+	Assert.assertEquals("Off-heap slot wasn't freed", 0L, offHeapCache.getOffHeapUsage());
+    }
+
+    @Test
+    public void serialization() throws Exception {
+	SerializableGenericCache<String> onHeapCache = new SerializableGenericCache<>();
+	onHeapCache.putInCache("key1", "value1");
+	onHeapCache.putInCache("key2", "value2");
+	SerializableGenericCache<String> copy = copy(onHeapCache);
+	Assert.assertEquals("Entry wasn't deserialized", "value1", copy.getFromCache("key1"));
+	copy.evictFromCache("key2");
+	copy.putInCache("key3", "value3");
+	copy.flush();
+	Assert.assertEquals("Entries weren't tracked", 2L, copy.getSize());
+	Assert.assertEquals("Loader wasn't invoked", "value4", copy.get("key4", key -> "value4"));
+
+	SerializableGenericCache<String> offHeapCache = new SerializableGenericCache<>();
+	offHeapCache.setOffHeapCapacity(1L << 20);
+	offHeapCache.putInCache("key1", "value1");
+	Assert.assertEquals("Off-heap value wasn't serialized", "value1",
+		copy(offHeapCache).getFromCache("key1"));
+    }
+
+    @Test
+    public void replace() {
+	Assert.assertEquals("Absent entry was replaced", null,
+		genericCache.replace("key2", "value2"));
+	Assert.assertEquals("Absent entry was stored", false,
+		genericCache.isPresentInCache("key2"));
+	ticker.advance(9L, MINUTES);
+	Assert.assertEquals("Replaced entry wasn't returned", "value1",
+		genericCache.replace("key1", "value2"));
+	ticker.advance(9L, MINUTES);
+	Assert.assertEquals("Replacement didn't start a fresh TTL", "value2",
+		genericCache.getFromCache("key1"));
+    }
+
+    @Test
+    public void compute() {
+	Assert.assertEquals("Entry wasn't computed", "value1-1",
+		genericCache.compute("key1", (key, value) -> value + "-1"));
+	Assert.assertEquals("Absent entry wasn't computed", "key2",
+		genericCache.compute("key2", (key, value) -> value == null ? (String) key : value));
+	Assert.assertEquals("Entry wasn't removed", null,
+		genericCache.compute("key1", (key, value) -> null));
+	Assert.assertEquals("Entry wasn't removed", false, genericCache.isPresentInCache("key1"));
+    }
+
+    @Test
+    public void computeIfAbsent() {
+	Assert.assertEquals("Present entry was computed", "value1",
+		genericCache.computeIfAbsent("key1", key -> "value2"));
+	ticker.advance(10L, MINUTES);
+	Assert.assertEquals("Expired entry wasn't computed", "value2",
+		genericCache.computeIfAbsent("key1", key -> "value2"));
+	Assert.assertEquals("Expired entry wasn't counted", 1L, genericCache.getExpirationCount());
+    }
+
+    @Test
+    public void merge() {
+	Assert.assertEquals("Entries weren't merged", "value1,value2",
+		genericCache.merge("key1", "value2", (present, given) -> present + "," + given));
+	Assert.assertEquals("Absent entry wasn't stored", "value3",
+		genericCache.merge("key3", "value3", (present, given) -> present + "," + given));
+    }
+
+    @Test
+    public void loadsOncePerMiss() throws Exception {
+	AtomicInteger loads = new AtomicInteger();
+	CountDownLatch release = new CountDownLatch(1);
+	ExecutorService executor = Executors.newFixedThreadPool(8);
+	try {
+	    List<Future<String>> results = new ArrayList<>();
+	    for (int i = 0; i < 8; i++)
+		results.add(executor.submit(() -> genericCache.get("key2", key -> {
+		    loads.incrementAndGet();
+		    try {
+			release.await(5L, SECONDS);
+		    } catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		    }
+		    return "value2";
+		})));
+	    Thread.sleep(100L);
+	    release.countDown();
+	    for (Future<String> result : results)
+		Assert.assertEquals("Entry wasn't loaded", "value2", result.get(5L, SECONDS));
+	} finally {
+	    executor.shutdownNow();
+	}
+	Assert.assertEquals("Concurrent misses weren't coalesced", 1, loads.get());
+	Assert.assertEquals("Cached entry wasn't served", "value1",
+		genericCache.get("key1", key -> "value2"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void loaderFailure() {
+	try {
+	    genericCache.get("key2", key -> {
+		throw new IllegalStateException();
+	    });
+	} finally {
+	    Assert.assertEquals("Failed load was stored", false,
+		    genericCache.isPresentInCache("key2"));
+	}
+    }
+
+    @Test
+    public void refreshAhead() {
+	AtomicInteger loads = new AtomicInteger();
+	genericCache.setRefreshExecutor(Runnable::run);
+	genericCache.setRefreshAhead(0.5f, key -> key + "-value" + loads.incrementAndGet());
+	ticker.advance(4L, MINUTES);
+	Assert.assertEquals("Entry was refreshed early", "value1",
+		genericCache.getFromCache("key1"));
+	ticker.advance(2L, MINUTES);
+	Assert.assertEquals("Current entry wasn't served", "value1",
+		genericCache.getFromCache("key1"));
+	Assert.assertEquals("Entry wasn't refreshed", 1, loads.get());
+	ticker.advance(4L, MINUTES);
+	Assert.assertEquals("Refreshed entry wasn't served", "key1-value1",
+		genericCache.getFromCache("key1"));
+	Assert.assertEquals("Entry was refreshed again", 1, loads.get());
+    }
+
+    @Test
+    public void async() throws Exception {
+	AsyncApplicationCache<Key, String> async = genericCache.async();
+	Assert.assertEquals("Entry wasn't served", "value1", async.getAsync("key1").get());
+	CompletableFuture<String> load = new CompletableFuture<>();
+	CompletableFuture<String> first = async.getAsync("key2", key -> load);
+	CompletableFuture<String> second = async.getAsync("key2", key -> {
+	    throw new IllegalStateException("Concurrent misses weren't coalesced");
+	});
+	Assert.assertEquals("Load blocked the caller", false, first.isDone() || second.isDone());
+	first.cancel(false);
+	load.complete("value2");
+	Assert.assertEquals("Entry wasn't loaded", "value2", second.get());
+	Assert.assertEquals("Entry wasn't stored", "value2", genericCache.getFromCache("key2"));
+	async.evictAsync("key2").get();
+	async.putAsync("key3", "value3").get();
+	Assert.assertEquals("Views don't share storage", false,
+		async.synchronous().isPresentInCache("key2"));
+	Assert.assertEquals("Views don't share storage", "value3",
+		genericCache.getFromCache("key3"));
+    }
+
+    @Test
+    public void asyncStoreFailure() throws Exception {
+	SerializableGenericCache<String> weighedCache = new SerializableGenericCache<>();
+	weighedCache.setWeigher((identifier, value) -> -1);
+	CompletableFuture<String> load = weighedCache.async().getAsync("key1",
+		key -> CompletableFuture.completedFuture("value1"));
+	try {
+	    load.get(5L, SECONDS);
+	    Assert.fail("Failure to store the loaded entry wasn't propagated");
+	} catch (ExecutionException e) {
+	    Assert.assertTrue("Not the failure to store", e.getCause() instanceof RuntimeException);
+	}
+	CompletableFuture<String> retry = weighedCache.async().getAsync("key1",
+		key -> CompletableFuture.completedFuture(null));
+	Assert.assertEquals("Failed load wasn't cleared", null, retry.get(5L, SECONDS));
+    }
+
+    @Test
+    public void bulk() {
+	Map<String, String> entries = new HashMap<>();
+	entries.put("key2", "value2");
+	entries.put("key3", "value3");
+	genericCache.putAll(entries);
+	Assert.assertEquals("Entries weren't all served", 3,
+		genericCache.getAll(Arrays.asList("key1", "key2", "key3", "key4")).size());
+	genericCache.evictAll(Arrays.asList("key2", "key3"));
+	List<Set<Object>> loads = new ArrayList<>();
+	Map<Object, String> values = genericCache.getAll(Arrays.asList("key1", "key2", "key3"),
+		keys -> {
+		    loads.add(new HashSet<>(keys));
+		    return Collections.singletonMap("key2", "value2");
+		});
+	Assert.assertEquals("Misses weren't loaded at once",
+		Collections.singletonList(new HashSet<>(Arrays.asList("key2", "key3"))), loads);
+	Assert.assertEquals("Loaded entries weren't served", "value1,value2",
+		values.get("key1") + "," + values.get("key2"));
+	Assert.assertEquals("Entry wasn't loaded", false, values.containsKey("key3"));
+	Assert.assertEquals("Loaded entry wasn't stored", "value2",
+		genericCache.getFromCache("key2"));
+	Iterator<Object> once = Arrays.<Object> asList("key1", "key4").iterator();
+	values = genericCache.getAll(() -> once, keys -> Collections.singletonMap("key4", "value4"));
+	Assert.assertEquals("One-shot keys weren't all served", "value1,value4",
+		values.get("key1") + "," + values.get("key4"));
+    }
+
+    @Test
+    public void stats() {
+	genericCache.getFromCache("key1");
+	Assert.assertEquals("Stats were recorded while disabled", 0L,
+		genericCache.getStats().getHitCount());
+	genericCache.setRecordStats(true);
+	genericCache.getFromCache("key1");
+	genericCache.getFromCache("key2");
+	genericCache.get("key2", key -> "value2");
+	genericCache.getAll(Arrays.asList("key1", "key2", "key3"));
+	genericCache.flush();
+	CacheStats stats = genericCache.getStats();
+	Assert.assertEquals("Hits weren't recorded", 3L, stats.getHitCount());
+	Assert.assertEquals("Misses weren't recorded", 3L, stats.getMissCount());
+	Assert.assertEquals("Load wasn't recorded", 1L, stats.getLoadSuccessCount());
+	Assert.assertEquals("Flush wasn't recorded", 1L, stats.getFlushCount());
+	Assert.assertEquals("Hit rate is wrong", 0.5d, stats.getHitRate(), 0.0d);
+    }
+
+    @Test
+    public void latencies() {
+	Assert.assertEquals("Latencies were recorded while disabled", true,
+		genericCache.getLatencies().isEmpty());
+	genericCache.setRecordLatencies(true);
+	genericCache.getFromCache("key1");
+	genericCache.getFromCache("key2");
+	genericCache.putInCache("key2", "value2");
+	genericCache.flush();
+	Map<CacheOperation, LatencySnapshot> latencies = genericCache.getLatencies();
+	Assert.assertEquals("Reads weren't recorded", 2L,
+		latencies.get(CacheOperation.GET).getCount());
+	Assert.assertEquals("Write wasn't recorded", 1L,
+		latencies.get(CacheOperation.PUT).getCount());
+	Assert.assertEquals("Flush wasn't recorded", 1L,
+		latencies.get(CacheOperation.FLUSH).getCount());
+    }
+
+    @Test
+    public void parallelFlush() {
+	genericCache.setMaximumSize(100000L);
+	for (int i = 0; i < 20000; i++)
+	    genericCache.putInCache("parallel" + i, "value" + i);
+	ticker.advance(11L, MINUTES);
+	genericCache.putInCache("key2", "value2");
+	genericCache.flush(ForkJoinPool.commonPool());
+	Assert.assertEquals("Expired entries weren't flushed", 20001L,
+		genericCache.getExpirationCount());
+	Assert.assertEquals("Live entry was flushed", "value2", genericCache.getFromCache("key2"));
+	genericCache.setMaximumSize(1L);
+	Assert.assertEquals("Flushed entries are still tracked by the policy", "value2",
+		genericCache.getFromCache("key2"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T copy(T object) throws Exception {
+	ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+	try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+	    out.writeObject(object);
+	}
+	try (ObjectInputStream in = new ObjectInputStream(
+		new ByteArrayInputStream(bytes.toByteArray()))) {
+	    return (T) in.readObject();
+	}
+    }
+}
\ No newline at end of file
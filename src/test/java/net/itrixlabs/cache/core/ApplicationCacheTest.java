@@ -0,0 +1,102 @@
+package net.itrixlabs.cache.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.itrixlabs.cache.config.Key;
+
+public class ApplicationCacheTest {
+
+    private ApplicationCache<Key, String> defaultCache;
+
+    @Before
+    public void setup() {
+	defaultCache = new PutIfAbsentCache();
+	defaultCache.putInCache("key1", "value1");
+    }
+
+    @Test
+    public void replace() {
+	Assert.assertEquals("Present entry wasn't returned", "value1",
+		defaultCache.replace("key1", "value2"));
+	Assert.assertEquals("Entry wasn't replaced", "value2", defaultCache.getFromCache("key1"));
+	Assert.assertEquals("Absent entry was replaced", null,
+		defaultCache.replace("key2", "value2"));
+	Assert.assertEquals("Absent entry was stored", false, defaultCache.isPresentInCache("key2"));
+    }
+
+    @Test
+    public void compute() {
+	Assert.assertEquals("Entry wasn't computed", "value1-computed",
+		defaultCache.compute("key1", (key, present) -> present + "-computed"));
+	Assert.assertEquals("Computed entry wasn't stored", "value1-computed",
+		defaultCache.getFromCache("key1"));
+	defaultCache.compute("key1", (key, present) -> null);
+	Assert.assertEquals("Entry wasn't removed", false, defaultCache.isPresentInCache("key1"));
+	Assert.assertEquals("Absent entry wasn't computed", "value2",
+		defaultCache.computeIfAbsent("key2", key -> "value2"));
+	Assert.assertEquals("Present entry was computed again", "value2",
+		defaultCache.computeIfAbsent("key2", key -> "value3"));
+    }
+
+    @Test
+    public void merge() {
+	Assert.assertEquals("Entries weren't merged", "value1,value2",
+		defaultCache.merge("key1", "value2", (present, entry) -> present + "," + entry));
+	Assert.assertEquals("Merged entry wasn't stored", "value1,value2",
+		defaultCache.getFromCache("key1"));
+	Assert.assertEquals("Absent entry wasn't stored", "value3",
+		defaultCache.merge("key3", "value3", (present, entry) -> present + "," + entry));
+	defaultCache.merge("key3", "value4", (present, entry) -> null);
+	Assert.assertEquals("Entry wasn't removed", false, defaultCache.isPresentInCache("key3"));
+    }
+
+    /*
+     * Relies on the default methods, storing only entries which are absent like the caches of
+     * this library
+     */
+    private static final class PutIfAbsentCache implements ApplicationCache<Key, String> {
+
+	private final Map<Object, String> entries = new ConcurrentHashMap<>();
+
+	@Override
+	public void initialize() {
+	}
+
+	@Override
+	public String getFromCache(Object key) {
+	    return entries.get(key);
+	}
+
+	@Override
+	public void putInCache(Object key, String entry) {
+	    entries.putIfAbsent(key, entry);
+	}
+
+	@Override
+	public void evictFromCache(Object key) {
+	    entries.remove(key);
+	}
+
+	@Override
+	public boolean isPresentInCache(Object key) {
+	    return entries.containsKey(key);
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+	}
+
+	@Override
+	public void destroy() {
+	}
+    }
+}
\ No newline at end of file
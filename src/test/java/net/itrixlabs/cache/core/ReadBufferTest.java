@@ -0,0 +1,59 @@
+package net.itrixlabs.cache.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReadBufferTest {
+
+    private ReadBuffer<Integer> readBuffer;
+    private List<Integer> drained;
+
+    @Before
+    public void setup() {
+	readBuffer = new ReadBuffer<>();
+	drained = new ArrayList<>();
+    }
+
+    @Test
+    public void drainsInOrder() {
+	for (int i = 0; i < ReadBuffer.STRIPE_SIZE - 1; i++)
+	    Assert.assertEquals("Buffer was full too early", false, readBuffer.offer(i));
+	Assert.assertEquals("Full buffer wasn't reported", true,
+		readBuffer.offer(ReadBuffer.STRIPE_SIZE - 1));
+	Assert.assertEquals("Full buffer wasn't reported", true, readBuffer.offer(-1));
+	Assert.assertEquals("Reads weren't drained", ReadBuffer.STRIPE_SIZE,
+		readBuffer.drainTo(drained::add));
+	for (int i = 0; i < ReadBuffer.STRIPE_SIZE; i++)
+	    Assert.assertEquals("Reads weren't drained in order", i, (int) drained.get(i));
+	Assert.assertEquals("Read was recorded into a full buffer", false, drained.contains(-1));
+	Assert.assertEquals("Drained buffer wasn't reused", false, readBuffer.offer(42));
+	Assert.assertEquals("Read wasn't drained", 1, readBuffer.drainTo(drained::add));
+    }
+
+    @Test
+    public void concurrentReaders() throws Exception {
+	ExecutorService executor = Executors.newFixedThreadPool(8);
+	List<Future<?>> readers = new ArrayList<>();
+	for (int t = 0; t < 8; t++)
+	    readers.add(executor.submit(() -> {
+		for (int i = 0; i < 100000; i++)
+		    readBuffer.offer(i);
+	    }));
+	int count = 0;
+	while (!readers.stream().allMatch(Future::isDone))
+	    count += readBuffer.drainTo(drained::add);
+	count += readBuffer.drainTo(drained::add);
+	executor.shutdown();
+	Assert.assertEquals("Drained reads weren't counted", drained.size(), count);
+	Assert.assertEquals("Null was drained", false, drained.contains(null));
+	Assert.assertTrue("Buffer recorded more than offered", count <= 800000);
+	Assert.assertEquals("Buffer wasn't emptied", 0, readBuffer.drainTo(drained::add));
+    }
+}
\ No newline at end of file
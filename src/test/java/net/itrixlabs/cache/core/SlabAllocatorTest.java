@@ -0,0 +1,42 @@
+package net.itrixlabs.cache.core;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SlabAllocatorTest {
+
+    private SlabAllocator slabs;
+
+    @Before
+    public void setup() {
+	slabs = new SlabAllocator(2L * SlabAllocator.PAGE_SIZE);
+    }
+
+    @Test
+    public void allocateAndFree() {
+	long handle = slabs.allocate(new byte[] { 1, 2, 3 });
+	Assert.assertArrayEquals("Bytes weren't stored", new byte[] { 1, 2, 3 },
+		slabs.read(handle));
+	Assert.assertEquals("Slot wasn't accounted", 64L, slabs.getUsedBytes());
+	slabs.free(handle);
+	Assert.assertEquals("Slot wasn't released", 0L, slabs.getUsedBytes());
+	Assert.assertNull("Freed slot was read", slabs.read(handle));
+	long reused = slabs.allocate(new byte[] { 4 });
+	Assert.assertNull("Stale handle read a reused slot", slabs.read(handle));
+	Assert.assertArrayEquals("Bytes weren't stored", new byte[] { 4 }, slabs.read(reused));
+	slabs.free(handle);
+	Assert.assertArrayEquals("Stale handle freed a reused slot", new byte[] { 4 },
+		slabs.read(reused));
+    }
+
+    @Test
+    public void capacity() {
+	byte[] large = new byte[SlabAllocator.PAGE_SIZE / 2];
+	Assert.assertTrue("Slot wasn't allocated", slabs.allocate(large) >= 0L);
+	Assert.assertTrue("Slot wasn't allocated", slabs.allocate(new byte[100]) >= 0L);
+	Assert.assertEquals("Capacity was exceeded", -1L, slabs.allocate(large));
+	Assert.assertEquals("Oversized value was stored", -1L,
+		slabs.allocate(new byte[SlabAllocator.PAGE_SIZE]));
+    }
+}
\ No newline at end of file
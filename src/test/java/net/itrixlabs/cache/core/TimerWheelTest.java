@@ -0,0 +1,79 @@
+package net.itrixlabs.cache.core;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.itrixlabs.cache.config.CacheKey;
+
+public class TimerWheelTest {
+
+    private long start;
+    private TimerWheel<String> timerWheel;
+    private List<CacheEntry<String>> expired;
+
+    @Before
+    public void setup() {
+	start = 1447200000000L;
+	timerWheel = new TimerWheel<>(start);
+	expired = new ArrayList<>();
+    }
+
+    @Test
+    public void expiresOnlyDueEntries() {
+	CacheEntry<String> second = schedule("second", start + SECONDS.toMillis(2));
+	CacheEntry<String> minute = schedule("minute", start + MINUTES.toMillis(5));
+	CacheEntry<String> hour = schedule("hour", start + HOURS.toMillis(3));
+	CacheEntry<String> day = schedule("day", start + DAYS.toMillis(1));
+	CacheEntry<String> week = schedule("week", start + DAYS.toMillis(9));
+
+	timerWheel.advance(start + SECONDS.toMillis(3), expired::add);
+	Assert.assertEquals("Wrong entries expired", listOf(second), expired);
+
+	timerWheel.advance(start + MINUTES.toMillis(6), expired::add);
+	Assert.assertEquals("Wrong entries expired", listOf(second, minute), expired);
+
+	timerWheel.advance(start + HOURS.toMillis(4), expired::add);
+	Assert.assertEquals("Wrong entries expired", listOf(second, minute, hour), expired);
+
+	timerWheel.advance(start + DAYS.toMillis(2), expired::add);
+	Assert.assertEquals("Wrong entries expired", listOf(second, minute, hour, day), expired);
+
+	timerWheel.advance(start + DAYS.toMillis(10), expired::add);
+	Assert.assertEquals("Wrong entries expired", listOf(second, minute, hour, day, week),
+		expired);
+    }
+
+    @Test
+    public void descheduledEntriesNeverExpire() {
+	CacheEntry<String> entry = schedule("entry", start + SECONDS.toMillis(2));
+	timerWheel.deschedule(entry);
+	timerWheel.advance(start + MINUTES.toMillis(1), expired::add);
+	Assert.assertTrue("Descheduled entry expired", expired.isEmpty());
+    }
+
+    private CacheEntry<String> schedule(String identifier, long expirationTime) {
+	CacheKey key = new CacheKey();
+	key.setKey(identifier);
+	key.setCreationTime(start);
+	CacheEntry<String> entry = new CacheEntry<>(key, identifier, expirationTime);
+	timerWheel.schedule(entry);
+	return entry;
+    }
+
+    @SafeVarargs
+    private static List<CacheEntry<String>> listOf(CacheEntry<String>... entries) {
+	List<CacheEntry<String>> list = new ArrayList<>();
+	for (CacheEntry<String> entry : entries)
+	    list.add(entry);
+	return list;
+    }
+}
\ No newline at end of file
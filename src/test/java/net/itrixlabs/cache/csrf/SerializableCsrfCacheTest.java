@@ -7,6 +7,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import net.itrixlabs.cache.asset.SynchronizerCsrfToken;
+import net.itrixlabs.cache.policy.LruEvictionPolicy;
 
 public class SerializableCsrfCacheTest {
 
@@ -66,4 +67,14 @@ public class SerializableCsrfCacheTest {
 	Assert.assertEquals("Key was present in cache", false,
 		csrfCache.isPresentInCache(keyString4));
     }
+
+    @Test
+    public void evictionPolicy() {
+	SerializableCsrfCache<SynchronizerCsrfToken> boundedCache = new SerializableCsrfCache<>();
+	boundedCache.setEvictionPolicy(new LruEvictionPolicy());
+	boundedCache.setMaximumSize(1L);
+	boundedCache.putInCache(keyString1, actualToken1);
+	boundedCache.putInCache(keyString2, actualToken2);
+	Assert.assertEquals("Eviction policy wasn't applied", 1L, boundedCache.getSize());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,344 @@
+package net.itrixlabs.cache.persistence;
+
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import net.itrixlabs.cache.asset.FakeTicker;
+import net.itrixlabs.cache.generic.SerializableGenericCache;
+import net.itrixlabs.cache.serializer.BinarySerializer;
+
+public class AppendOnlyLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private String cacheDir;
+
+    private SerializableGenericCache<String> genericCache;
+
+    @Before
+    public void setup() throws Exception {
+	cacheDir = folder.getRoot().getPath() + File.separatorChar + "app_cache";
+	genericCache = open();
+	genericCache.putInCache("key1", "value1");
+	genericCache.putInCache("key2", "value2");
+	genericCache.putInCache("key3", "value3");
+	genericCache.evictFromCache("key2");
+	genericCache.destroy();
+    }
+
+    @Test
+    public void restoresFromLog() throws Exception {
+	SerializableGenericCache<String> restored = open();
+	Assert.assertEquals("Entry wasn't restored", "value1", restored.getFromCache("key1"));
+	Assert.assertEquals("Evicted entry was restored", false, restored.isPresentInCache("key2"));
+	Assert.assertEquals("Entry wasn't restored", "value3", restored.getFromCache("key3"));
+	restored.destroy();
+    }
+
+    @Test
+    public void discardsTornTail() throws Exception {
+	File logFile = new File(cacheDir, "generic.log");
+	long length = logFile.length();
+	try (FileOutputStream out = new FileOutputStream(logFile, true)) {
+	    out.write(new byte[] { 0, 0, 1, 0, 42 });
+	}
+	SerializableGenericCache<String> restored = open();
+	Assert.assertEquals("Entry wasn't restored", "value1", restored.getFromCache("key1"));
+	Assert.assertEquals("Torn tail wasn't discarded", length, logFile.length());
+	restored.destroy();
+    }
+
+    @Test
+    public void skipsCorruptRecord() throws Exception {
+	File logFile = new File(cacheDir, "generic.log");
+	long length = logFile.length();
+	try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+	    file.seek(12L); // Past the header
+	    long second = 20L + file.readInt(); // Length and checksum frame every record
+	    file.seek(second);
+	    int body = file.readInt();
+	    file.seek(second + 8L + body - 1L);
+	    byte last = file.readByte();
+	    file.seek(second + 8L + body - 1L);
+	    file.writeByte(last ^ 0xFF);
+	}
+	SerializableGenericCache<String> restored = open();
+	Assert.assertEquals("Entry wasn't restored", "value1", restored.getFromCache("key1"));
+	Assert.assertEquals("Corrupt entry was restored", false, restored.isPresentInCache("key2"));
+	Assert.assertEquals("Records after the corrupt one were lost", "value3",
+		restored.getFromCache("key3"));
+	Assert.assertEquals("Log was truncated", length, logFile.length());
+	restored.destroy();
+    }
+
+    @Test
+    public void skipsCorruptLength() throws Exception {
+	File logFile = new File(cacheDir, "generic.log");
+	long length = logFile.length();
+	try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+	    file.seek(12L); // Past the header
+	    file.seek(20L + file.readInt());
+	    file.writeInt(Integer.MAX_VALUE);
+	}
+	SerializableGenericCache<String> restored = open();
+	Assert.assertEquals("Entry wasn't restored", "value1", restored.getFromCache("key1"));
+	Assert.assertEquals("Records after the corrupt one were lost", "value3",
+		restored.getFromCache("key3"));
+	Assert.assertEquals("Log was truncated", length, logFile.length());
+	restored.destroy();
+    }
+
+    @Test
+    public void keepsDamagedRemainder() throws Exception {
+	File logFile = new File(cacheDir, "generic.log");
+	long length = logFile.length();
+	byte[] garbage = new byte[16];
+	Arrays.fill(garbage, (byte) 0x55);
+	try (FileOutputStream out = new FileOutputStream(logFile, true)) {
+	    out.write(garbage);
+	}
+	SerializableGenericCache<String> restored = open();
+	Assert.assertEquals("Entry wasn't restored", "value3", restored.getFromCache("key3"));
+	Assert.assertEquals("Damaged remainder wasn't cut off", length, logFile.length());
+	File damaged = new File(cacheDir, "generic.log." + length + ".damaged");
+	Assert.assertEquals("Damaged remainder wasn't kept aside", garbage.length, damaged.length());
+	restored.destroy();
+    }
+
+    @Test
+    public void compaction() throws Exception {
+	SerializableGenericCache<String> churned = open();
+	for (int i = 0; i < 6000; i++) {
+	    churned.putInCache("churn", "value" + i);
+	    churned.evictFromCache("churn");
+	}
+	churned.destroy();
+	Map<Object, Object> entries = new HashMap<>();
+	ReplayHandler handler = new ReplayHandler() {
+
+	    @Override
+	    public void restore(Object identifier, long creationTime, Object value) {
+		entries.put(identifier, value);
+	    }
+
+	    @Override
+	    public void remove(Object identifier) {
+		entries.remove(identifier);
+	    }
+	};
+	long records = new AppendOnlyLog(new File(cacheDir, "generic.log"),
+		new File(cacheDir, "generic.snapshot"), new BinarySerializer()).replay(handler);
+	Assert.assertTrue("Log wasn't compacted", records < 12000L);
+	Assert.assertEquals("Compaction lost entries", "value1", entries.get("key1"));
+	Assert.assertEquals("Compaction lost entries", "value3", entries.get("key3"));
+	Assert.assertEquals("Compaction resurrected entries", 2, entries.size());
+    }
+
+    @Test
+    public void discardsLogOlderThanSnapshot() throws Exception {
+	File logFile = new File(cacheDir, "generic.log");
+	byte[] older = Files.readAllBytes(logFile.toPath());
+	SerializableGenericCache<String> churned = open();
+	churned.evictFromCache("key1");
+	for (int i = 0; i < 6000; i++) {
+	    churned.putInCache("churn", "value" + i);
+	    churned.evictFromCache("churn");
+	}
+	churned.destroy();
+	// As if the log wasn't started over yet when the compaction crashed
+	Files.write(logFile.toPath(), older);
+	SerializableGenericCache<String> restored = open();
+	Assert.assertEquals("Older log was replayed on top of the snapshot", false,
+		restored.isPresentInCache("key1"));
+	Assert.assertEquals("Entry wasn't restored", "value3", restored.getFromCache("key3"));
+	restored.putInCache("key4", "value4");
+	restored.destroy();
+	restored = open();
+	Assert.assertEquals("Log wasn't started over", "value4", restored.getFromCache("key4"));
+	Assert.assertEquals("Older log was replayed on top of the snapshot", false,
+		restored.isPresentInCache("key1"));
+	restored.destroy();
+    }
+
+    @Test
+    public void restoresFromSnapshot() throws Exception {
+	char[] padding = new char[512];
+	Arrays.fill(padding, 'x');
+	SerializableGenericCache<String> large = open();
+	for (int i = 0; i < 8000; i++)
+	    large.putInCache("large" + i, i + new String(padding));
+	for (int i = 0; i < 8000; i += 2)
+	    large.evictFromCache("large" + i);
+	for (int i = 0; i < 2000; i++) {
+	    large.putInCache("churn", "value" + i);
+	    large.evictFromCache("churn");
+	}
+	large.destroy();
+	Assert.assertTrue("Snapshot wasn't written",
+		new File(cacheDir, "generic.snapshot").length() > (1L << 20));
+	SerializableGenericCache<String> restored = open();
+	for (int i = 0; i < 8000; i++)
+	    Assert.assertEquals("Entry wasn't restored", i % 2 == 1,
+		    restored.isPresentInCache("large" + i));
+	Assert.assertEquals("Entry wasn't restored", 7999 + new String(padding),
+		restored.getFromCache("large7999"));
+	Assert.assertEquals("Entry wasn't restored", "value1", restored.getFromCache("key1"));
+	restored.destroy();
+    }
+
+    @Test
+    public void perEntryTtl() throws Exception {
+	FakeTicker ticker = new FakeTicker();
+	SerializableGenericCache<String> expiring = open(ticker);
+	expiring.putInCache("remembered", "value1", 1L, DAYS);
+	expiring.putInCache("ordinary", "value2");
+	for (int i = 0; i < 6000; i++) {
+	    expiring.putInCache("churn", "value" + i);
+	    expiring.evictFromCache("churn");
+	}
+	expiring.putInCache("later", "value3", 1L, DAYS);
+	expiring.destroy();
+	ticker.advance(1L, HOURS);
+	SerializableGenericCache<String> restored = open(ticker);
+	Assert.assertEquals("TTL of the entry wasn't restored from the snapshot", "value1",
+		restored.getFromCache("remembered"));
+	Assert.assertEquals("TTL of the entry wasn't restored from the log", "value3",
+		restored.getFromCache("later"));
+	Assert.assertEquals("Expired entry was restored", false,
+		restored.isPresentInCache("ordinary"));
+	restored.destroy();
+    }
+
+    @Test
+    public void offHeapValues() throws Exception {
+	SerializableGenericCache<String> offHeap = new SerializableGenericCache<>(cacheDir,
+		"offheap");
+	offHeap.setOffHeapCapacity(1L << 20);
+	offHeap.afterPropertiesSet();
+	for (int i = 0; i < 1000; i++) {
+	    offHeap.putInCache("key" + i, "value" + i);
+	    if (i % 2 == 0) // Frees the value, maybe before its put is written
+		offHeap.evictFromCache("key" + i);
+	}
+	offHeap.destroy();
+	SerializableGenericCache<String> restored = new SerializableGenericCache<>(cacheDir,
+		"offheap");
+	restored.afterPropertiesSet();
+	for (int i = 0; i < 1000; i++)
+	    Assert.assertEquals("Off-heap value wasn't logged", i % 2 == 0 ? null : "value" + i,
+		    restored.getFromCache("key" + i));
+	Assert.assertEquals("Entries without a value were restored", 500L, restored.getSize());
+	restored.destroy();
+    }
+
+    @Test
+    public void sharedWriter() throws Exception {
+	LogWriter writer = new LogWriter();
+	SerializableGenericCache<String> first = new SerializableGenericCache<>(cacheDir, "first");
+	SerializableGenericCache<String> second = new SerializableGenericCache<>(cacheDir,
+		"second");
+	first.setLogWriter(writer);
+	second.setLogWriter(writer);
+	first.afterPropertiesSet();
+	second.afterPropertiesSet();
+	for (int i = 0; i < 1000; i++) {
+	    first.putInCache("first" + i, "value" + i);
+	    second.putInCache("second" + i, "value" + i);
+	}
+	first.destroy();
+	second.putInCache("second1000", "value1000");
+	second.destroy();
+	writer.close();
+
+	SerializableGenericCache<String> restored = new SerializableGenericCache<>(cacheDir,
+		"first");
+	restored.afterPropertiesSet();
+	Assert.assertEquals("Entry wasn't restored", "value999", restored.getFromCache("first999"));
+	Assert.assertEquals("Other cache's entry was restored", false,
+		restored.isPresentInCache("second999"));
+	restored.destroy();
+	restored = new SerializableGenericCache<>(cacheDir, "second");
+	restored.afterPropertiesSet();
+	Assert.assertEquals("Entry wasn't restored", "value1000",
+		restored.getFromCache("second1000"));
+	restored.destroy();
+    }
+
+    @Test(timeout = 60000L)
+    public void overflow() throws Exception {
+	CountDownLatch stalled = new CountDownLatch(1);
+	LogWriter writer = new LogWriter();
+	SerializableGenericCache<String> stalling = new SerializableGenericCache<>(cacheDir,
+		"stalling");
+	stalling.setSerializer(new BinarySerializer() {
+
+	    @Override
+	    public byte[] serialize(Object object) throws IOException {
+		if ("stall".equals(object))
+		    try {
+			stalled.await(); // Keeps the writer thread from draining the queue
+		    } catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		    }
+		return super.serialize(object);
+	    }
+	});
+	SerializableGenericCache<String> overflowing = new SerializableGenericCache<>(cacheDir,
+		"generic");
+	stalling.setLogWriter(writer);
+	overflowing.setLogWriter(writer);
+	stalling.afterPropertiesSet();
+	overflowing.afterPropertiesSet();
+	stalling.putInCache("stall", "stall");
+	for (int i = 0; i < 70000; i++) // More than the queue holds, without blocking
+	    overflowing.putInCache("key" + i, "value" + i);
+	overflowing.evictFromCache("key1");
+	stalled.countDown();
+	overflowing.destroy();
+	stalling.destroy();
+	writer.close();
+
+	SerializableGenericCache<String> restored = open();
+	Assert.assertEquals("Dropped put wasn't persisted", "value69999",
+		restored.getFromCache("key69999"));
+	Assert.assertEquals("Queued put wasn't persisted", "value0", restored.getFromCache("key0"));
+	Assert.assertEquals("Dropped removal wasn't persisted", false,
+		restored.isPresentInCache("key1"));
+	Assert.assertEquals("Entries weren't persisted", 69999L, restored.getSize());
+	restored.destroy();
+    }
+
+    private SerializableGenericCache<String> open(FakeTicker ticker) throws Exception {
+	SerializableGenericCache<String> cache = new SerializableGenericCache<>(cacheDir,
+		"generic");
+	cache.setTicker(ticker);
+	cache.setTtl(1L, MINUTES);
+	cache.afterPropertiesSet();
+	return cache;
+    }
+
+    private SerializableGenericCache<String> open() throws Exception {
+	SerializableGenericCache<String> cache = new SerializableGenericCache<>(cacheDir,
+		"generic");
+	cache.afterPropertiesSet();
+	return cache;
+    }
+}
\ No newline at end of file
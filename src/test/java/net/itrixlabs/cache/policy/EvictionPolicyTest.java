@@ -0,0 +1,73 @@
+package net.itrixlabs.cache.policy;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import net.itrixlabs.cache.generic.SerializableGenericCache;
+
+public class EvictionPolicyTest {
+
+    private SerializableGenericCache<String> genericCache = new SerializableGenericCache<>();
+
+    @Test
+    public void leastRecentlyUsed() {
+	genericCache.setEvictionPolicy(new LruEvictionPolicy());
+	genericCache.setMaximumSize(3L);
+	genericCache.putInCache("key1", "value1");
+	genericCache.putInCache("key2", "value2");
+	genericCache.putInCache("key3", "value3");
+	genericCache.getFromCache("key1");
+	genericCache.putInCache("key4", "value4");
+	Assert.assertEquals("Recently used key was evicted", true,
+		genericCache.isPresentInCache("key1"));
+	Assert.assertEquals("Least recently used key wasn't evicted", false,
+		genericCache.isPresentInCache("key2"));
+	Assert.assertEquals("Eviction wasn't counted", 1L, genericCache.getEvictionCount());
+	Assert.assertEquals("Eviction was counted as expiry", 0L,
+		genericCache.getExpirationCount());
+    }
+
+    @Test
+    public void leastFrequentlyUsed() {
+	genericCache.setEvictionPolicy(new LfuEvictionPolicy());
+	genericCache.setMaximumSize(3L);
+	genericCache.putInCache("key1", "value1");
+	genericCache.putInCache("key2", "value2");
+	genericCache.putInCache("key3", "value3");
+	genericCache.getFromCache("key1");
+	genericCache.getFromCache("key1");
+	genericCache.getFromCache("key2");
+	genericCache.putInCache("key4", "value4");
+	Assert.assertEquals("Least frequently used key wasn't evicted", false,
+		genericCache.isPresentInCache("key3"));
+	Assert.assertEquals("Frequently used key was evicted", true,
+		genericCache.isPresentInCache("key1"));
+    }
+
+    @Test
+    public void tinyLfuRejectsOneHitWonders() {
+	genericCache.setEvictionPolicy(new TinyLfuEvictionPolicy());
+	genericCache.setMaximumSize(100L);
+	for (int i = 0; i < 100; i++)
+	    genericCache.putInCache("hot" + i, "value" + i);
+	for (int round = 0; round < 5; round++)
+	    for (int i = 0; i < 100; i++)
+		genericCache.getFromCache("hot" + i);
+	for (int i = 0; i < 1000; i++)
+	    genericCache.putInCache("cold" + i, "value" + i);
+	int resident = 0;
+	for (int i = 0; i < 100; i++)
+	    if (genericCache.isPresentInCache("hot" + i))
+		resident++;
+	Assert.assertTrue("Popular keys were flushed by a scan", resident >= 95);
+	Assert.assertEquals("Cache wasn't bounded", 1000L, genericCache.getEvictionCount());
+    }
+
+    @Test
+    public void unboundedByDefault() {
+	for (int i = 0; i < 1000; i++)
+	    genericCache.putInCache("key" + i, "value" + i);
+	Assert.assertEquals("Unbounded cache evicted entries", 0L,
+		genericCache.getEvictionCount());
+    }
+}
\ No newline at end of file
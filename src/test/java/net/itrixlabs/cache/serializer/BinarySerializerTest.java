@@ -0,0 +1,106 @@
+package net.itrixlabs.cache.serializer;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+
+import net.itrixlabs.cache.asset.SynchronizerCsrfToken;
+
+public class BinarySerializerTest {
+
+    private BinarySerializer serializer;
+
+    @Before
+    public void setup() {
+	serializer = new BinarySerializer();
+    }
+
+    @Test
+    public void primitives() throws Exception {
+	for (Object value : new Object[] { null, "value", true, (byte) 1, (short) 2, 'c', 3, 4L,
+		5.0f, 6.0d })
+	    Assert.assertEquals("Value wasn't restored", value, roundTrip(value));
+	Assert.assertArrayEquals("Bytes weren't restored", new byte[] { 1, 2, 3 },
+		(byte[]) roundTrip(new byte[] { 1, 2, 3 }));
+	Assert.assertEquals("Java serialization wasn't used as fallback", new BigDecimal("7.5"),
+		roundTrip(new BigDecimal("7.5")));
+    }
+
+    @Test
+    public void springSecurity() throws Exception {
+	User user = new User("user1", "creds1", true, true, false, true,
+		AuthorityUtils.commaSeparatedStringToAuthorityList("AUTH1,AUTH2"));
+	user.eraseCredentials();
+	User restoredUser = (User) roundTrip(user);
+	Assert.assertEquals("User wasn't restored", user, restoredUser);
+	Assert.assertEquals("Erased credentials were restored", null, restoredUser.getPassword());
+	Assert.assertEquals("Authorities weren't restored", user.getAuthorities(),
+		restoredUser.getAuthorities());
+	Assert.assertEquals("Flags weren't restored", false,
+		restoredUser.isCredentialsNonExpired());
+
+	UsernamePasswordAuthenticationToken token = new UsernamePasswordAuthenticationToken(user,
+		"creds1", user.getAuthorities());
+	token.setDetails("details");
+	UsernamePasswordAuthenticationToken restoredToken;
+	restoredToken = (UsernamePasswordAuthenticationToken) roundTrip(token);
+	Assert.assertEquals("Token wasn't restored", token, restoredToken);
+	Assert.assertEquals("Token wasn't authenticated", true, restoredToken.isAuthenticated());
+	Assert.assertTrue("Binary form isn't compact",
+		serializer.serialize(token).length < new JavaSerializer().serialize(token).length
+			/ 4);
+    }
+
+    @Test
+    public void userCodec() throws Exception {
+	serializer.register(BinarySerializer.FIRST_USER_TAG, SynchronizerCsrfToken.class,
+		new Codec<SynchronizerCsrfToken>() {
+
+		    @Override
+		    public void write(SynchronizerCsrfToken value, DataOutput out,
+			    BinarySerializer serializer) throws IOException {
+			BinarySerializer.writeString(value.getIdentifier(), out);
+			BinarySerializer.writeString(value.getToken(), out);
+		    }
+
+		    @Override
+		    public SynchronizerCsrfToken read(DataInput in, BinarySerializer serializer)
+			    throws IOException {
+			return new SynchronizerCsrfToken(BinarySerializer.readString(in),
+				BinarySerializer.readString(in));
+		    }
+		});
+	SynchronizerCsrfToken token = new SynchronizerCsrfToken("id1", "id1-token1");
+	Assert.assertEquals("Codec wasn't used", "id1-token1",
+		((SynchronizerCsrfToken) roundTrip(token)).getToken());
+	Assert.assertTrue("Codec wasn't used", serializer.serialize(token).length < 32);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void reservedTag() {
+	serializer.register(BinarySerializer.FIRST_USER_TAG - 1, String.class,
+		new Codec<String>() {
+
+		    @Override
+		    public void write(String value, DataOutput out, BinarySerializer serializer) {
+		    }
+
+		    @Override
+		    public String read(DataInput in, BinarySerializer serializer) {
+			return null;
+		    }
+		});
+    }
+
+    private Object roundTrip(Object value) throws Exception {
+	return serializer.deserialize(serializer.serialize(value));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package net.itrixlabs.cache.stats;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.itrixlabs.cache.SerializableCacheManager;
+import net.itrixlabs.cache.config.PersistenceMode;
+import net.itrixlabs.cache.generic.SerializableGenericCache;
+
+public class CacheMonitorTest {
+
+    private SerializableGenericCache<String> genericCache;
+    private SerializableCacheManager<Object, Object, Object, String> cacheManager;
+    private MBeanServer server;
+    private ObjectName name;
+
+    @Before
+    public void setup() throws Exception {
+	genericCache = new SerializableGenericCache<>();
+	genericCache.setPersistenceMode(PersistenceMode.NONE);
+	cacheManager = new SerializableCacheManager<>();
+	cacheManager.setGenericCache(genericCache);
+	cacheManager.afterPropertiesSet();
+	server = ManagementFactory.getPlatformMBeanServer();
+	name = new ObjectName("net.itrixlabs.cache:type=ApplicationCache,name=generic");
+    }
+
+    @After
+    public void tearDown() {
+	cacheManager.destroy();
+    }
+
+    @Test
+    public void exposesStats() throws Exception {
+	Assert.assertEquals("Cache wasn't registered", true, server.isRegistered(name));
+	server.setAttribute(name, new Attribute("RecordingStats", true));
+	genericCache.putInCache("key1", "value1");
+	genericCache.getFromCache("key1");
+	genericCache.getFromCache("key1");
+	genericCache.getFromCache("key2");
+	Assert.assertEquals("Hits weren't exposed", 2L, server.getAttribute(name, "HitCount"));
+	Assert.assertEquals("Misses weren't exposed", 1L, server.getAttribute(name, "MissCount"));
+	Assert.assertEquals("Size wasn't exposed", 1L, server.getAttribute(name, "Size"));
+	cacheManager.destroy();
+	Assert.assertEquals("Cache wasn't unregistered", false, server.isRegistered(name));
+    }
+}
\ No newline at end of file
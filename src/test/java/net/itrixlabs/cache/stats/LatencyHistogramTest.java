@@ -0,0 +1,46 @@
+package net.itrixlabs.cache.stats;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+    private LatencyHistogram histogram;
+
+    @Before
+    public void setup() {
+	histogram = new LatencyHistogram();
+    }
+
+    @Test
+    public void percentiles() {
+	for (long value = 1L; value <= 100000L; value++)
+	    histogram.record(value * 1000L);
+	LatencySnapshot snapshot = histogram.snapshot();
+	Assert.assertEquals("Count is wrong", 100000L, snapshot.getCount());
+	Assert.assertEquals("Max is wrong", 100000000L, snapshot.getMax());
+	Assert.assertEquals("Mean is wrong", 50000500.0d, snapshot.getMean(), 0.0d);
+	for (double percentile : new double[] { 50.0d, 90.0d, 99.0d, 99.9d }) {
+	    long expected = (long) (percentile * 1000000.0d);
+	    long actual = snapshot.getValueAtPercentile(percentile);
+	    Assert.assertTrue("p" + percentile + " is off: " + actual,
+		    actual >= expected && actual <= expected * 1.125d);
+	}
+	Assert.assertEquals("p100 isn't the max", 100000000L,
+		snapshot.getValueAtPercentile(100.0d));
+    }
+
+    @Test
+    public void buckets() {
+	for (long value : new long[] { 0L, 1L, 7L, 8L, 15L, 16L, 1000L, Long.MAX_VALUE }) {
+	    int bucket = LatencyHistogram.bucket(value);
+	    Assert.assertTrue("Value is beyond its bucket: " + value,
+		    value <= LatencyHistogram.highestValue(bucket));
+	    Assert.assertTrue("Value is before its bucket: " + value,
+		    bucket == 0 || value > LatencyHistogram.highestValue(bucket - 1));
+	}
+	Assert.assertEquals("Empty histogram has latencies", 0L,
+		histogram.snapshot().getValueAtPercentile(99.0d));
+    }
+}
\ No newline at end of file
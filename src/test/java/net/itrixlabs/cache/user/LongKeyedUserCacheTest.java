@@ -0,0 +1,157 @@
+package net.itrixlabs.cache.user;
+
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.itrixlabs.cache.asset.FakeTicker;
+
+public class LongKeyedUserCacheTest {
+
+    private LongKeyedUserCache<String> userCache;
+    private FakeTicker ticker;
+
+    @Before
+    public void setup() {
+	ticker = new FakeTicker();
+	userCache = new LongKeyedUserCache<>();
+	userCache.setTicker(ticker);
+	userCache.setTtl(10L, MINUTES);
+	userCache.put(1L, "user1");
+    }
+
+    @Test
+    public void getFromCache() {
+	Assert.assertEquals("Not the same user", "user1", userCache.get(1L));
+	Assert.assertEquals("Absent user was found", null, userCache.get(2L));
+	for (long id : new long[] { 0L, -1L, Long.MIN_VALUE, Long.MAX_VALUE }) {
+	    userCache.put(id, "user" + id);
+	    Assert.assertEquals("Not the same user", "user" + id, userCache.get(id));
+	}
+	userCache.put(1L, "user1-updated");
+	Assert.assertEquals("User wasn't replaced", "user1-updated", userCache.get(1L));
+	Assert.assertEquals("Replaced user was counted", 5L, userCache.getSize());
+    }
+
+    @Test
+    public void loadsOncePerMiss() throws Exception {
+	AtomicInteger loads = new AtomicInteger();
+	CountDownLatch release = new CountDownLatch(1);
+	ExecutorService executor = Executors.newFixedThreadPool(8);
+	try {
+	    List<Future<String>> results = new ArrayList<>();
+	    for (int i = 0; i < 8; i++)
+		results.add(executor.submit(() -> userCache.get(2L, id -> {
+		    loads.incrementAndGet();
+		    try {
+			release.await(5L, SECONDS);
+		    } catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		    }
+		    return "user2";
+		})));
+	    Thread.sleep(100L);
+	    release.countDown();
+	    for (Future<String> result : results)
+		Assert.assertEquals("User wasn't loaded", "user2", result.get(5L, SECONDS));
+	} finally {
+	    executor.shutdownNow();
+	}
+	Assert.assertEquals("Concurrent misses weren't coalesced", 1, loads.get());
+	Assert.assertEquals("Loaded user wasn't stored", "user2", userCache.get(2L));
+    }
+
+    @Test
+    public void evictFromCache() {
+	userCache.evict(1L);
+	Assert.assertEquals("User wasn't evicted from cache", false, userCache.contains(1L));
+	Assert.assertEquals("Evicted user was counted", 0L, userCache.getSize());
+	userCache.evict(2L);
+    }
+
+    @Test
+    public void expiry() {
+	ticker.advance(5L, MINUTES);
+	userCache.put(2L, "user2");
+	ticker.advance(6L, MINUTES);
+	Assert.assertEquals("Expired user was served", null, userCache.get(1L));
+	Assert.assertEquals("Live user wasn't served", "user2", userCache.get(2L));
+	Assert.assertEquals("Expired user was flushed early", 2L, userCache.getSize());
+	userCache.flush();
+	Assert.assertEquals("Expired user wasn't flushed", 1L, userCache.getSize());
+	Assert.assertEquals("Live user was flushed", "user2", userCache.get(2L));
+	AtomicInteger loads = new AtomicInteger();
+	for (int i = 0; i < 2; i++)
+	    Assert.assertEquals("Expired user wasn't loaded", "loaded1", userCache.get(1L, id -> {
+		loads.incrementAndGet();
+		return "loaded" + id;
+	    }));
+	Assert.assertEquals("Cached user was loaded again", 1, loads.get());
+    }
+
+    @Test
+    public void matchesMap() {
+	Map<Long, String> expected = new HashMap<>();
+	expected.put(1L, "user1");
+	Random random = new Random(42L);
+	for (int i = 0; i < 200000; i++) {
+	    long id = random.nextInt(5000) * 1024L; // Few ids, removals keep shifting entries back
+	    if (random.nextInt(3) == 0) {
+		userCache.evict(id);
+		expected.remove(id);
+	    } else {
+		userCache.put(id, "user" + i);
+		expected.put(id, "user" + i);
+	    }
+	}
+	Assert.assertEquals("Entries weren't counted", expected.size(), userCache.getSize());
+	for (long id = 0L; id < 5000L * 1024L; id += 1024L)
+	    Assert.assertEquals("Table diverged from a map", expected.get(id), userCache.get(id));
+	userCache.flush();
+	Assert.assertEquals("Live entries were flushed", expected.size(), userCache.getSize());
+    }
+
+    @Test
+    public void concurrentReaders() throws Exception {
+	LongKeyedUserCache<String> segmentedCache = new LongKeyedUserCache<>();
+	segmentedCache.setSegments(3);
+	ExecutorService executor = Executors.newFixedThreadPool(4);
+	List<Future<?>> threads = new ArrayList<>();
+	threads.add(executor.submit(() -> {
+	    for (long id = 0L; id < 100000L; id++) {
+		segmentedCache.put(id, "user" + id);
+		if (id % 2L == 0L)
+		    segmentedCache.evict(id / 2L);
+	    }
+	}));
+	for (int t = 0; t < 3; t++)
+	    threads.add(executor.submit(() -> {
+		Random random = new Random();
+		for (int i = 0; i < 200000; i++) {
+		    long id = random.nextInt(100000);
+		    String user = segmentedCache.get(id);
+		    if (user != null && !user.equals("user" + id))
+			throw new AssertionError("Read another user's entry");
+		}
+	    }));
+	for (Future<?> thread : threads)
+	    thread.get();
+	executor.shutdown();
+	Assert.assertEquals("Entries weren't counted", 50000L, segmentedCache.getSize());
+	Assert.assertEquals("Entry was lost", "user99999", segmentedCache.get(99999L));
+    }
+}
\ No newline at end of file